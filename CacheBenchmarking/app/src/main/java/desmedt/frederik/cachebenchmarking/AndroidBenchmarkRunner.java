@@ -0,0 +1,30 @@
+package desmedt.frederik.cachebenchmarking;
+
+import desmedt.frederik.cachebenchmarking.benchmark.NativeLruBenchmarks;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
+
+/**
+ * {@link BenchmarkRunner} that additionally benchmarks the native Android {@link android.support.v4.util.LruCache}.
+ */
+public class AndroidBenchmarkRunner extends BenchmarkRunner {
+
+    @Override
+    protected void submitPlatformReadBenchmarks(int lowerBound, int upperBound, double cachedRatio, String traceTag, IntGenerator generator, int warmupIterations, int runIterations) {
+        submitCountedBenchmark(new NativeLruBenchmarks.Read(traceTag, generator, cachedRatio, lowerBound, upperBound), warmupIterations, runIterations);
+    }
+
+    @Override
+    protected void submitPlatformBenchmarks(CacheBenchmarkConfiguration.StatType type, double cacheRatio, int lowerBound, int upperBound) {
+        switch (type) {
+            case INSERT:
+                submitCountedBenchmark(new NativeLruBenchmarks.Insert(cacheRatio, lowerBound, upperBound));
+                break;
+            case UPDATE:
+                submitCountedBenchmark(new NativeLruBenchmarks.Update(cacheRatio, lowerBound, upperBound));
+                break;
+            case DELETE:
+                submitCountedBenchmark(new NativeLruBenchmarks.Delete(cacheRatio, lowerBound, upperBound));
+                break;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package desmedt.frederik.cachebenchmarking;
+
+import android.util.Log;
+
+/**
+ * Routes all messages of the {@link BenchmarkLog} to the Android log.
+ */
+public class AndroidLogger implements BenchmarkLog.Logger {
+
+    @Override
+    public void log(int priority, String tag, String message, Throwable throwable) {
+        if (throwable != null) {
+            message = message + '\n' + Log.getStackTraceString(throwable);
+        }
+
+        Log.println(priority, tag, message);
+    }
+}
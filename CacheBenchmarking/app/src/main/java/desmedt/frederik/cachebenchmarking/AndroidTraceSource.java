@@ -0,0 +1,42 @@
+package desmedt.frederik.cachebenchmarking;
+
+import android.content.Context;
+
+import org.cache2k.benchmark.traces.TraceCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opens the traces that are bundled as raw resources of the app. Traces that are not bundled
+ * are read from the trace directory on the device.
+ */
+public class AndroidTraceSource implements TraceCache.Source {
+
+    private static final Map<String, Integer> FILE_NAME_TO_RESOURCE = new HashMap<>();
+
+    static {
+        FILE_NAME_TO_RESOURCE.put("trace-sprite.trc.bin.gz", R.raw.trace_sprite_trc_bin_gz);
+        FILE_NAME_TO_RESOURCE.put("trace-oltp.trc.bin.gz", R.raw.trace_oltp_trc_bin);
+        FILE_NAME_TO_RESOURCE.put("trace-mt-20121220.trc.bin.gz", R.raw.trace_mt_20121220_trc_bin_gz);
+        FILE_NAME_TO_RESOURCE.put("umass.edu/WebSearch1.spc.bz2", R.raw.web_search_1_spc);
+    }
+
+    private final Context context;
+
+    public AndroidTraceSource(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public InputStream open(String fileName) throws IOException {
+        final Integer resourceId = FILE_NAME_TO_RESOURCE.get(fileName);
+        if (resourceId == null) {
+            return TraceCache.DIRECTORY_SOURCE.open(fileName);
+        }
+
+        return context.getResources().openRawResource(resourceId);
+    }
+}
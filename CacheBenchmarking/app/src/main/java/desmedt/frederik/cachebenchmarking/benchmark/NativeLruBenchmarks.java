@@ -1,13 +1,12 @@
 package desmedt.frederik.cachebenchmarking.benchmark;
 
 import android.support.v4.util.LruCache;
-import android.util.Pair;
 
 import java.util.Random;
 import java.util.StringTokenizer;
 
 import desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration;
-import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
 import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
 import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
 
@@ -28,7 +27,7 @@ public class NativeLruBenchmarks {
         }
 
         @Override
-        protected void addToCache(int key, Integer value) {
+        protected void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -65,7 +64,7 @@ public class NativeLruBenchmarks {
         private LruCache cache;
         private final Random random = new Random();
 
-        public Read(String traceTag, Generator<Integer> traceGenerator, double cacheRatio, Integer lowerBound, Integer upperBound) {
+        public Read(String traceTag, IntGenerator traceGenerator, double cacheRatio, Integer lowerBound, Integer upperBound) {
             super(CACHE_TAG, traceTag, traceGenerator, cacheRatio, lowerBound, upperBound);
         }
 
@@ -111,7 +110,7 @@ public class NativeLruBenchmarks {
         }
 
         @Override
-        public void addToCache(int key, Integer value) {
+        public void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
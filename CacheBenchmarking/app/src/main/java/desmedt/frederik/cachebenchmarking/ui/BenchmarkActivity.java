@@ -14,6 +14,10 @@ import org.cache2k.benchmark.traces.TraceCache;
 
 import java.util.concurrent.TimeUnit;
 
+import desmedt.frederik.cachebenchmarking.AndroidBenchmarkRunner;
+import desmedt.frederik.cachebenchmarking.AndroidLogger;
+import desmedt.frederik.cachebenchmarking.AndroidTraceSource;
+import desmedt.frederik.cachebenchmarking.BenchmarkLog;
 import desmedt.frederik.cachebenchmarking.BenchmarkRunner;
 import desmedt.frederik.cachebenchmarking.R;
 
@@ -36,7 +40,8 @@ public class BenchmarkActivity extends AppCompatActivity {
     protected void onStart() {
         super.onStart();
 
-        TraceCache.applicationContext = getApplicationContext();
+        BenchmarkLog.setLogger(new AndroidLogger());
+        TraceCache.setSource(new AndroidTraceSource(getApplicationContext()));
         benchmarkProgressBar = (ProgressBar) findViewById(R.id.benchmarkProgressBar);
         textCompleted = (TextView) findViewById(R.id.textCompleted);
         checkCompleted = (ImageView) findViewById(R.id.checkCompleted);
@@ -44,7 +49,7 @@ public class BenchmarkActivity extends AppCompatActivity {
         new AsyncTask() {
             @Override
             protected Object doInBackground(Object[] params) {
-                runner = new BenchmarkRunner();
+                runner = new AndroidBenchmarkRunner();
                 runner.runBenchmarks();
 
                 try {
@@ -0,0 +1,108 @@
+package desmedt.frederik.cachebenchmarking;
+
+import java.io.PrintStream;
+
+/**
+ * Logging facade used by the benchmark harness, so it does not depend on a specific platform.
+ * The static methods mirror those of {@code android.util.Log}. By default every message is
+ * written to the console; an application can route messages elsewhere with
+ * {@link BenchmarkLog#setLogger(Logger)}.
+ */
+public final class BenchmarkLog {
+
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+
+    /**
+     * Receives every message logged through {@link BenchmarkLog}.
+     */
+    public interface Logger {
+
+        /**
+         * @param priority  One of {@link BenchmarkLog#VERBOSE}, {@link BenchmarkLog#DEBUG},
+         *                  {@link BenchmarkLog#INFO}, {@link BenchmarkLog#WARN} or {@link BenchmarkLog#ERROR}
+         * @param tag       Identifies the source of the message, usually the simple class name
+         * @param message   The message to log
+         * @param throwable An exception to log along with the message, possibly <code>null</code>
+         */
+        void log(int priority, String tag, String message, Throwable throwable);
+    }
+
+    /**
+     * Writes messages of at least a minimal priority to the standard output, warnings and errors
+     * to the standard error stream.
+     */
+    public static class ConsoleLogger implements Logger {
+
+        private static final String[] PRIORITY_NAMES = {"V", "D", "I", "W", "E"};
+
+        private final int minPriority;
+
+        public ConsoleLogger(int minPriority) {
+            this.minPriority = minPriority;
+        }
+
+        @Override
+        public void log(int priority, String tag, String message, Throwable throwable) {
+            if (priority < minPriority) {
+                return;
+            }
+
+            final PrintStream out = priority >= WARN ? System.err : System.out;
+            synchronized (out) {
+                out.println(PRIORITY_NAMES[priority - VERBOSE] + "/" + tag + ": " + message);
+                if (throwable != null) {
+                    throwable.printStackTrace(out);
+                }
+            }
+        }
+    }
+
+    private static volatile Logger logger = new ConsoleLogger(VERBOSE);
+
+    private BenchmarkLog() {
+    }
+
+    public static void setLogger(Logger logger) {
+        if (logger == null) {
+            throw new NullPointerException("logger");
+        }
+
+        BenchmarkLog.logger = logger;
+    }
+
+    public static Logger getLogger() {
+        return logger;
+    }
+
+    public static void v(String tag, String message) {
+        logger.log(VERBOSE, tag, message, null);
+    }
+
+    public static void d(String tag, String message) {
+        logger.log(DEBUG, tag, message, null);
+    }
+
+    public static void i(String tag, String message) {
+        logger.log(INFO, tag, message, null);
+    }
+
+    public static void w(String tag, String message) {
+        logger.log(WARN, tag, message, null);
+    }
+
+    public static void w(String tag, String message, Throwable throwable) {
+        logger.log(WARN, tag, message, throwable);
+    }
+
+    public static void e(String tag, String message) {
+        logger.log(ERROR, tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable throwable) {
+        logger.log(ERROR, tag, message, throwable);
+    }
+}
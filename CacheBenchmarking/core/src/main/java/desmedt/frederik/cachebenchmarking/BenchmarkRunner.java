@@ -0,0 +1,664 @@
+package desmedt.frederik.cachebenchmarking;
+
+import org.cache2k.benchmark.traces.CacheAccessTraceOltp;
+import org.cache2k.benchmark.traces.CacheAccessTraceSprite;
+import org.cache2k.benchmark.traces.CacheAccessTraceUmassWebSearch1;
+import org.cache2k.benchmark.traces.CacheAccessTraceWeb12;
+import org.cache2k.benchmark.util.AccessPattern;
+import org.cache2k.benchmark.util.AccessTrace;
+import org.cache2k.benchmark.util.MissRatioCurve;
+import org.cache2k.benchmark.util.ShardsEstimator;
+
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import desmedt.frederik.cachebenchmarking.benchmark.BaseBenchmark;
+import desmedt.frederik.cachebenchmarking.benchmark.Cache2KBenchmark;
+import desmedt.frederik.cachebenchmarking.benchmark.CustomBenchmark;
+import desmedt.frederik.cachebenchmarking.benchmark.GuavaBenchmarks;
+import desmedt.frederik.cachebenchmarking.benchmark.IntCacheBenchmark;
+import desmedt.frederik.cachebenchmarking.benchmark.JackRabbitLIRSBenchmark;
+import desmedt.frederik.cachebenchmarking.benchmark.PolicyBenchmark;
+import desmedt.frederik.cachebenchmarking.cache.Cache;
+import desmedt.frederik.cachebenchmarking.cache.FIFOCache;
+import desmedt.frederik.cachebenchmarking.cache.IntCache;
+import desmedt.frederik.cachebenchmarking.cache.IntClockCache;
+import desmedt.frederik.cachebenchmarking.cache.IntFifoCache;
+import desmedt.frederik.cachebenchmarking.cache.IntLruCache;
+import desmedt.frederik.cachebenchmarking.cache.LRUCache;
+import desmedt.frederik.cachebenchmarking.cache.RandomCache;
+import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
+import desmedt.frederik.cachebenchmarking.generator.NfsGenerator;
+import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
+import desmedt.frederik.cachebenchmarking.generator.SearchEngineGenerator;
+import desmedt.frederik.cachebenchmarking.generator.StreamingTraceGenerator;
+import desmedt.frederik.cachebenchmarking.generator.TraceGenerator;
+import desmedt.frederik.cachebenchmarking.generator.Web12Generator;
+import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
+import desmedt.frederik.cachebenchmarking.simulation.FanOutReplay;
+import desmedt.frederik.cachebenchmarking.simulation.Policy;
+
+/**
+ * Responsible for running all {@link CacheBenchmarkConfiguration}s.
+ */
+public class BenchmarkRunner {
+
+    private static final String TAG = BenchmarkRunner.class.getSimpleName();
+
+    /**
+     * The {@link Policy} simulators replayed by {@link BenchmarkRunner#runSimulations()}.
+     */
+    private static final List<Class<? extends Policy>> SIMULATED_POLICIES = Arrays.<Class<? extends Policy>>asList(
+            PolicyBenchmark.LRU_POLICY, PolicyBenchmark.FIFO_POLICY, PolicyBenchmark.RANDOM_POLICY,
+            PolicyBenchmark.CLOCK_POLICY, PolicyBenchmark.ARC_POLICY, PolicyBenchmark.LIRS_POLICY);
+
+    private Map<String, List<CacheBenchmarkConfiguration.CacheStats>> benchmarkResults = new HashMap<>();
+    private Map<String, List<CacheBenchmarkConfiguration.CacheStats>> batchedResults = new HashMap<>();
+    private Map<String, List<CacheBenchmarkConfiguration.CacheStats>> simulationResults = new HashMap<>();
+
+    /**
+     * ExecutorService executing every benchmark in a serializable fashion. Meaning none of them will
+     * run parallel to another benchmark. This is way more reliable than parallel execution as in
+     * parallel scenario's different benchmarks are both competing for the same resources and locks.
+     */
+    private ExecutorService benchmarkRunnerService = Executors.newSingleThreadExecutor();
+
+    private Generator<Cache<Integer, Integer>> generateRandomCache(final int cacheSize) {
+        return new Generator<Cache<Integer, Integer>>() {
+            @Override
+            public Cache<Integer, Integer> next() {
+                return new RandomCache<>(cacheSize);
+            }
+        };
+    }
+
+    private Generator<Cache<Integer, Integer>> generateFifoCache(final int cacheSize) {
+        return new Generator<Cache<Integer, Integer>>() {
+            @Override
+            public Cache<Integer, Integer> next() {
+                return new FIFOCache<>(cacheSize);
+            }
+        };
+    }
+
+    private Generator<Cache<Integer, Integer>> generateLruCache(final int cacheSize) {
+        return new Generator<Cache<Integer, Integer>>() {
+            @Override
+            public Cache<Integer, Integer> next() {
+                return new LRUCache<>(cacheSize);
+            }
+        };
+    }
+
+    private Generator<IntCache> generateIntFifoCache(final int cacheSize) {
+        return new Generator<IntCache>() {
+            @Override
+            public IntCache next() {
+                return new IntFifoCache(cacheSize);
+            }
+        };
+    }
+
+    private Generator<IntCache> generateIntLruCache(final int cacheSize) {
+        return new Generator<IntCache>() {
+            @Override
+            public IntCache next() {
+                return new IntLruCache(cacheSize);
+            }
+        };
+    }
+
+    private Generator<IntCache> generateIntClockCache(final int cacheSize) {
+        return new Generator<IntCache>() {
+            @Override
+            public IntCache next() {
+                return new IntClockCache(cacheSize);
+            }
+        };
+    }
+
+    public void runBenchmarks() {
+        submitLruMissRatioCurves();
+        submitSampledMissRatioErrors();
+        submitConcurrentReadBenchmarks();
+
+        NfsGenerator nfsGenerator = new NfsGenerator();
+        for (int i = 1; i <= 20; i++) {
+            submitCountedReadBenchmarks(NfsGenerator.getLowerBound(), NfsGenerator.getUpperBound(), (double) i / 100, NfsGenerator.TRACE_TAG, nfsGenerator, 1000, NfsGenerator.getUpperBound() * 50);
+        }
+        nfsGenerator = null; // remove strong reference
+
+        SearchEngineGenerator searchEngineGenerator = new SearchEngineGenerator();
+        for (int i = 1; i <= 10; i++) {
+            submitCountedReadBenchmarks(SearchEngineGenerator.getLowerBound(), SearchEngineGenerator.getUpperBound(), (double) i / 1000, SearchEngineGenerator.TRACE_TAG, searchEngineGenerator, 1000, 10_000);
+        }
+        searchEngineGenerator = null; // remove strong reference
+
+        Web12Generator web12Generator = new Web12Generator();
+        for (int i = 1; i <= 20; i++) {
+            submitCountedReadBenchmarks(0, Web12Generator.getUpperBound(), (double) i / 100, Web12Generator.TRACE_TAG, web12Generator, 1000, 100_000);
+        }
+        web12Generator = null;
+
+        ZipfGenerator zipfGenerator = new ZipfGenerator(0, 50000);
+        for (int i = 1; i <= 20; i++) {
+            submitCountedReadBenchmarks(0, 50000, (double) i / 100, ZipfGenerator.TRACE_TAG, zipfGenerator, 1000, 100_000);
+        }
+        for (int i = 1; i <= 20; i++) {
+            submitBatchedReadBenchmarks(0, 50000, (double) i / 100, ZipfGenerator.TRACE_TAG, zipfGenerator, CacheBenchmarkConfiguration.BATCH_SIZE, 100_000);
+        }
+        zipfGenerator = null;
+
+        RandomGenerator randomGenerator = new RandomGenerator(0, 50000);
+        for (int i = 1; i <= 20; i++) {
+            submitCountedReadBenchmarks(0, 50000, (double) i / 100, RandomGenerator.TRACE_TAG, randomGenerator, 1000, 100_000);
+        }
+        randomGenerator = null;
+
+        /* Insert benchmarks */
+
+        for (int i = 1; i <= 10; i++) {
+            final int upperBound = 500;
+            double cacheRatio = (double) i / 10;
+            final int cacheSize = Math.round(upperBound * ((float) i / 10));
+
+            submitCountedBenchmark(new GuavaBenchmarks.Insert(cacheRatio, 0, upperBound));
+            submitPlatformBenchmarks(CacheBenchmarkConfiguration.StatType.INSERT, cacheRatio, 0, upperBound);
+            submitCountedBenchmark(new CustomBenchmark.Insert("FifoCache", cacheRatio, 0, upperBound, generateFifoCache(cacheSize)));
+            submitCountedBenchmark(new CustomBenchmark.Insert("RandomCache", cacheRatio, 0, upperBound, generateRandomCache(cacheSize)));
+            submitCountedBenchmark(new CustomBenchmark.Insert(LRUCache.CACHE_TAG, cacheRatio, 0, upperBound, generateLruCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Insert(IntFifoCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntFifoCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Insert(IntLruCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntLruCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Insert(IntClockCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntClockCache(cacheSize)));
+            submitCountedBenchmark(new JackRabbitLIRSBenchmark.Insert(cacheRatio, 0, upperBound));
+            submitCountedBenchmark(new Cache2KBenchmark.Insert(Cache2KBenchmark.CLOCK_CACHE, cacheRatio, 0, upperBound));
+            submitCountedBenchmark(new Cache2KBenchmark.Insert(Cache2KBenchmark.ARC_CACHE, cacheRatio, 0, upperBound));
+        }
+
+        /* Update benchmarks */
+
+        for (int i = 1; i <= 10; i++) {
+            final int upperBound = 500;
+            double cacheRatio = (double) i / 10;
+            final int cacheSize = (int) Math.round(upperBound * cacheRatio);
+
+            submitCountedBenchmark(new GuavaBenchmarks.Update(cacheRatio, 0, upperBound));
+            submitPlatformBenchmarks(CacheBenchmarkConfiguration.StatType.UPDATE, cacheRatio, 0, upperBound);
+            submitCountedBenchmark(new CustomBenchmark.Update("FifoCache", cacheRatio, 0, upperBound, generateFifoCache(cacheSize)));
+            submitCountedBenchmark(new CustomBenchmark.Update("RandomCache", cacheRatio, 0, upperBound, generateRandomCache(cacheSize)));
+            submitCountedBenchmark(new CustomBenchmark.Update(LRUCache.CACHE_TAG, cacheRatio, 0, upperBound, generateLruCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Update(IntFifoCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntFifoCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Update(IntLruCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntLruCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Update(IntClockCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntClockCache(cacheSize)));
+            submitCountedBenchmark(new JackRabbitLIRSBenchmark.Update(cacheRatio, 0, upperBound));
+            submitCountedBenchmark(new Cache2KBenchmark.Update(Cache2KBenchmark.CLOCK_CACHE, cacheRatio, 0, upperBound));
+            submitCountedBenchmark(new Cache2KBenchmark.Update(Cache2KBenchmark.ARC_CACHE, cacheRatio, 0, upperBound));
+        }
+
+        /* Delete benchmarks */
+
+        for (int i = 1; i <= 10; i++) {
+            final int upperBound = 500;
+            double cacheRatio = (double) i / 10;
+            final int cacheSize = Math.round(upperBound * ((float) i / 10));
+
+            submitCountedBenchmark(new GuavaBenchmarks.Delete(cacheRatio, 0, upperBound));
+            submitPlatformBenchmarks(CacheBenchmarkConfiguration.StatType.DELETE, cacheRatio, 0, upperBound);
+            submitCountedBenchmark(new CustomBenchmark.Delete("FifoCache", cacheRatio, 0, upperBound, generateFifoCache(cacheSize)));
+            submitCountedBenchmark(new CustomBenchmark.Delete("RandomCache", cacheRatio, 0, upperBound, generateRandomCache(cacheSize)));
+            submitCountedBenchmark(new CustomBenchmark.Delete(LRUCache.CACHE_TAG, cacheRatio, 0, upperBound, generateLruCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Delete(IntFifoCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntFifoCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Delete(IntLruCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntLruCache(cacheSize)));
+            submitCountedBenchmark(new IntCacheBenchmark.Delete(IntClockCache.CACHE_TAG, cacheRatio, 0, upperBound, generateIntClockCache(cacheSize)));
+            submitCountedBenchmark(new JackRabbitLIRSBenchmark.Delete(cacheRatio, 0, upperBound));
+            submitCountedBenchmark(new Cache2KBenchmark.Delete(Cache2KBenchmark.CLOCK_CACHE, cacheRatio, 0, upperBound));
+            submitCountedBenchmark(new Cache2KBenchmark.Delete(Cache2KBenchmark.ARC_CACHE, cacheRatio, 0, upperBound));
+        }
+
+        benchmarkRunnerService.submit(new Runnable() {
+            @Override
+            public void run() {
+                logBenchmarkResults();
+            }
+        });
+
+        benchmarkRunnerService.shutdown();
+    }
+
+    /**
+     * Replay the read benchmarks of every trace, cache ratio and cache only to record their hit
+     * ratios, see {@link CacheBenchmarkConfiguration#runSimulation(int[], long, long)}. Unlike
+     * {@link BenchmarkRunner#runBenchmarks()} nothing is timed, so all replays of a trace run in
+     * parallel on a {@link ForkJoinPool}. Every replay uses its own cache and all replays of a trace
+     * share a single read-only array of keys. Blocks until all replays are completed and logged.
+     * <p/>
+     * Next to the caches the {@link Policy} simulators replay the same traces, so their hit ratios
+     * can be checked against the caches implementing the same policy. The policies of all cache
+     * ratios share a single pass over the trace, see {@link FanOutReplay}. The complete search engine
+     * trace is only replayed through the simulators, streamed by a {@link StreamingTraceGenerator}.
+     */
+    public void runSimulations() {
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            NfsGenerator nfsGenerator = new NfsGenerator();
+            simulateReadBenchmarks(pool, NfsGenerator.getLowerBound(), NfsGenerator.getUpperBound(), ratios(20, 100), NfsGenerator.TRACE_TAG, nfsGenerator, nfsGenerator.getTrace(), 1000, NfsGenerator.getUpperBound() * 50);
+            nfsGenerator = null; // remove strong reference
+
+            SearchEngineGenerator searchEngineGenerator = new SearchEngineGenerator();
+            simulateReadBenchmarks(pool, SearchEngineGenerator.getLowerBound(), SearchEngineGenerator.getUpperBound(), ratios(10, 1000), SearchEngineGenerator.TRACE_TAG, searchEngineGenerator, searchEngineGenerator.getTrace(), 1000, 10_000);
+            searchEngineGenerator = null; // remove strong reference
+
+            // The complete search engine trace is streamed, it is not truncated and never kept in memory
+            final StreamingTraceGenerator searchEngineStream = new StreamingTraceGenerator(new StreamingTraceGenerator.PatternSource() {
+                @Override
+                public AccessPattern open() throws Exception {
+                    return CacheAccessTraceUmassWebSearch1.openPattern();
+                }
+            }, true);
+            try {
+                simulatePolicies(SearchEngineGenerator.getLowerBound(), SearchEngineGenerator.getUpperBound(), ratios(10, 1000), SearchEngineGenerator.TRACE_TAG + "Stream",
+                        searchEngineStream, 1000, 4_000_000, pool.getParallelism());
+            } finally {
+                searchEngineStream.close();
+            }
+
+            Web12Generator web12Generator = new Web12Generator();
+            simulateReadBenchmarks(pool, 0, Web12Generator.getUpperBound(), ratios(20, 100), Web12Generator.TRACE_TAG, web12Generator, web12Generator.getTrace(), 1000, 100_000);
+            web12Generator = null;
+
+            // The synthetic traces are generated once, so every cache replays the same keys
+            final ZipfGenerator zipfGenerator = new ZipfGenerator(0, 50000);
+            final int[] zipfTrace = new int[1000 + 100_000];
+            zipfGenerator.fill(zipfTrace);
+            simulateReadBenchmarks(pool, 0, 50000, ratios(20, 100), ZipfGenerator.TRACE_TAG, zipfGenerator, zipfTrace, 1000, 100_000);
+
+            final RandomGenerator randomGenerator = new RandomGenerator(0, 50000);
+            final int[] randomTrace = new int[1000 + 100_000];
+            randomGenerator.fill(randomTrace);
+            simulateReadBenchmarks(pool, 0, 50000, ratios(20, 100), RandomGenerator.TRACE_TAG, randomGenerator, randomTrace, 1000, 100_000);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (Map.Entry<String, List<CacheBenchmarkConfiguration.CacheStats>> entry : simulationResults.entrySet()) {
+            BenchmarkLog.i(TAG, TableFormatter.generateHitRatioTable(entry.getKey() + " (simulated)", entry.getValue()));
+        }
+    }
+
+    private void simulateReadBenchmarks(ForkJoinPool pool, int lowerBound, int upperBound, double[] cachedRatios, String traceTag, IntGenerator generator,
+                                        final int[] trace, final long warmupAccesses, final long runAccesses) {
+        final List<Callable<CacheBenchmarkConfiguration.CacheStats>> replays = new ArrayList<>();
+        for (double cachedRatio : cachedRatios) {
+            for (final CacheBenchmarkConfiguration configuration : createReadBenchmarks(lowerBound, upperBound, cachedRatio, traceTag, generator)) {
+                replays.add(new Callable<CacheBenchmarkConfiguration.CacheStats>() {
+                    @Override
+                    public CacheBenchmarkConfiguration.CacheStats call() {
+                        configuration.runSimulation(trace, warmupAccesses, runAccesses);
+                        return configuration.getStats();
+                    }
+                });
+            }
+        }
+
+        final long start = System.nanoTime();
+        for (Future<CacheBenchmarkConfiguration.CacheStats> replay : pool.invokeAll(replays)) {
+            final CacheBenchmarkConfiguration.CacheStats stats;
+            try {
+                stats = replay.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Simulation of " + traceTag + " failed", e);
+            }
+
+            if (simulationResults.containsKey(stats.getPolicyTag())) {
+                simulationResults.get(stats.getPolicyTag()).add(stats);
+            } else {
+                simulationResults.put(stats.getPolicyTag(), new LinkedList<>(Arrays.asList(stats)));
+            }
+
+            BenchmarkLog.v(TAG, "Simulated " + stats);
+        }
+
+        BenchmarkLog.i(TAG, String.format("Simulated %d replays of %s on %d threads in %d millis", replays.size(), traceTag,
+                pool.getParallelism(), (System.nanoTime() - start) / 1_000_000));
+
+        simulatePolicies(lowerBound, upperBound, cachedRatios, traceTag, new TraceGenerator(trace), warmupAccesses, runAccesses, pool.getParallelism());
+    }
+
+    private void simulatePolicies(int lowerBound, int upperBound, double[] cachedRatios, String traceTag, IntGenerator source,
+                                  long warmupAccesses, long runAccesses, int threadCount) {
+        final List<Policy> policies = new ArrayList<>();
+        final List<Double> policyRatios = new ArrayList<>();
+        for (double cachedRatio : cachedRatios) {
+            final int cacheSize = (int) Math.round((upperBound - lowerBound) * cachedRatio);
+            for (Class<? extends Policy> policyClass : SIMULATED_POLICIES) {
+                policies.add(PolicyBenchmark.createPolicy(policyClass, cacheSize));
+                policyRatios.add(cachedRatio);
+            }
+        }
+
+        final long start = System.nanoTime();
+        final long[] hits = new FanOutReplay(policies, threadCount).replay(source, warmupAccesses, runAccesses);
+        for (int i = 0; i < policies.size(); i++) {
+            final Policy policy = policies.get(i);
+            final CacheBenchmarkConfiguration.CacheStats stats = CacheBenchmarkConfiguration.CacheStats.replayedRead(
+                    policy.getClass().getSimpleName() + "Read", traceTag, policyRatios.get(i),
+                    (int) hits[i], (int) (runAccesses - hits[i]), policy.maxSize(), policy.size());
+
+            if (simulationResults.containsKey(stats.getPolicyTag())) {
+                simulationResults.get(stats.getPolicyTag()).add(stats);
+            } else {
+                simulationResults.put(stats.getPolicyTag(), new LinkedList<>(Arrays.asList(stats)));
+            }
+
+            BenchmarkLog.v(TAG, "Simulated " + stats);
+        }
+
+        BenchmarkLog.i(TAG, String.format("Simulated %d policies on %s in a single pass on %d threads in %d millis", policies.size(), traceTag,
+                threadCount, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    public void resetEnvironment() {
+        gc();
+    }
+
+    public void logBenchmarkResults() {
+        for (Map.Entry<String, List<CacheBenchmarkConfiguration.CacheStats>> entry : benchmarkResults.entrySet()) {
+            BenchmarkLog.i(TAG, TableFormatter.generateHitRatioTable(entry.getKey(), entry.getValue()));
+            BenchmarkLog.i(TAG, TableFormatter.generateAvgReadRuntimeTable(entry.getKey(), entry.getValue()));
+            BenchmarkLog.i(TAG, TableFormatter.generateAvgRuntimeTable(CacheBenchmarkConfiguration.StatType.INSERT, entry.getKey(), entry.getValue()));
+            BenchmarkLog.i(TAG, TableFormatter.generateAvgRuntimeTable(CacheBenchmarkConfiguration.StatType.UPDATE, entry.getKey(), entry.getValue()));
+            BenchmarkLog.i(TAG, TableFormatter.generateAvgRuntimeTable(CacheBenchmarkConfiguration.StatType.DELETE, entry.getKey(), entry.getValue()));
+            for (CacheBenchmarkConfiguration.StatType type : CacheBenchmarkConfiguration.StatType.values()) {
+                BenchmarkLog.i(TAG, TableFormatter.generateLatencyTable(type, entry.getKey(), entry.getValue()));
+            }
+        }
+
+        for (Map.Entry<String, List<CacheBenchmarkConfiguration.CacheStats>> entry : batchedResults.entrySet()) {
+            BenchmarkLog.i(TAG, TableFormatter.generateAvgReadRuntimeTable(entry.getKey() + " (batched, read+fill)", entry.getValue()));
+        }
+
+//        TableFormatter hitRatioFormatter = new TableFormatter(String.format("%35s", "Benchmark name"), "Min hitrate", "Max hitrate");
+//        int i = 0;
+//        for (String benchmark : benchmarks) {
+//            hitRatioFormatter.addRow(benchmark, String.format("%.4f", minHitrateList.get(i)), String.format("%.4f", maxHitrateList.get(i++)));
+//        }
+//        BenchmarkLog.i(TAG, hitRatioFormatter.toString());
+    }
+
+    /**
+     * Log the exact LRU hit and miss ratios of every trace for the same cache ratios as the read
+     * benchmarks, next to the OPT hit ratios as upper bound. Every curve is calculated in a single
+     * pass over the trace.
+     */
+    public void submitLruMissRatioCurves() {
+        benchmarkRunnerService.submit(new Runnable() {
+            @Override
+            public void run() {
+                logLruMissRatioCurve(NfsGenerator.TRACE_TAG, CacheAccessTraceSprite.getInstance(), ratios(20, 100));
+                logLruMissRatioCurve(SearchEngineGenerator.TRACE_TAG, CacheAccessTraceUmassWebSearch1.getInstance(), ratios(10, 1000));
+                logLruMissRatioCurve(Web12Generator.TRACE_TAG, CacheAccessTraceWeb12.getInstance(), ratios(20, 100));
+            }
+        });
+    }
+
+    /**
+     * Log the error of sampled miss ratio curve estimations ({@link ShardsEstimator}) against the
+     * exact curves of the bundled traces, for several fixed sampling rates and value budgets.
+     */
+    public void submitSampledMissRatioErrors() {
+        benchmarkRunnerService.submit(new Runnable() {
+            @Override
+            public void run() {
+                final TableFormatter table = new TableFormatter("Trace", "Sampling", "Final rate", "Mean abs error", "Max abs error");
+                addSampledMissRatioErrors(table, NfsGenerator.TRACE_TAG, CacheAccessTraceSprite.getInstance());
+                addSampledMissRatioErrors(table, Web12Generator.TRACE_TAG, CacheAccessTraceWeb12.getInstance());
+                addSampledMissRatioErrors(table, "OLTP", CacheAccessTraceOltp.getInstance());
+                BenchmarkLog.i(TAG, String.format("Sampled miss ratio curve errors%n%s", table));
+            }
+        });
+    }
+
+    private void addSampledMissRatioErrors(TableFormatter table, String traceTag, AccessTrace trace) {
+        final MissRatioCurve exact = trace.getLruMissRatioCurve();
+        final ShardsEstimator[] estimators = {
+                ShardsEstimator.fixedRate(0.1), ShardsEstimator.fixedRate(0.01), ShardsEstimator.fixedRate(0.001),
+                ShardsEstimator.fixedSize(8192), ShardsEstimator.fixedSize(2048)
+        };
+        final String[] names = {"rate 10%", "rate 1%", "rate 0.1%", "8192 values", "2048 values"};
+
+        for (int i = 0; i < estimators.length; i++) {
+            final MissRatioCurve estimate;
+            try {
+                estimate = ShardsEstimator.estimate(trace.newPattern(), estimators[i]);
+            } catch (Exception e) {
+                BenchmarkLog.e(TAG, "Couldn't estimate miss ratio curve of " + traceTag, e);
+                return;
+            }
+
+            table.addRow(traceTag, names[i], String.format("%.4f", estimators[i].getSamplingRate()),
+                    String.format("%.5f", estimate.getMeanAbsoluteError(exact)),
+                    String.format("%.5f", estimate.getMaxAbsoluteError(exact)));
+        }
+    }
+
+    /**
+     * Run the read benchmarks of the thread safe caches with an increasing amount of threads
+     * sharing a single cache, and log how their throughput scales up to the amount of processors.
+     */
+    public void submitConcurrentReadBenchmarks() {
+        final ZipfGenerator zipfGenerator = new ZipfGenerator(0, 50000);
+        submitConcurrentBenchmarks(new Generator<CacheBenchmarkConfiguration>() {
+            @Override
+            public CacheBenchmarkConfiguration next() {
+                return new GuavaBenchmarks.Read(ZipfGenerator.TRACE_TAG, zipfGenerator, 0.1, 0, 50000);
+            }
+        });
+        submitConcurrentBenchmarks(new Generator<CacheBenchmarkConfiguration>() {
+            @Override
+            public CacheBenchmarkConfiguration next() {
+                return new JackRabbitLIRSBenchmark.Read(ZipfGenerator.TRACE_TAG, zipfGenerator, 0.1, 0, 50000);
+            }
+        });
+        submitConcurrentBenchmarks(new Generator<CacheBenchmarkConfiguration>() {
+            @Override
+            public CacheBenchmarkConfiguration next() {
+                return new Cache2KBenchmark.Read(Cache2KBenchmark.CLOCK_CACHE, ZipfGenerator.TRACE_TAG, zipfGenerator, 0.1, 0, 50000);
+            }
+        });
+        submitConcurrentBenchmarks(new Generator<CacheBenchmarkConfiguration>() {
+            @Override
+            public CacheBenchmarkConfiguration next() {
+                return new Cache2KBenchmark.Read(Cache2KBenchmark.ARC_CACHE, ZipfGenerator.TRACE_TAG, zipfGenerator, 0.1, 0, 50000);
+            }
+        });
+    }
+
+    /**
+     * Run fresh configurations of the generator concurrently with 1, 2, 4, ... threads up to the
+     * amount of processors and log the throughput of every thread count.
+     */
+    protected void submitConcurrentBenchmarks(final Generator<CacheBenchmarkConfiguration> configurations) {
+        benchmarkRunnerService.submit(new Runnable() {
+            @Override
+            public void run() {
+                final int processors = Runtime.getRuntime().availableProcessors();
+                final List<CacheBenchmarkConfiguration.CacheStats> results = new ArrayList<>();
+                String benchmarkName = null;
+                for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+                    final CacheBenchmarkConfiguration configuration = configurations.next();
+                    configuration.runConcurrent(threads, 10_000, 1_000_000 / threads);
+                    benchmarkName = configuration.getName();
+                    results.add(configuration.getStats());
+                    BenchmarkLog.i(TAG, configuration.getStats().toString());
+                    resetEnvironment();
+
+                    if (threads == processors) {
+                        break;
+                    }
+                }
+
+                BenchmarkLog.i(TAG, TableFormatter.generateScalingTable(benchmarkName, results));
+            }
+        });
+    }
+
+    private void logLruMissRatioCurve(String traceTag, AccessTrace trace, double[] cacheRatios) {
+        final long start = System.nanoTime();
+        final MissRatioCurve curve = trace.getLruMissRatioCurve();
+        final long curveEnd = System.nanoTime();
+        // all cache sizes share one next occurrence index and are calculated in parallel
+        final int[] optHitCounts = trace.getOptHitCounts(TableFormatter.cacheSizes(trace.getHighValue(), cacheRatios));
+        final String table = TableFormatter.generateMissRatioCurveTable(traceTag, curve, optHitCounts, trace.getHighValue(), cacheRatios);
+        BenchmarkLog.i(TAG, table);
+        BenchmarkLog.v(TAG, String.format("Calculated %s miss ratio curve in %d millis, OPT hit counts in %d millis", traceTag,
+                (curveEnd - start) / 1_000_000, (System.nanoTime() - curveEnd) / 1_000_000));
+    }
+
+    /**
+     * @return The ratios {@code 1 / divisor} up to {@code count / divisor}
+     */
+    private static double[] ratios(int count, int divisor) {
+        final double[] ratios = new double[count];
+        for (int i = 1; i <= count; i++) {
+            ratios[i - 1] = (double) i / divisor;
+        }
+
+        return ratios;
+    }
+
+    public ExecutorService getBenchmarkRunnerService() {
+        return benchmarkRunnerService;
+    }
+
+    /**
+     * Hook to submit read benchmarks of caches that are only available on a specific platform,
+     * e.g. the Android {@code LruCache}. Called for every trace and cache ratio of the read benchmarks.
+     * Does nothing by default.
+     */
+    protected void submitPlatformReadBenchmarks(int lowerBound, int upperBound, double cachedRatio, String traceTag, IntGenerator generator, int warmupIterations, int runIterations) {
+    }
+
+    /**
+     * Hook to submit insert, update or delete benchmarks of caches that are only available on a
+     * specific platform. Called for every cache ratio of the given benchmark type. Does nothing by
+     * default.
+     */
+    protected void submitPlatformBenchmarks(CacheBenchmarkConfiguration.StatType type, double cacheRatio, int lowerBound, int upperBound) {
+    }
+
+    protected void submitCountedBenchmark(final CacheBenchmarkConfiguration benchmarkConfiguration) {
+        submitCountedBenchmark(benchmarkConfiguration, 100, 1_000_000);
+    }
+
+    /**
+     * Submit a benchmark that is run with {@link CacheBenchmarkConfiguration#runBatched(long, long)},
+     * its results are reported apart from the results of the benchmarks timing every single run.
+     */
+    protected void submitBatchedBenchmark(final CacheBenchmarkConfiguration benchmarkConfiguration, final long warmupIterations, final long runIterations) {
+        benchmarkRunnerService.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                benchmarkConfiguration.runBatched(warmupIterations, runIterations);
+                CacheBenchmarkConfiguration.CacheStats stats = benchmarkConfiguration.getStats();
+
+                if (batchedResults.containsKey(stats.getPolicyTag())) {
+                    batchedResults.get(stats.getPolicyTag()).add(stats);
+                } else {
+                    batchedResults.put(stats.getPolicyTag(), new LinkedList<>(Arrays.asList(stats)));
+                }
+
+                BenchmarkLog.i(TAG, "Batched " + stats);
+                resetEnvironment();
+            }
+        });
+    }
+
+    protected void submitCountedBenchmark(final CacheBenchmarkConfiguration benchmarkConfiguration, final long warmupIterations, final long runIterations) {
+        benchmarkRunnerService.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                benchmarkConfiguration.runMany(warmupIterations, runIterations);
+                CacheBenchmarkConfiguration.CacheStats stats = benchmarkConfiguration.getStats();
+
+                if (benchmarkResults.containsKey(stats.getPolicyTag())) {
+                    benchmarkResults.get(stats.getPolicyTag()).add(stats);
+                } else {
+                    benchmarkResults.put(stats.getPolicyTag(), new LinkedList<>(Arrays.asList(stats)));
+                }
+
+                BenchmarkLog.i(TAG, benchmarkConfiguration.getStats().toString());
+                resetEnvironment();
+            }
+        });
+    }
+
+    private void submitCountedReadBenchmarks(int lowerBound, int upperBound, double cachedRatio, String traceTag, IntGenerator generator, int warmupIterations, int runIterations) {
+        submitPlatformReadBenchmarks(lowerBound, upperBound, cachedRatio, traceTag, generator, warmupIterations, runIterations);
+        for (CacheBenchmarkConfiguration configuration : createReadBenchmarks(lowerBound, upperBound, cachedRatio, traceTag, generator)) {
+            submitCountedBenchmark(configuration, warmupIterations, runIterations);
+        }
+    }
+
+    private void submitBatchedReadBenchmarks(int lowerBound, int upperBound, double cachedRatio, String traceTag, IntGenerator generator, int warmupIterations, int runIterations) {
+        for (CacheBenchmarkConfiguration configuration : createReadBenchmarks(lowerBound, upperBound, cachedRatio, traceTag, generator)) {
+            submitBatchedBenchmark(configuration, warmupIterations, runIterations);
+        }
+    }
+
+    private List<CacheBenchmarkConfiguration> createReadBenchmarks(int lowerBound, int upperBound, double cachedRatio, String traceTag, IntGenerator generator) {
+        final int cacheSize = (int) Math.round((upperBound - lowerBound) * cachedRatio);
+        return Arrays.<CacheBenchmarkConfiguration>asList(
+                new GuavaBenchmarks.Read(traceTag, generator, cachedRatio, lowerBound, upperBound),
+                new CustomBenchmark.Read(FIFOCache.CACHE_TAG, traceTag, generator, cachedRatio, lowerBound, upperBound, generateFifoCache(cacheSize)),
+                new CustomBenchmark.Read(LRUCache.CACHE_TAG, traceTag, generator, cachedRatio, lowerBound, upperBound, generateLruCache(cacheSize)),
+                new IntCacheBenchmark.Read(IntFifoCache.CACHE_TAG, traceTag, generator, cachedRatio, lowerBound, upperBound, generateIntFifoCache(cacheSize)),
+                new IntCacheBenchmark.Read(IntLruCache.CACHE_TAG, traceTag, generator, cachedRatio, lowerBound, upperBound, generateIntLruCache(cacheSize)),
+                new IntCacheBenchmark.Read(IntClockCache.CACHE_TAG, traceTag, generator, cachedRatio, lowerBound, upperBound, generateIntClockCache(cacheSize)),
+                new Cache2KBenchmark.Read(Cache2KBenchmark.RANDOM_CACHE, traceTag, generator, cachedRatio, lowerBound, upperBound),
+                new JackRabbitLIRSBenchmark.Read(traceTag, generator, cachedRatio, lowerBound, upperBound),
+                new Cache2KBenchmark.Read(Cache2KBenchmark.CLOCK_CACHE, traceTag, generator, cachedRatio, lowerBound, upperBound),
+                new Cache2KBenchmark.Read(Cache2KBenchmark.ARC_CACHE, traceTag, generator, cachedRatio, lowerBound, upperBound));
+    }
+
+    /**
+     * Force the garbage collection to run, rather than suggesting it. This will make sure that every
+     * benchmark will be run in a "fresh" memory environment, without the garbage collector kicking in
+     * clearing objects of previous benchmarks during recording.
+     */
+    private void gc() {
+        BenchmarkLog.v(TAG, "Running garbage collector");
+        Object obj = new Object();
+        ReferenceQueue queue = new ReferenceQueue();
+        PhantomReference ref = new PhantomReference<>(obj, queue);
+        obj = null;
+
+        long end = System.currentTimeMillis() + 2_000;
+        while (!ref.isEnqueued()) {
+            System.gc();
+            if (System.currentTimeMillis() > end) {
+                BenchmarkLog.v(TAG, "No garbage collection needed!");
+                return;
+            }
+        }
+
+        BenchmarkLog.v(TAG, "Memory is garbage collected");
+    }
+}
@@ -0,0 +1,994 @@
+package desmedt.frederik.cachebenchmarking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A benchmark configuration ran by the {@link BenchmarkRunner}.
+ * <p/>
+ * Note how this class is immutable, this is to enforce a reliable never-changing configuration
+ * that maintains the integrity of the end results.
+ * After the benchmark is run {@link CacheStats} are generated that can be retrieved.
+ * <p/>
+ * Every cache benchmark configuration handles keys and values, where the key is {@link Comparable}.
+ */
+public abstract class CacheBenchmarkConfiguration<K extends Comparable, V> {
+
+    /**
+     * How many times should the configuration log updates in a complete configuration run
+     * ({@link CacheBenchmarkConfiguration#runMany(long, long)} or {@link CacheBenchmarkConfiguration#runTimed(long, long)}.
+     */
+    private static final int CONFIGURATION_RUN_LOG_POINT_COUNT = 5;
+
+    /**
+     * The amount of inputs generated and timed at once by {@link CacheBenchmarkConfiguration#runBatched(long, long)}.
+     */
+    public static final int BATCH_SIZE = 4096;
+
+    /**
+     * How long {@link CacheBenchmarkConfiguration#runConcurrent(int, long, long)} waits for the
+     * workers to stop after one of them failed.
+     */
+    private static final long WORKER_SHUTDOWN_SECONDS = 60;
+
+    public final String TAG;
+    private final String name;
+    private final String policyTag;
+    private final String traceTag;
+    private final double cacheRatio;
+
+    private K lowerKeyBound;
+    private K upperKeyBound;
+
+    private CacheStats stats;
+    private long totalTimeNanos;
+    private Input<K, V> input;
+    private Object[] batchKeys;
+    private Object[] batchValues;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    public CacheBenchmarkConfiguration(String policyTag, String traceTag, double cacheRatio, K lowerBound, K upperBound) {
+        this.name = policyTag + traceTag + " (" + String.format("%.1f%%", cacheRatio * 100) + ")";
+        this.policyTag = policyTag;
+        this.traceTag = traceTag;
+        this.cacheRatio = cacheRatio;
+        TAG = CacheBenchmarkConfiguration.class.getSimpleName() + " - " + name;
+        this.lowerKeyBound = lowerBound;
+        this.upperKeyBound = upperBound;
+    }
+
+    public K getLowerKeyBound() {
+        return lowerKeyBound;
+    }
+
+    public K getUpperKeyBound() {
+        return upperKeyBound;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getCacheRatio() {
+        return cacheRatio;
+    }
+
+    public String getPolicyTag() {
+        return policyTag;
+    }
+
+    public String getTraceTag() {
+        return traceTag;
+    }
+
+    /**
+     * Run the operation the benchmark is supposed to evaluate exactly once. The behaviour,
+     * such as the speed, of this method is recorded and used to generate the final result of the
+     * configuration. Therefore it is essential that this is as high performance as it can be, e.g.
+     * you shouldn't log non-essential information or have an entire try-catch block unless if this
+     * is absolutely necessary.
+     *
+     * @param key   The key used in the operation, can be null if it is not used in some specific
+     *              implementation. The key will always be within the lower and upper bounds.
+     * @param value The value used in the operation, can be null if it is not used in some specific
+     *              implementation.
+     * @return true if the run succeeded, say by a cache success, false if the run did not succeed,
+     * say by a cache miss
+     */
+    protected abstract boolean run(K key, V value);
+
+    /**
+     * Generates a possible input for the next run. If the input to {@link CacheBenchmarkConfiguration#run(Comparable, Object)}
+     * is irrelevant this could return <code>null</code>. Note how this can have an arbitrary
+     * probability distribution when picking a value from the input space. In other words, you could
+     * always return the same value from the input space (the obvious one being <code>null</code>),
+     * or you could have a perfectly random distribution. This method is not recorded/timed.
+     *
+     * @return A key-value pair used as a possible input for a single run
+     */
+    protected abstract Input<K, V> generateInput();
+
+    /**
+     * Generates the input of a run replaying {@code key} of a trace, which is required to use
+     * {@link CacheBenchmarkConfiguration#runSimulation(int[], long, long)}. This method is not
+     * recorded/timed.
+     *
+     * @param key A key of the trace
+     * @return A key-value pair with the given key, or <code>null</code> by default, meaning the
+     * configuration can't replay traces
+     */
+    protected Input<K, V> generateInput(int key) {
+        return null;
+    }
+
+    /**
+     * Generates statistics regarding the cache that is being benchmarked. Based on the type of benchmark
+     * some of the properties of the returned stats are allowed to be null.
+     * <p/>
+     * This method should not be used when trying to get an overview of benchmark statistics,
+     * {@link CacheBenchmarkConfiguration#getStats()} should be used instead.
+     *
+     * @return Statistics relating to the cache
+     * @see CacheStats
+     */
+    protected abstract CacheStats generateStats();
+
+    /**
+     * Whether {@link CacheBenchmarkConfiguration#run(Comparable, Object)} and
+     * {@link CacheBenchmarkConfiguration#cleanup(Comparable, Object, boolean)} can be called by
+     * several threads at the same time, which is required to use
+     * {@link CacheBenchmarkConfiguration#runConcurrent(int, long, long)}. False by default.
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Whether the inputs of the configuration are independent of
+     * {@link CacheBenchmarkConfiguration#prepare()}, which is required to use
+     * {@link CacheBenchmarkConfiguration#runBatched(long, long)}. False by default.
+     */
+    public boolean isBatchable() {
+        return false;
+    }
+
+    /**
+     * Optional step performed after initialization and before the benchmark run.
+     * Here the benchmark configuration has the chance of performing operations that should be run a
+     * single time before the benchmark is started, like initializing the cache.
+     * This method is not recorded/timed.
+     */
+    protected void setup() {
+    }
+
+    /**
+     * Optional step performed after the complete benchmark run with
+     * {@link CacheBenchmarkConfiguration#runMany(long, long)} and
+     * {@link CacheBenchmarkConfiguration#runTimed(long, long)}. Here the benchmark configuration has
+     * the chance of performing operations that should be run a single time after the benchmark run,
+     * like purging the cache. This method is not recorded/timed.
+     */
+    protected void tearDown() {
+    }
+
+    /**
+     * Optional intermediary step performed before each single run. Here the benchmark configuration has
+     * the chance of performing dependent operations that are required in the run, yet should not be
+     * recorded. Therefore this method is not recorded/timed.
+     */
+    protected void prepare() {
+    }
+
+    /**
+     * Optional intermediary step performed after each single run. Here the benchmark configuration has the
+     * chance of cleaning everything up to maintain reliable runs. This method is not recorded/timed.
+     *
+     * @param key       The key of the last run
+     * @param value     The value of the last run
+     * @param succeeded Whether the last run succeeded or not
+     */
+    protected void cleanup(K key, V value, boolean succeeded) {
+    }
+
+    /**
+     * Generates the input of the next single run of {@link CacheBenchmarkConfiguration#runMany(long, long)}
+     * and {@link CacheBenchmarkConfiguration#runTimed(long, long)}, which is used by
+     * {@link CacheBenchmarkConfiguration#runInput()} and
+     * {@link CacheBenchmarkConfiguration#cleanupInput(boolean)}. This method is not recorded/timed.
+     * <p/>
+     * By default the input of {@link CacheBenchmarkConfiguration#generateInput()} is kept.
+     * Configurations of caches with primitive keys and values can override the three methods to
+     * keep the input unboxed.
+     */
+    protected void loadInput() {
+        input = generateLegalInput();
+    }
+
+    /**
+     * Run the operation with the input of {@link CacheBenchmarkConfiguration#loadInput()}. This is
+     * the only part of a single run that is recorded/timed.
+     *
+     * @return true if the run succeeded, see {@link CacheBenchmarkConfiguration#run(Comparable, Object)}
+     */
+    protected boolean runInput() {
+        return input == null ? run(null, null) : run(input.key, input.value);
+    }
+
+    /**
+     * Cleanup after {@link CacheBenchmarkConfiguration#runInput()}, by default
+     * {@link CacheBenchmarkConfiguration#cleanup(Comparable, Object, boolean)} with the loaded
+     * input. This method is not recorded/timed.
+     */
+    protected void cleanupInput(boolean succeeded) {
+        if (input == null) {
+            cleanup(null, null, succeeded);
+        } else {
+            cleanup(input.key, input.value, succeeded);
+        }
+    }
+
+    /**
+     * Generates the inputs of the next {@code batchSize} runs of
+     * {@link CacheBenchmarkConfiguration#runBatched(long, long)}, which are used by
+     * {@link CacheBenchmarkConfiguration#runBatch(int)}. This method is not recorded/timed.
+     * <p/>
+     * By default the inputs of {@link CacheBenchmarkConfiguration#generateInput()} are kept.
+     * Configurations of caches with primitive keys and values can override both methods to keep
+     * the inputs unboxed.
+     *
+     * @param batchSize The amount of runs, at most {@link CacheBenchmarkConfiguration#BATCH_SIZE}
+     */
+    protected void loadBatch(int batchSize) {
+        if (batchKeys == null) {
+            batchKeys = new Object[BATCH_SIZE];
+            batchValues = new Object[BATCH_SIZE];
+        }
+
+        for (int i = 0; i < batchSize; i++) {
+            final Input<K, V> input = generateLegalInput();
+            batchKeys[i] = input == null ? null : input.key;
+            batchValues[i] = input == null ? null : input.value;
+        }
+    }
+
+    /**
+     * Runs the batch generated by {@link CacheBenchmarkConfiguration#loadBatch(int)}, calling
+     * {@link CacheBenchmarkConfiguration#cleanup(Comparable, Object, boolean)} right after every
+     * run. The whole batch is recorded/timed.
+     *
+     * @param batchSize The amount of runs
+     * @return The amount of succeeded runs
+     */
+    @SuppressWarnings("unchecked")
+    protected int runBatch(int batchSize) {
+        final Object[] keys = batchKeys;
+        final Object[] values = batchValues;
+        int successes = 0;
+        for (int i = 0; i < batchSize; i++) {
+            final K key = (K) keys[i];
+            final V value = (V) values[i];
+            final boolean succeeded = run(key, value);
+            cleanup(key, value, succeeded);
+            if (succeeded) {
+                successes++;
+            }
+        }
+
+        return successes;
+    }
+
+    /**
+     * Generates a legal key-value pair to be used as an input for a single run by using
+     * {@link CacheBenchmarkConfiguration#generateInput()} and then checking the lower and upper bounds.
+     *
+     * @return A legal input key-value pair
+     */
+    private Input<K, V> generateLegalInput() {
+        final Input<K, V> input = generateInput();
+
+        if (input != null && (input.key.compareTo(lowerKeyBound) < 0 || input.key.compareTo(upperKeyBound) > 0)) {
+            throw new IllegalArgumentException("Generated an input " + input + " that is either lower or higher than the lower or upper bound!");
+        }
+
+        return input;
+    }
+
+    /**
+     * Runs the configuration <code>warmupIterations + runIterations</code> times, using
+     * {@link CacheBenchmarkConfiguration#run(Comparable, Object)} to execute the operation and
+     * {@link CacheBenchmarkConfiguration#generateInput()} to generate a random input. These results will
+     * then be collected and returned.
+     *
+     * @param warmupIterations How many iterations the configuration should be run before recording
+     *                         the results
+     * @param runIterations    How many iterations the configuration should be run and recorded
+     * @returns The final result after completing all iterations
+     */
+    public final void runMany(long warmupIterations, long runIterations) {
+        setup();
+        final long logPoint = runIterations / CONFIGURATION_RUN_LOG_POINT_COUNT;
+
+        BenchmarkLog.v(TAG, "Starting warmup");
+        for (int i = 0; i < warmupIterations; i++) {
+            runAndRecord();
+        }
+
+        BenchmarkLog.v(TAG, "Completed warmup, starting run");
+
+        totalTimeNanos = 0;
+        latencies.reset();
+        for (int i = 0; i < runIterations; i++) {
+            runAndRecord();
+            if (i % logPoint == 0 && i != 0) {
+                BenchmarkLog.v(TAG, String.format("Reached %d iterations after %d millis", i, totalTimeNanos / 1_000_000));
+            }
+        }
+
+        stats = generateStats();
+        stats.benchmarkName = getName();
+        stats.policyTag = policyTag;
+        stats.traceTag = traceTag;
+        stats.cacheRatio = cacheRatio;
+        stats.averageRunTime = totalTimeNanos / runIterations;
+        stats.setLatencies(latencies);
+        tearDown();
+        BenchmarkLog.v(TAG, "Completed run");
+    }
+
+    /**
+     * Runs the configuration for <code>millis</code> milliseconds, using
+     * {@link CacheBenchmarkConfiguration#run(Comparable, Object)} to execute the operation and
+     * {@link CacheBenchmarkConfiguration#generateInput()} to generate a random input. These results will
+     * then be collected and returned.
+     *
+     * @param warmupMillis How long the warmup run should be in milliseconds
+     * @param runMillis    How long the actual recorded run should be in milliseconds
+     * @returns The final result after completing all iterations fitting in <code>runMillis</code> milliseconds
+     */
+    public final void runTimed(long warmupMillis, long runMillis) {
+        setup();
+        long nextLogPoint = runMillis / CONFIGURATION_RUN_LOG_POINT_COUNT;
+
+        BenchmarkLog.i(TAG, "Starting warmup");
+        while (totalTimeNanos < warmupMillis) {
+            runAndRecord();
+        }
+
+        BenchmarkLog.i(TAG, "Completed warmup, starting run");
+
+        totalTimeNanos = 0;
+        latencies.reset();
+        int totalIterations = 0;
+        while (totalTimeNanos < runMillis) {
+            totalIterations++;
+            runAndRecord();
+            if (totalTimeNanos / 1_000_000 >= runMillis) {
+                // Stop the loop as the recording passed the specified run time
+                // Repeating the run until there is a recording that fits in the specified run time
+                // is both indeterministic and unfair.
+                break;
+            }
+
+            if (totalTimeNanos >= nextLogPoint) {
+                BenchmarkLog.v(TAG, String.format("Reached %d iterations after %d millis", totalIterations,
+                        totalTimeNanos / 1_000_000));
+                nextLogPoint = nextLogPoint + runMillis / CONFIGURATION_RUN_LOG_POINT_COUNT;
+            }
+        }
+
+        stats = generateStats();
+        stats.benchmarkName = getName();
+        stats.policyTag = policyTag;
+        stats.traceTag = traceTag;
+        stats.cacheRatio = cacheRatio;
+        stats.averageRunTime = totalTimeNanos / totalIterations;
+        stats.setLatencies(latencies);
+        tearDown();
+        BenchmarkLog.i(TAG, "Completed run");
+    }
+
+    /**
+     * Runs the configuration <code>warmupIterations + runIterations</code> times in batches of
+     * {@link CacheBenchmarkConfiguration#BATCH_SIZE} runs. The inputs of a batch are generated
+     * before the batch, then the whole batch is timed with a single pair of clock reads. This keeps
+     * the clock, input generation and bookkeeping out of the measured runs, at the cost of only
+     * knowing the average run time.
+     * <p/>
+     * {@link CacheBenchmarkConfiguration#cleanup(Comparable, Object, boolean)} is called right
+     * after every run and is part of the recording, e.g. adding a missed entry to the cache, and
+     * {@link CacheBenchmarkConfiguration#prepare()} is not called at all. The hits and misses of
+     * read benchmarks are counted exactly. So the average run time of a read benchmark is the time
+     * of a read plus the filling of the misses, unlike the run time of the single runs, which only
+     * times the read.
+     *
+     * @param warmupIterations How many iterations the configuration should be run before recording
+     *                         the results
+     * @param runIterations    How many iterations the configuration should be run and recorded
+     * @throws UnsupportedOperationException If the configuration is not {@link CacheBenchmarkConfiguration#isBatchable()}
+     */
+    public final void runBatched(long warmupIterations, long runIterations) {
+        if (!isBatchable()) {
+            throw new UnsupportedOperationException(getName() + " can't be run in batches");
+        }
+
+        setup();
+
+        BenchmarkLog.v(TAG, "Starting warmup");
+        runBatches(warmupIterations);
+        BenchmarkLog.v(TAG, "Completed warmup, starting run");
+
+        totalTimeNanos = 0;
+        final long successes = runBatches(runIterations);
+
+        stats = generateStats();
+        if (stats.getStatType() == StatType.READ) {
+            stats.successCount = (int) successes;
+            stats.failureCount = (int) (runIterations - successes);
+        }
+
+        stats.benchmarkName = getName();
+        stats.policyTag = policyTag;
+        stats.traceTag = traceTag;
+        stats.cacheRatio = cacheRatio;
+        stats.averageRunTime = (double) totalTimeNanos / runIterations;
+        batchKeys = null;
+        batchValues = null;
+        tearDown();
+        BenchmarkLog.v(TAG, "Completed run");
+    }
+
+    /**
+     * @return The amount of succeeded runs
+     */
+    private long runBatches(long iterations) {
+        long successes = 0;
+        for (long completed = 0; completed < iterations; completed += BATCH_SIZE) {
+            final int batchSize = (int) Math.min(BATCH_SIZE, iterations - completed);
+            loadBatch(batchSize);
+            final long before = System.nanoTime();
+            successes += runBatch(batchSize);
+            totalTimeNanos += System.nanoTime() - before;
+        }
+
+        return successes;
+    }
+
+    /**
+     * Replays <code>warmupAccesses + runAccesses</code> keys of {@code trace}, looping the trace if
+     * it is shorter, and only counts the hits and misses of the accesses after the warmup. Nothing
+     * is timed, so several configurations can replay the same trace at the same time as long as
+     * each of them uses its own cache. The trace is never modified.
+     * <p/>
+     * {@link CacheBenchmarkConfiguration#cleanup(Comparable, Object, boolean)} is called after every
+     * access, e.g. adding a missed entry to the cache, and
+     * {@link CacheBenchmarkConfiguration#prepare()} is not called at all.
+     *
+     * @param trace          The keys to replay
+     * @param warmupAccesses How many keys should be replayed before counting hits and misses
+     * @param runAccesses    How many keys should be replayed and counted
+     * @throws UnsupportedOperationException If the configuration can't replay traces, see
+     *                                       {@link CacheBenchmarkConfiguration#generateInput(int)}
+     */
+    public final void runSimulation(int[] trace, long warmupAccesses, long runAccesses) {
+        setup();
+        int index = 0;
+        long successes = 0;
+        for (long i = 0; i < warmupAccesses + runAccesses; i++) {
+            final Input<K, V> input = generateInput(trace[index]);
+            if (input == null) {
+                tearDown();
+                throw new UnsupportedOperationException(getName() + " can't replay traces");
+            }
+
+            final boolean succeeded = run(input.key, input.value);
+            cleanup(input.key, input.value, succeeded);
+            if (succeeded && i >= warmupAccesses) {
+                successes++;
+            }
+
+            if (++index == trace.length) {
+                index = 0;
+            }
+        }
+
+        stats = generateStats();
+        if (stats.getStatType() == StatType.READ) {
+            stats.successCount = (int) successes;
+            stats.failureCount = (int) (runAccesses - successes);
+        }
+
+        stats.benchmarkName = getName();
+        stats.policyTag = policyTag;
+        stats.traceTag = traceTag;
+        stats.cacheRatio = cacheRatio;
+        tearDown();
+    }
+
+    /**
+     * Runs the configuration with <code>threadCount</code> worker threads that share the cache of
+     * the configuration. Every worker runs its own stream of inputs, which are consecutive parts of
+     * the inputs generated by {@link CacheBenchmarkConfiguration#generateInput()}. All streams are
+     * generated before the run, so the generator does not have to be thread safe.
+     * <p/>
+     * Unlike {@link CacheBenchmarkConfiguration#runMany(long, long)} single runs are not timed,
+     * instead every worker is timed from the moment all workers finished their warmup until it
+     * completed all its runs. {@link CacheBenchmarkConfiguration#cleanup(Comparable, Object, boolean)}
+     * is part of the recording, e.g. adding a missed entry to the cache, and
+     * {@link CacheBenchmarkConfiguration#prepare()} is not called at all.
+     * <p/>
+     * If a worker fails, the other workers are interrupted, including the ones waiting for the
+     * warmup of the failed worker, and the run fails with the exception of the first failed worker.
+     *
+     * @param threadCount      The amount of worker threads
+     * @param warmupIterations How many iterations every worker should run before recording the results
+     * @param runIterations    How many iterations every worker should run and record
+     * @throws UnsupportedOperationException If the configuration is not {@link CacheBenchmarkConfiguration#isThreadSafe()}
+     */
+    public final void runConcurrent(final int threadCount, final long warmupIterations, final long runIterations) {
+        if (!isThreadSafe()) {
+            throw new UnsupportedOperationException(getName() + " can't be run by several threads");
+        }
+
+        setup();
+
+        final List<List<Input<K, V>>> streams = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            final List<Input<K, V>> stream = new ArrayList<>((int) (warmupIterations + runIterations));
+            for (long j = 0; j < warmupIterations + runIterations; j++) {
+                // Copy the input, the configuration might reuse it for the next one
+                final Input<K, V> input = generateLegalInput();
+                if (input == null) {
+                    // The input is irrelevant, like in a single run
+                    stream.add(new Input<K, V>(null, null));
+                } else {
+                    stream.add(new Input<>(input.key, input.value));
+                }
+            }
+
+            streams.add(stream);
+        }
+
+        BenchmarkLog.v(TAG, String.format("Starting concurrent run with %d threads", threadCount));
+        final CyclicBarrier startBarrier = new CyclicBarrier(threadCount);
+        final ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+        final CompletionService<long[]> results = new ExecutorCompletionService<>(workers);
+        final AtomicReference<Throwable> warmupFailure = new AtomicReference<>();
+        try {
+            for (final List<Input<K, V>> stream : streams) {
+                results.submit(new Callable<long[]>() {
+                    @Override
+                    public long[] call() throws InterruptedException, BrokenBarrierException {
+                        try {
+                            for (int i = 0; i < warmupIterations; i++) {
+                                final Input<K, V> input = stream.get(i);
+                                cleanup(input.key, input.value, run(input.key, input.value));
+                            }
+                        } catch (RuntimeException | Error e) {
+                            // Release the workers already waiting for the start, they fail as well
+                            warmupFailure.compareAndSet(null, e);
+                            startBarrier.reset();
+                            throw e;
+                        }
+
+                        startBarrier.await();
+                        long successes = 0;
+                        final long start = System.nanoTime();
+                        for (int i = (int) warmupIterations; i < stream.size(); i++) {
+                            final Input<K, V> input = stream.get(i);
+                            final boolean succeeded = run(input.key, input.value);
+                            cleanup(input.key, input.value, succeeded);
+                            if (succeeded) {
+                                successes++;
+                            }
+                        }
+
+                        return new long[]{start, System.nanoTime(), successes};
+                    }
+                });
+            }
+
+            long start = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+            long successes = 0;
+            for (int i = 0; i < threadCount; i++) {
+                // Take the results in order of completion, so the first failure stops the run
+                final long[] worker = results.take().get();
+                start = Math.min(start, worker[0]);
+                end = Math.max(end, worker[1]);
+                successes += worker[2];
+            }
+
+            final long totalIterations = threadCount * runIterations;
+            stats = generateStats();
+            if (stats.getStatType() == StatType.READ) {
+                // The counters of the configuration might include the warmup or be updated racily
+                stats.successCount = (int) successes;
+                stats.failureCount = (int) (totalIterations - successes);
+            }
+
+            stats.benchmarkName = getName();
+            stats.policyTag = policyTag;
+            stats.traceTag = traceTag;
+            stats.cacheRatio = cacheRatio;
+            stats.threadCount = threadCount;
+            stats.averageRunTime = (double) (end - start) * threadCount / totalIterations;
+            stats.throughput = totalIterations * 1e9 / (end - start);
+        } catch (ExecutionException e) {
+            final Throwable cause = warmupFailure.get();
+            throw new RuntimeException("Concurrent run of " + getName() + " failed", cause != null ? cause : e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Concurrent run of " + getName() + " was interrupted", e);
+        } finally {
+            workers.shutdownNow();
+            awaitTermination(workers);
+            tearDown();
+        }
+
+        BenchmarkLog.v(TAG, "Completed concurrent run");
+    }
+
+    /**
+     * Wait until the workers stopped, so {@link CacheBenchmarkConfiguration#tearDown()} does not
+     * clear the cache while a worker is still using it. A worker in its recorded runs does not
+     * check for interrupts, so this waits until it completed them.
+     */
+    private void awaitTermination(ExecutorService workers) {
+        try {
+            if (!workers.awaitTermination(WORKER_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                BenchmarkLog.w(TAG, "Workers of the concurrent run did not stop");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runAndRecord() {
+        prepare();
+        loadInput();
+        final long before = System.nanoTime();
+        final boolean succeeded = runInput();
+        final long after = System.nanoTime();
+        cleanupInput(succeeded);
+        totalTimeNanos += after - before;
+        latencies.record(after - before);
+    }
+
+    /**
+     * Get stats of the benchmark configuration, consisting of a combination of statistics generated
+     * by the base {@link CacheBenchmarkConfiguration} and statistics generated by the cache itself.
+     * <p/>
+     * When the benchmark configuration is has not been run or is not yet finished, this will return
+     * null.
+     *
+     * @return Reliable cache statistics
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * A single key-value input of a run, see {@link CacheBenchmarkConfiguration#generateInput()}.
+     * A configuration may reuse a single instance for all its inputs, so an input is only valid
+     * until the next call of {@link CacheBenchmarkConfiguration#generateInput()}.
+     */
+    public static final class Input<K, V> {
+
+        public K key;
+        public V value;
+
+        public Input(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Overwrite the key and value of this input.
+         *
+         * @return This input
+         */
+        public Input<K, V> set(K key, V value) {
+            this.key = key;
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Input{" + key + ", " + value + "}";
+        }
+    }
+
+    /**
+     * Represents statistics of the cache used in the cache benchmark. Several statistics might be null
+     * based on the use case.
+     */
+    public static class CacheStats {
+
+        private Integer successCount;
+        private Integer failureCount;
+        private Integer maxCacheSize;
+        private Integer cacheEntryCount;
+
+        private String benchmarkName;
+        private double averageRunTime;
+        private int threadCount = 1;
+        private double throughput;
+        private Long latencyP50;
+        private Long latencyP90;
+        private Long latencyP99;
+        private Long latencyP999;
+        private Long latencyMax;
+
+        private String policyTag;
+        private String traceTag;
+        private double cacheRatio;
+
+        private final StatType type;
+
+        private CacheStats(StatType type) {
+            this.type = type;
+        }
+
+        /**
+         * A Simple Factory used for creating {@link CacheStats} of a cache benchmark where reading
+         * a cache is recorded.
+         *
+         * @param successCount    The amount of successful reads that have occurred in the current benchmark
+         *                        configuration
+         * @param failureCount    The amount of failed reads that have occurred in the current benchmark
+         *                        configuration
+         * @param cacheSize       The cache size of the cache used in the benchmark configuration (in entries), with
+         *                        a dynamically sized cache this is the maximum amount of entries
+         * @param cacheEntryCount The amount of cache entries in the cache used in the benchmark configuration
+         * @return A {@link CacheStats} object containing the specified data
+         */
+        public static CacheStats read(int successCount, int failureCount, int cacheSize, int cacheEntryCount) {
+            CacheStats metrics = new CacheStats(StatType.READ);
+            metrics.successCount = successCount;
+            metrics.failureCount = failureCount;
+            metrics.maxCacheSize = cacheSize;
+            metrics.cacheEntryCount = cacheEntryCount;
+            return metrics;
+        }
+
+        /**
+         * A Simple Factory used for creating {@link CacheStats} of reads that were replayed without a
+         * {@link CacheBenchmarkConfiguration}, e.g. by a {@link desmedt.frederik.cachebenchmarking.simulation.FanOutReplay}.
+         * The stats are named like the stats of a configuration with the same tags and cache ratio.
+         *
+         * @see CacheStats#read(int, int, int, int)
+         */
+        public static CacheStats replayedRead(String policyTag, String traceTag, double cacheRatio, int successCount, int failureCount, int cacheSize, int cacheEntryCount) {
+            CacheStats metrics = read(successCount, failureCount, cacheSize, cacheEntryCount);
+            metrics.benchmarkName = policyTag + traceTag + " (" + String.format("%.1f%%", cacheRatio * 100) + ")";
+            metrics.policyTag = policyTag;
+            metrics.traceTag = traceTag;
+            metrics.cacheRatio = cacheRatio;
+            return metrics;
+        }
+
+        /**
+         * A Simple Factory used for creating {@link CacheStats} of a cache benchmark where
+         * inserting, updating or deleting a cache is recorded.
+         *
+         * @param maxCacheSize    The cache size of the cache used in the benchmark configuration (in entries), with
+         *                        a dynamically sized cache this is the maximum amount of entries
+         * @param cacheEntryCount The amount of cache entries in the cache used in the benchmark configuration
+         * @return A {@link CacheStats} object containing the specified data
+         */
+        public static CacheStats nonRead(StatType type, int maxCacheSize, int cacheEntryCount) {
+            CacheStats metrics = new CacheStats(type);
+            metrics.maxCacheSize = maxCacheSize;
+            metrics.cacheEntryCount = cacheEntryCount;
+            return metrics;
+        }
+
+        /**
+         * @return The amount of successful reads that have occurred in the current benchmark
+         * configuration. Null if the benchmark configuration is not a reading benchmark.
+         */
+        public Integer getSuccessCount() {
+            return successCount;
+        }
+
+        /**
+         * @return The amount of failed reads that have occurred in the current benchmark
+         * configuration. Null if the benchmark configuration is not a reading benchmark.
+         */
+        public Integer getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return The cache size of the cache used in the benchmark configuration (in entries), with
+         * a dynamically sized cache this is the maximum amount of entries.
+         */
+        public Integer getMaxCacheSize() {
+            return maxCacheSize;
+        }
+
+        /**
+         * @return The amount of cache entries in the cache used in the benchmark configuration.
+         * Null if this does not make sense in the current benchmark configuration, e.g. a delete
+         * benchmark that should always have 0 cache entries after each run.
+         */
+        public Integer getCacheEntryCount() {
+            return cacheEntryCount;
+        }
+
+        private void setBenchmarkName(String benchmarkName) {
+            this.benchmarkName = benchmarkName;
+        }
+
+        private void setCacheRatio(double cacheRatio) {
+            this.cacheRatio = cacheRatio;
+        }
+
+        private void setPolicyTag(String policyTag) {
+            this.policyTag = policyTag;
+        }
+
+        private void setTraceTag(String traceTag) {
+            this.traceTag = traceTag;
+        }
+
+        /**
+         * Sets the average runtime, should only be set by the base {@link CacheBenchmarkConfiguration}.
+         *
+         * @param averageRunTime The average runtime in nanoseconds
+         */
+        private void setAverageRunTime(double averageRunTime) {
+            this.averageRunTime = averageRunTime;
+        }
+
+        public double getAverageRunTime() {
+            return averageRunTime;
+        }
+
+        /**
+         * Sets the latency percentiles, should only be set by the base {@link CacheBenchmarkConfiguration}.
+         *
+         * @param latencies The latencies of all recorded runs
+         */
+        private void setLatencies(LatencyHistogram latencies) {
+            latencyP50 = latencies.getValueAtPercentile(50);
+            latencyP90 = latencies.getValueAtPercentile(90);
+            latencyP99 = latencies.getValueAtPercentile(99);
+            latencyP999 = latencies.getValueAtPercentile(99.9);
+            latencyMax = latencies.getMax();
+        }
+
+        /**
+         * @return The median latency of a run in nanoseconds. Null if single runs were not timed,
+         * e.g. in a concurrent run.
+         */
+        public Long getLatencyP50() {
+            return latencyP50;
+        }
+
+        /**
+         * @return The 90th percentile of the latency of a run in nanoseconds, or null
+         */
+        public Long getLatencyP90() {
+            return latencyP90;
+        }
+
+        /**
+         * @return The 99th percentile of the latency of a run in nanoseconds, or null
+         */
+        public Long getLatencyP99() {
+            return latencyP99;
+        }
+
+        /**
+         * @return The 99.9th percentile of the latency of a run in nanoseconds, or null
+         */
+        public Long getLatencyP999() {
+            return latencyP999;
+        }
+
+        /**
+         * @return The maximum latency of a run in nanoseconds, or null
+         */
+        public Long getLatencyMax() {
+            return latencyMax;
+        }
+
+        /**
+         * @return The amount of threads that ran the benchmark configuration at the same time
+         */
+        public int getThreadCount() {
+            return threadCount;
+        }
+
+        /**
+         * @return The aggregate amount of operations per second of all threads, only available
+         * after {@link CacheBenchmarkConfiguration#runConcurrent(int, long, long)} and 0 otherwise
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public String getBenchmarkName() {
+            return benchmarkName;
+        }
+
+        /**
+         * @return The average hitrate of the run, which is a number where {@code 0 <= val <= 100}
+         */
+        public double getHitrate() {
+            return (double) successCount / (successCount + failureCount) * 100;
+        }
+
+        public String getPolicyTag() {
+            return policyTag;
+        }
+
+        public String getTraceTag() {
+            return traceTag;
+        }
+
+        public double getCacheRatio() {
+            return cacheRatio;
+        }
+
+        public String getPolicyWithCacheRatio() {
+            return policyTag + " (" + String.format("%.3f)", cacheRatio);
+        }
+
+        public StatType getStatType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(String.format("%-25s ", benchmarkName));
+
+            builder.append(String.format("Cache size: %-5d ", maxCacheSize));
+
+            if (getStatType() == StatType.READ) {
+                builder.append(String.format("Hit ratio: %-5.3f%%     ", (double) successCount / (successCount + failureCount) * 100));
+            }
+
+            builder.append(String.format("Average (ns): %-7.1f     ", averageRunTime));
+
+            if (latencyP50 != null) {
+                builder.append(String.format("p50/p90/p99/p99.9/max (ns): %d/%d/%d/%d/%d     ",
+                        latencyP50, latencyP90, latencyP99, latencyP999, latencyMax));
+            }
+
+            if (throughput > 0) {
+                builder.append(String.format("Threads: %-3d Throughput (ops/s): %-12.0f     ", threadCount, throughput));
+            }
+
+            if (successCount != null) {
+                builder.append(String.format("Successes: %-8d     ", successCount));
+            }
+
+            if (failureCount != null) {
+                builder.append(String.format("Failures: %-8d     ", failureCount));
+            }
+
+            if (cacheEntryCount != null) {
+                builder.append(String.format("Cache entries: %-5d", cacheEntryCount));
+            }
+
+            return builder.toString();
+        }
+    }
+
+    public enum StatType {
+        READ, INSERT, UPDATE, DELETE
+    }
+}
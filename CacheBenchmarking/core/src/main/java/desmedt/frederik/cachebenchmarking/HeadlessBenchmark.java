@@ -0,0 +1,38 @@
+package desmedt.frederik.cachebenchmarking;
+
+import org.cache2k.benchmark.traces.TraceResourceDirectory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs all benchmarks of the {@link BenchmarkRunner} on a plain JVM and logs the results to the
+ * console. The traces are read from the {@link TraceResourceDirectory}, which can be set with the
+ * system property <code>trace.directory</code>.
+ * <p/>
+ * With the argument <code>simulate</code> only the hit ratios of the read benchmarks are
+ * calculated, using all processors, see {@link BenchmarkRunner#runSimulations()}.
+ */
+public class HeadlessBenchmark {
+
+    private static final String TAG = HeadlessBenchmark.class.getSimpleName();
+
+    public static void main(String[] args) throws InterruptedException {
+        BenchmarkLog.i(TAG, String.format("Running benchmarks on %s %s (%s), %d processors, reading traces from %s",
+                System.getProperty("java.vm.name"), System.getProperty("java.version"), System.getProperty("os.arch"),
+                Runtime.getRuntime().availableProcessors(), TraceResourceDirectory.TRACE_DIRECTORY));
+
+        final BenchmarkRunner runner = new BenchmarkRunner();
+        if (args.length > 0 && "simulate".equals(args[0])) {
+            runner.runSimulations();
+            runner.getBenchmarkRunnerService().shutdown();
+            return;
+        }
+
+        runner.runBenchmarks();
+
+        if (!runner.getBenchmarkRunnerService().awaitTermination(1, TimeUnit.DAYS)) {
+            BenchmarkLog.e(TAG, "Benchmarks did not complete within a day");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package desmedt.frederik.cachebenchmarking;
+
+/**
+ * A histogram of latencies in nanoseconds with a fixed memory footprint, in the style of
+ * HdrHistogram. Values below {@code 2^PRECISION_BITS} are counted exactly, larger values are
+ * counted in log-linear buckets: every power of two range is split in {@code 2^(PRECISION_BITS - 1)}
+ * buckets of equal width, so the relative error of a reported value is below {@code 2^-(PRECISION_BITS - 1)}
+ * (1.6%). Recording a value only increments a counter and never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int PRECISION_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << PRECISION_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    /**
+     * Values above this are counted as this value, 2^40 nanoseconds is over 18 minutes.
+     */
+    public static final long HIGHEST_TRACKABLE_VALUE = (1L << 40) - 1;
+
+    private final long[] counts = new long[indexOf(HIGHEST_TRACKABLE_VALUE) + 1];
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos The latency in nanoseconds, negative values are counted as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        } else if (nanos > HIGHEST_TRACKABLE_VALUE) {
+            nanos = HIGHEST_TRACKABLE_VALUE;
+        }
+
+        counts[indexOf(nanos)]++;
+        totalCount++;
+        totalValue += nanos;
+        if (nanos > maxValue) {
+            maxValue = nanos;
+        }
+    }
+
+    /**
+     * Add all values recorded by another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+
+        totalCount = 0;
+        totalValue = 0;
+        maxValue = 0;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return The exact largest recorded value
+     */
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * @return The exact mean of all recorded values
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * @param percentile The percentile, {@code 0 <= percentile <= 100}
+     * @return The largest value that is equivalent, within the precision of the histogram, to the
+     * value below which <code>percentile</code> percent of the recorded values fall. 0 if nothing
+     * has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= rank) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - (PRECISION_BITS - 1);
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    static long lowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        final int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        return (long) (index - shift * HALF_SUB_BUCKET_COUNT) << shift;
+    }
+
+    static long highestEquivalentValue(int index) {
+        return lowestEquivalentValue(index + 1) - 1;
+    }
+}
@@ -1,5 +1,7 @@
 package desmedt.frederik.cachebenchmarking;
 
+import org.cache2k.benchmark.util.MissRatioCurve;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -189,6 +191,101 @@ public class TableFormatter {
         return table.rows.isEmpty() ? "" : new StringBuilder(String.format("%s - %s - Average execution time (ns)%n", policyTag, statType.toString())).append(table.sort(0).toString()).toString();
     }
 
+    /**
+     * Generate a table of the latency percentiles of every benchmark of the given type, for
+     * every trace and cache ratio.
+     */
+    public static String generateLatencyTable(CacheBenchmarkConfiguration.StatType statType, String policyTag, Collection<CacheBenchmarkConfiguration.CacheStats> stats) {
+        TableFormatter table = new TableFormatter("Cache ratio", "Trace", "p50 (ns)", "p90 (ns)", "p99 (ns)", "p99.9 (ns)", "Max (ns)");
+        for (CacheBenchmarkConfiguration.CacheStats stat : stats) {
+            if (stat.getStatType() == statType && stat.getLatencyP50() != null) {
+                table.addRow(String.format("%.2f%%", stat.getCacheRatio() * 100), stat.getTraceTag(),
+                        stat.getLatencyP50().toString(), stat.getLatencyP90().toString(), stat.getLatencyP99().toString(),
+                        stat.getLatencyP999().toString(), stat.getLatencyMax().toString());
+            }
+        }
+
+        return table.rows.isEmpty() ? "" : new StringBuilder(String.format("%s - %s - Latency percentiles (ns)%n", policyTag, statType.toString())).append(table.sort(0).toString()).toString();
+    }
+
+    /**
+     * Generate a table of the hit and miss ratios of a {@link MissRatioCurve} at several cache
+     * sizes, each given as a ratio of the key space.
+     *
+     * @param traceTag    The name of the trace the curve belongs to
+     * @param curve       The curve of the trace
+     * @param keySpace    The amount of distinct keys, the cache sizes are relative to this
+     * @param cacheRatios The cache sizes as ratio of the key space, {@code 0 < ratio <= 1}
+     */
+    public static String generateMissRatioCurveTable(String traceTag, MissRatioCurve curve, int keySpace, double... cacheRatios) {
+        return generateMissRatioCurveTable(traceTag, curve, null, keySpace, cacheRatios);
+    }
+
+    /**
+     * Same as {@link #generateMissRatioCurveTable(String, MissRatioCurve, int, double...)} with the hit ratio of
+     * Belady's optimal algorithm next to the LRU hit ratio.
+     *
+     * @param optHitCounts The OPT hit count for every cache ratio, see {@link #cacheSizes(int, double...)}, or null
+     */
+    public static String generateMissRatioCurveTable(String traceTag, MissRatioCurve curve, int[] optHitCounts, int keySpace, double... cacheRatios) {
+        TableFormatter table = optHitCounts == null ?
+                new TableFormatter("Cache ratio", "Cache size", "Hit ratio", "Miss ratio") :
+                new TableFormatter("Cache ratio", "Cache size", "Hit ratio", "Miss ratio", "OPT hit ratio");
+        final int[] cacheSizes = cacheSizes(keySpace, cacheRatios);
+        for (int i = 0; i < cacheRatios.length; i++) {
+            final int cacheSize = cacheSizes[i];
+            final String ratio = String.format("%.2f%%", cacheRatios[i] * 100);
+            final String hitRatio = String.format("%.3f%%", curve.getHitRatio(cacheSize) * 100);
+            final String missRatio = String.format("%.3f%%", curve.getMissRatio(cacheSize) * 100);
+            if (optHitCounts == null) {
+                table.addRow(ratio, Integer.toString(cacheSize), hitRatio, missRatio);
+            } else {
+                table.addRow(ratio, Integer.toString(cacheSize), hitRatio, missRatio,
+                        String.format("%.3f%%", optHitCounts[i] * 100 / curve.getAccessCount()));
+            }
+        }
+
+        return table.rows.isEmpty() ? "" : new StringBuilder(String.format("%s - Miss ratio curve%n", traceTag)).append(table.sort(0).toString()).toString();
+    }
+
+    /**
+     * @return The cache size of every cache ratio, at least 1
+     */
+    public static int[] cacheSizes(int keySpace, double... cacheRatios) {
+        final int[] sizes = new int[cacheRatios.length];
+        for (int i = 0; i < cacheRatios.length; i++) {
+            sizes[i] = Math.max(1, (int) Math.round(keySpace * cacheRatios[i]));
+        }
+        return sizes;
+    }
+
+    /**
+     * Generate a table of the throughput of concurrent runs of the same benchmark configuration
+     * with an increasing amount of threads. The speedup and scaling efficiency are relative to the
+     * throughput of the run with the least threads, which should be a single thread.
+     *
+     * @param benchmarkName The name of the benchmark configuration
+     * @param stats         The stats of every concurrent run of the configuration
+     */
+    public static String generateScalingTable(String benchmarkName, Collection<CacheBenchmarkConfiguration.CacheStats> stats) {
+        TableFormatter table = new TableFormatter("Threads", "Throughput (ops/s)", "Average (ns)", "Speedup", "Efficiency");
+        CacheBenchmarkConfiguration.CacheStats baseline = null;
+        for (CacheBenchmarkConfiguration.CacheStats stat : stats) {
+            if (baseline == null || stat.getThreadCount() < baseline.getThreadCount()) {
+                baseline = stat;
+            }
+        }
+
+        for (CacheBenchmarkConfiguration.CacheStats stat : stats) {
+            final double speedup = stat.getThroughput() / baseline.getThroughput() * baseline.getThreadCount();
+            table.addRow(Integer.toString(stat.getThreadCount()), String.format("%.0f", stat.getThroughput()),
+                    String.format("%.1f", stat.getAverageRunTime()), String.format("%.2f", speedup),
+                    String.format("%.1f%%", speedup / stat.getThreadCount() * 100));
+        }
+
+        return table.rows.isEmpty() ? "" : new StringBuilder(String.format("%s - Concurrent throughput%n", benchmarkName)).append(table.sort(0).toString()).toString();
+    }
+
     public static class RowBuilder {
 
         private List<String> values;
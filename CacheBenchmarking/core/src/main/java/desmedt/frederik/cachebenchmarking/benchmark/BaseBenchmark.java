@@ -1,11 +1,7 @@
 package desmedt.frederik.cachebenchmarking.benchmark;
 
-import android.util.Pair;
-
-import java.util.Random;
-
 import desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration;
-import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
 import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
 import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
 
@@ -25,30 +21,136 @@ public class BaseBenchmark {
      * {@link CacheBenchmarkConfiguration#setup()} and {@link CacheBenchmarkConfiguration#tearDown()}.
      * <p/>
      * It expects the cache to be based on {@link Integer} keys.
+     * <p/>
+     * Generating inputs does not allocate: keys are generated in blocks of
+     * {@link BaseBenchmarkConfiguration#KEY_BLOCK_SIZE} by an {@link IntGenerator}, every key is
+     * boxed only once, values are taken from a pool generated during
+     * {@link CacheBenchmarkConfiguration#setup()} and a single {@link Input} is reused.
      *
      * @param <V> The type of values that will be stored in the cache
      */
     public static abstract class BaseBenchmarkConfiguration<V> extends CacheBenchmarkConfiguration<Integer, V> {
 
+        static final int KEY_BLOCK_SIZE = 1024;
+        static final int VALUE_POOL_SIZE = 1024;
+
+        /**
+         * Key spaces larger than this are not boxed in advance, as the lookup table would take up
+         * more memory than the keys themselves.
+         */
+        static final int MAX_BOXED_KEY_SPACE = 1 << 22;
+
         private int cacheSize;
+        private final int lowerBound;
+        private final int keySpace;
 
-        public BaseBenchmarkConfiguration(String policyTag, String traceTag, double cachedRatio, Integer lowerBound, Integer upperBound) {
+        private final IntGenerator keyGenerator;
+        private final int[] keys = new int[KEY_BLOCK_SIZE];
+        private int keyIndex = KEY_BLOCK_SIZE;
+        private Integer[] boxedKeys;
+
+        private Object[] values;
+        private int valueIndex = 0;
+
+        private final Input<Integer, V> input = new Input<>(null, null);
+
+        public BaseBenchmarkConfiguration(String policyTag, String traceTag, IntGenerator keyGenerator, double cachedRatio, Integer lowerBound, Integer upperBound) {
             super(policyTag, traceTag, cachedRatio, lowerBound, upperBound);
             cacheSize = (int) Math.round((upperBound - lowerBound) * cachedRatio);
+            this.keyGenerator = keyGenerator;
+            this.lowerBound = lowerBound;
+            keySpace = upperBound - lowerBound + 1;
         }
 
         @Override
         protected void setup() {
+            if (keySpace <= MAX_BOXED_KEY_SPACE) {
+                boxedKeys = new Integer[keySpace];
+            }
+
+            values = new Object[VALUE_POOL_SIZE];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = generateValue();
+            }
+
             createCache(cacheSize);
         }
 
         @Override
         protected void tearDown() {
             clearCache();
+            boxedKeys = null;
+            values = null;
+        }
+
+        /**
+         * @return The next key of the key generator
+         */
+        protected final int nextKey() {
+            if (keyIndex == keys.length) {
+                keyGenerator.fill(keys);
+                keyIndex = 0;
+            }
+
+            return keys[keyIndex++];
+        }
+
+        /**
+         * @return The same {@link Integer} instance for every call with the same key, unless the
+         * key space is larger than {@link BaseBenchmarkConfiguration#MAX_BOXED_KEY_SPACE}
+         */
+        protected final Integer boxKey(int key) {
+            final int index = key - lowerBound;
+            if (boxedKeys == null || index < 0 || index >= boxedKeys.length) {
+                return key;
+            }
+
+            Integer boxed = boxedKeys[index];
+            if (boxed == null) {
+                boxed = key;
+                boxedKeys[index] = boxed;
+            }
+
+            return boxed;
         }
 
         /**
-         * Generate a random value to be used as a value in a run.
+         * @return The next value of the pool generated by {@link BaseBenchmarkConfiguration#generateValue()}
+         */
+        @SuppressWarnings("unchecked")
+        protected final V nextValue() {
+            final V value = (V) values[valueIndex];
+            valueIndex = (valueIndex + 1) % VALUE_POOL_SIZE;
+            return value;
+        }
+
+        /**
+         * @return The reused input, set to the boxed {@code key} and {@code value}
+         */
+        protected final Input<Integer, V> input(int key, V value) {
+            return input.set(boxKey(key), value);
+        }
+
+        /**
+         * @return The reused input, set to the boxed {@link BaseBenchmarkConfiguration#generateKey()}
+         * and the next value of the pool
+         */
+        @Override
+        protected Input<Integer, V> generateInput() {
+            return input(generateKey(), nextValue());
+        }
+
+        /**
+         * Generate the key of the next run. Configurations of caches with primitive keys use it
+         * directly, so the key is never boxed. This method is not recorded/timed.
+         *
+         * @return The key of the next run
+         */
+        protected abstract int generateKey();
+
+        /**
+         * Generate a random value to be used as a value in a run. This is only called during
+         * {@link CacheBenchmarkConfiguration#setup()} to fill the pool of values.
          *
          * @return A random value
          */
@@ -77,8 +179,6 @@ public class BaseBenchmark {
 
     public static abstract class Read<V> extends BaseBenchmarkConfiguration<V> {
 
-        private Generator<Integer> randomGenerator;
-
         /**
          *
          * @param name The name of the cache policy used
@@ -88,13 +188,17 @@ public class BaseBenchmark {
          * @param lowerBound The lower bound of the key space
          * @param upperBound The upper bound of the key space
          */
-        public Read(String name, String traceTag, Generator<Integer> traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound) {
-            super(name + "Read", traceTag, cachedRatio, lowerBound, upperBound);
-            randomGenerator = traceGenerator;
+        public Read(String name, String traceTag, IntGenerator traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound) {
+            super(name + "Read", traceTag, traceGenerator, cachedRatio, lowerBound, upperBound);
         }
 
         protected abstract void addToCache(Integer key, V value);
 
+        @Override
+        public boolean isBatchable() {
+            return true;
+        }
+
         @Override
         protected void cleanup(Integer key, V value, boolean succeeded) {
             if (!succeeded) {
@@ -103,8 +207,13 @@ public class BaseBenchmark {
         }
 
         @Override
-        protected Pair<Integer, V> generateInput() {
-            return new Pair<>(randomGenerator.next(), generateValue());
+        protected int generateKey() {
+            return nextKey();
+        }
+
+        @Override
+        protected Input<Integer, V> generateInput(int key) {
+            return input(key, nextValue());
         }
     }
 
@@ -153,12 +262,8 @@ public class BaseBenchmark {
      */
     public static abstract class Insert<V> extends BaseBenchmarkConfiguration<V> {
 
-        private Generator<Integer> generator;
-        private int nextKey;
-
         public Insert(String name, double cachedRatio, Integer lowerBound, Integer upperBound) {
-            super(name + INSERT_TAG, RandomGenerator.TRACE_TAG, cachedRatio, lowerBound, upperBound);
-            generator = new RandomGenerator(lowerBound, upperBound);
+            super(name + INSERT_TAG, RandomGenerator.TRACE_TAG, new RandomGenerator(lowerBound, upperBound), cachedRatio, lowerBound, upperBound);
         }
 
         protected abstract void removeElement(Integer key);
@@ -167,13 +272,12 @@ public class BaseBenchmark {
 
         @Override
         protected void cleanup(Integer key, V value, boolean succeeded) {
-            nextKey = generator.next();
             removeElement(key);
         }
 
         @Override
-        protected Pair<Integer, V> generateInput() {
-            return new Pair<>(nextKey, generateValue());
+        protected int generateKey() {
+            return nextKey();
         }
     }
 
@@ -189,15 +293,13 @@ public class BaseBenchmark {
      */
     public static abstract class Delete<V> extends BaseBenchmarkConfiguration<V> {
 
-        private Generator<Integer> generator;
         private int nextKey;
 
         public Delete(String name, double cachedRatio, Integer lowerBound, Integer upperBound) {
-            super(name + DELETE_TAG, RandomGenerator.TRACE_TAG, cachedRatio, lowerBound, upperBound);
-            generator = new RandomGenerator(lowerBound, upperBound);
+            super(name + DELETE_TAG, RandomGenerator.TRACE_TAG, new RandomGenerator(lowerBound, upperBound), cachedRatio, lowerBound, upperBound);
         }
 
-        public abstract void addToCache(int key, V value);
+        public abstract void addToCache(Integer key, V value);
 
         protected abstract V generateValue();
 
@@ -211,13 +313,13 @@ public class BaseBenchmark {
 
         @Override
         protected void prepare() {
-            nextKey = generator.next();
-            addToCache(nextKey, generateValue());
+            nextKey = nextKey();
+            addToCache(boxKey(nextKey), nextValue());
         }
 
         @Override
-        protected Pair<Integer, V> generateInput() {
-            return new Pair<>(nextKey, generateValue());
+        protected int generateKey() {
+            return nextKey;
         }
     }
 
@@ -234,27 +336,25 @@ public class BaseBenchmark {
      */
     public static abstract class Update<V> extends BaseBenchmarkConfiguration<V> {
 
-        private Generator<Integer> generator;
         private int nextKey;
 
         public Update(String name, double cachedRatio, Integer lowerBound, Integer upperBound) {
-            super(name + UPDATE_TAG, RandomGenerator.TRACE_TAG, cachedRatio, lowerBound, upperBound);
-            generator = new RandomGenerator(lowerBound, upperBound);
+            super(name + UPDATE_TAG, RandomGenerator.TRACE_TAG, new RandomGenerator(lowerBound, upperBound), cachedRatio, lowerBound, upperBound);
         }
 
-        protected abstract void addToCache(int key, V value);
+        protected abstract void addToCache(Integer key, V value);
 
         protected abstract V generateValue();
 
         @Override
         protected void prepare() {
-            nextKey = generator.next();
-            addToCache(nextKey, generateValue());
+            nextKey = nextKey();
+            addToCache(boxKey(nextKey), nextValue());
         }
 
         @Override
-        protected Pair<Integer, V> generateInput() {
-            return new Pair<>(nextKey, generateValue());
+        protected int generateKey() {
+            return nextKey;
         }
     }
 }
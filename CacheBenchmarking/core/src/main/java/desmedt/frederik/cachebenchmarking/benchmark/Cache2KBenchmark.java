@@ -11,7 +11,7 @@ import java.util.Random;
 import java.util.UUID;
 
 import desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration;
-import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
 
 /**
  * Contains a collection of Clock benchmarks (by Cache2K) as inner classes.
@@ -22,7 +22,7 @@ public class Cache2KBenchmark {
     public static final Class<ArcCache> ARC_CACHE = ArcCache.class;
     public static final Class<RandomCache> RANDOM_CACHE = RandomCache.class;
 
-    private static Cache<Integer, Integer> createCache(Class<? extends BaseCache> cacheImplementation, int maxSize) {
+    public static Cache<Integer, Integer> createCache(Class<? extends BaseCache> cacheImplementation, int maxSize) {
         return CacheBuilder.newCache(Integer.class, Integer.class).name(UUID.randomUUID().toString())
                 .eternal(true)
                 .maxSize(maxSize)
@@ -42,11 +42,16 @@ public class Cache2KBenchmark {
         private int successes;
         private int failures;
 
-        public Read(Class<? extends BaseCache> cacheClass, String traceTag, Generator<Integer> traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound) {
+        public Read(Class<? extends BaseCache> cacheClass, String traceTag, IntGenerator traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound) {
             super(cacheClass.getSimpleName(), traceTag, traceGenerator, cachedRatio, lowerBound, upperBound);
             this.cacheClass = cacheClass;
         }
 
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
         @Override
         protected void addToCache(Integer key, Integer value) {
             cache.put(key, value);
@@ -146,7 +151,7 @@ public class Cache2KBenchmark {
         }
 
         @Override
-        protected void addToCache(int key, Integer value) {
+        protected void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -192,7 +197,7 @@ public class Cache2KBenchmark {
 
 
         @Override
-        public void addToCache(int key, Integer value) {
+        public void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -1,13 +1,12 @@
 package desmedt.frederik.cachebenchmarking.benchmark;
 
-import android.util.Pair;
-
 import java.util.Random;
 
 import desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration;
 import desmedt.frederik.cachebenchmarking.benchmark.BaseBenchmark.Read;
 import desmedt.frederik.cachebenchmarking.cache.Cache;
 import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
 import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
 import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
 
@@ -69,7 +68,7 @@ public class CustomBenchmark {
         private int succeses = 0;
         private int failures = 0;
 
-        public Read(String name, String traceTag, Generator<Integer> traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound, Generator<Cache<Integer, Integer>> generator) {
+        public Read(String name, String traceTag, IntGenerator traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound, Generator<Cache<Integer, Integer>> generator) {
             super(name, traceTag, traceGenerator, cachedRatio, lowerBound, upperBound);
             this.cacheGenerator = generator;
         }
@@ -128,7 +127,7 @@ public class CustomBenchmark {
         }
 
         @Override
-        protected void addToCache(int key, Integer value) {
+        protected void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -172,7 +171,7 @@ public class CustomBenchmark {
         }
 
         @Override
-        public void addToCache(int key, Integer value) {
+        public void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -7,7 +7,7 @@ import java.util.Random;
 
 import desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration;
 import desmedt.frederik.cachebenchmarking.benchmark.BaseBenchmark.Read;
-import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
 
 /**
  * Contains a collection of Guava benchmarks as inner classes.
@@ -16,7 +16,7 @@ public class GuavaBenchmarks {
 
     public static final String CACHE_TAG = "Guava";
 
-    private static Cache<Integer, Integer> createCache(int cacheSize) {
+    public static Cache<Integer, Integer> createCache(int cacheSize) {
         return CacheBuilder.newBuilder()
                 .maximumSize(cacheSize)
                 .recordStats()
@@ -28,10 +28,15 @@ public class GuavaBenchmarks {
         private Cache<Integer, Integer> cache;
         private Random random = new Random();
 
-        public Read(String traceTag, Generator<Integer> traceGenerator, double cacheRatio, Integer lowerBound, Integer upperBound) {
+        public Read(String traceTag, IntGenerator traceGenerator, double cacheRatio, Integer lowerBound, Integer upperBound) {
             super("Guava", traceTag, traceGenerator, cacheRatio, lowerBound, upperBound);
         }
 
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
         @Override
         protected boolean run(Integer key, Integer value) {
             return cache.getIfPresent(key) != null;
@@ -118,7 +123,7 @@ public class GuavaBenchmarks {
         }
 
         @Override
-        public void addToCache(int key, Integer value) {
+        public void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -160,7 +165,7 @@ public class GuavaBenchmarks {
         }
 
         @Override
-        protected void addToCache(int key, Integer value) {
+        protected void addToCache(Integer key, Integer value) {
             cache.put(key, value);
         }
 
@@ -0,0 +1,326 @@
+package desmedt.frederik.cachebenchmarking.benchmark;
+
+import java.util.Random;
+
+import desmedt.frederik.cachebenchmarking.cache.IntCache;
+import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
+
+/**
+ * A collection of cache benchmark configurations for every custom {@link IntCache}. These are the
+ * primitive counterparts of {@link CustomBenchmark}. The recorded runs never box: keys are taken
+ * from the {@link IntGenerator} and values from the pool as {@code int} by
+ * {@link desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration#loadInput()} and
+ * {@link desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration#loadBatch(int)}, and passed
+ * to the {@link IntCache} as they are. {@code run(Integer, Integer)} is only used if the
+ * configuration is run some other way, e.g. concurrently.
+ */
+public class IntCacheBenchmark {
+
+    /**
+     * @return A random value that can be stored in an {@link IntCache}
+     */
+    private static int generateIntValue(Random random) {
+        return random.nextInt(Integer.MAX_VALUE);
+    }
+
+    public static class Insert extends BaseBenchmark.Insert<Integer> {
+
+        private IntCache cache;
+        private final Random random = new Random();
+        private final Generator<IntCache> cacheGenerator;
+
+        private int key;
+        private int value;
+
+        public Insert(String name, double cachedRatio, Integer lowerBound, Integer upperBound, Generator<IntCache> generator) {
+            super(name, cachedRatio, lowerBound, upperBound);
+            this.cacheGenerator = generator;
+        }
+
+        @Override
+        protected void removeElement(Integer key) {
+            cache.remove(key);
+        }
+
+        @Override
+        protected Integer generateValue() {
+            return generateIntValue(random);
+        }
+
+        @Override
+        protected void createCache(int cacheSize) {
+            cache = cacheGenerator.next();
+        }
+
+        @Override
+        protected void clearCache() {
+            cache.removeAll();
+            cache = null;
+        }
+
+        @Override
+        protected boolean run(Integer key, Integer value) {
+            cache.put(key, value);
+            return true;
+        }
+
+        @Override
+        protected void loadInput() {
+            key = generateKey();
+            value = nextValue();
+        }
+
+        @Override
+        protected boolean runInput() {
+            cache.put(key, value);
+            return true;
+        }
+
+        @Override
+        protected void cleanupInput(boolean succeeded) {
+            cache.remove(key);
+        }
+
+        @Override
+        protected CacheStats generateStats() {
+            return CacheStats.nonRead(StatType.INSERT, cache.maxSize(), cache.size());
+        }
+    }
+
+    public static class Read extends BaseBenchmark.Read<Integer> {
+
+        private IntCache cache;
+        private final Random random = new Random();
+        private final Generator<IntCache> cacheGenerator;
+
+        private int successes = 0;
+        private int failures = 0;
+
+        private int key;
+        private int value;
+        private final int[] batchKeys = new int[BATCH_SIZE];
+        private final int[] batchValues = new int[BATCH_SIZE];
+
+        public Read(String name, String traceTag, IntGenerator traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound, Generator<IntCache> generator) {
+            super(name, traceTag, traceGenerator, cachedRatio, lowerBound, upperBound);
+            this.cacheGenerator = generator;
+        }
+
+        @Override
+        protected void addToCache(Integer key, Integer value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        protected Integer generateValue() {
+            return generateIntValue(random);
+        }
+
+        @Override
+        protected void createCache(int cacheSize) {
+            cache = cacheGenerator.next();
+        }
+
+        @Override
+        protected void clearCache() {
+            cache.removeAll();
+            cache = null;
+        }
+
+        @Override
+        protected boolean run(Integer key, Integer value) {
+            return cache.get(key) != IntCache.NO_VALUE;
+        }
+
+        @Override
+        protected void cleanup(Integer key, Integer value, boolean succeeded) {
+            super.cleanup(key, value, succeeded);
+            if (succeeded) {
+                successes++;
+            } else {
+                failures++;
+            }
+        }
+
+        @Override
+        protected void loadInput() {
+            key = generateKey();
+            value = nextValue();
+        }
+
+        @Override
+        protected boolean runInput() {
+            return cache.get(key) != IntCache.NO_VALUE;
+        }
+
+        @Override
+        protected void cleanupInput(boolean succeeded) {
+            if (succeeded) {
+                successes++;
+            } else {
+                failures++;
+                cache.put(key, value);
+            }
+        }
+
+        @Override
+        protected void loadBatch(int batchSize) {
+            for (int i = 0; i < batchSize; i++) {
+                batchKeys[i] = generateKey();
+                batchValues[i] = nextValue();
+            }
+        }
+
+        /**
+         * Reads the batch and adds every missed entry, like the single runs.
+         */
+        @Override
+        protected int runBatch(int batchSize) {
+            final IntCache cache = this.cache;
+            final int[] keys = batchKeys;
+            final int[] values = batchValues;
+            int hits = 0;
+            for (int i = 0; i < batchSize; i++) {
+                if (cache.get(keys[i]) != IntCache.NO_VALUE) {
+                    hits++;
+                } else {
+                    cache.put(keys[i], values[i]);
+                }
+            }
+
+            successes += hits;
+            failures += batchSize - hits;
+            return hits;
+        }
+
+        @Override
+        protected CacheStats generateStats() {
+            return CacheStats.read(successes, failures, cache.maxSize(), cache.size());
+        }
+    }
+
+    public static class Update extends BaseBenchmark.Update<Integer> {
+
+        private IntCache cache;
+        private final Random random = new Random();
+        private final Generator<IntCache> cacheGenerator;
+
+        private int key;
+        private int value;
+
+        public Update(String name, double cachedRatio, Integer lowerBound, Integer upperBound, Generator<IntCache> generator) {
+            super(name, cachedRatio, lowerBound, upperBound);
+            this.cacheGenerator = generator;
+        }
+
+        @Override
+        protected void addToCache(Integer key, Integer value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        protected Integer generateValue() {
+            return generateIntValue(random);
+        }
+
+        @Override
+        protected void createCache(int cacheSize) {
+            cache = cacheGenerator.next();
+        }
+
+        @Override
+        protected void clearCache() {
+            cache.removeAll();
+            cache = null;
+        }
+
+        @Override
+        protected boolean run(Integer key, Integer value) {
+            cache.put(key, value);
+            return true;
+        }
+
+        @Override
+        protected void loadInput() {
+            key = generateKey();
+            value = nextValue();
+        }
+
+        @Override
+        protected boolean runInput() {
+            cache.put(key, value);
+            return true;
+        }
+
+        @Override
+        protected void cleanupInput(boolean succeeded) {
+        }
+
+        @Override
+        protected CacheStats generateStats() {
+            return CacheStats.nonRead(StatType.UPDATE, cache.maxSize(), cache.size());
+        }
+    }
+
+    public static class Delete extends BaseBenchmark.Delete<Integer> {
+
+        private IntCache cache;
+        private final Random random = new Random();
+        private final Generator<IntCache> cacheGenerator;
+
+        private int key;
+
+        public Delete(String name, double cachedRatio, Integer lowerBound, Integer upperBound, Generator<IntCache> generator) {
+            super(name, cachedRatio, lowerBound, upperBound);
+            this.cacheGenerator = generator;
+        }
+
+        @Override
+        public void addToCache(Integer key, Integer value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        protected Integer generateValue() {
+            return generateIntValue(random);
+        }
+
+        @Override
+        protected void createCache(int cacheSize) {
+            cache = cacheGenerator.next();
+        }
+
+        @Override
+        protected void clearCache() {
+            cache.removeAll();
+            cache = null;
+        }
+
+        @Override
+        protected boolean run(Integer key, Integer value) {
+            cache.remove(key);
+            return true;
+        }
+
+        @Override
+        protected void loadInput() {
+            key = generateKey();
+        }
+
+        @Override
+        protected boolean runInput() {
+            cache.remove(key);
+            return true;
+        }
+
+        @Override
+        protected void cleanupInput(boolean succeeded) {
+        }
+
+        @Override
+        protected CacheStats generateStats() {
+            return CacheStats.nonRead(StatType.DELETE, cache.maxSize(), cache.size());
+        }
+    }
+}
@@ -6,16 +6,16 @@ import java.util.Random;
 
 import desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration;
 import desmedt.frederik.cachebenchmarking.cache.CacheLIRS;
-import desmedt.frederik.cachebenchmarking.generator.Generator;
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
 
 /**
  * Contains a collection of LIRS cache benchmarks, by JackRabbit, as inner classes.
  */
 public class JackRabbitLIRSBenchmark {
 
-    private static final String CACHE_TAG = "LIRS";
+    public static final String CACHE_TAG = "LIRS";
 
-    private static Cache<Integer, Integer> createCache(int maxSize) {
+    public static Cache<Integer, Integer> createCache(int maxSize) {
         return new CacheLIRS<>(maxSize);
     }
 
@@ -65,10 +65,15 @@ public class JackRabbitLIRSBenchmark {
         private Random random = new Random();
         private Cache<Integer, Integer> lirsCache;
 
-        public Read(String traceTag, Generator<Integer> traceGenerator, double cacheRatio, Integer lowerBound, Integer upperBound) {
+        public Read(String traceTag, IntGenerator traceGenerator, double cacheRatio, Integer lowerBound, Integer upperBound) {
             super(CACHE_TAG, traceTag, traceGenerator, cacheRatio, lowerBound, upperBound);
         }
 
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
         @Override
         protected Integer generateValue() {
             return random.nextInt();
@@ -154,7 +159,7 @@ public class JackRabbitLIRSBenchmark {
         }
 
         @Override
-        public void addToCache(int key, Integer value) {
+        public void addToCache(Integer key, Integer value) {
             lirsCache.put(key, value);
         }
 
@@ -196,7 +201,7 @@ public class JackRabbitLIRSBenchmark {
         }
 
         @Override
-        protected void addToCache(int key, Integer value) {
+        protected void addToCache(Integer key, Integer value) {
             lirsCache.put(key, value);
         }
 
@@ -0,0 +1,91 @@
+package desmedt.frederik.cachebenchmarking.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
+import desmedt.frederik.cachebenchmarking.simulation.ArcPolicy;
+import desmedt.frederik.cachebenchmarking.simulation.ClockPolicy;
+import desmedt.frederik.cachebenchmarking.simulation.FifoPolicy;
+import desmedt.frederik.cachebenchmarking.simulation.LirsPolicy;
+import desmedt.frederik.cachebenchmarking.simulation.LruPolicy;
+import desmedt.frederik.cachebenchmarking.simulation.Policy;
+import desmedt.frederik.cachebenchmarking.simulation.RandomPolicy;
+
+/**
+ * Contains the read benchmark of the {@link Policy} simulators, so their hit ratios can be
+ * compared with the hit ratios of the full cache implementations.
+ */
+public class PolicyBenchmark {
+
+    public static final Class<LruPolicy> LRU_POLICY = LruPolicy.class;
+    public static final Class<FifoPolicy> FIFO_POLICY = FifoPolicy.class;
+    public static final Class<RandomPolicy> RANDOM_POLICY = RandomPolicy.class;
+    public static final Class<ClockPolicy> CLOCK_POLICY = ClockPolicy.class;
+    public static final Class<ArcPolicy> ARC_POLICY = ArcPolicy.class;
+    public static final Class<LirsPolicy> LIRS_POLICY = LirsPolicy.class;
+
+    /**
+     * @param policyClass A policy with a public constructor taking the maximum size
+     */
+    public static Policy createPolicy(Class<? extends Policy> policyClass, int maxSize) {
+        try {
+            return policyClass.getConstructor(int.class).newInstance(maxSize);
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Can't create " + policyClass.getSimpleName(), e);
+        }
+    }
+
+    public static class Read extends BaseBenchmark.Read<Integer> {
+
+        private Policy policy;
+        private final Class<? extends Policy> policyClass;
+
+        private int successes;
+        private int failures;
+
+        public Read(Class<? extends Policy> policyClass, String traceTag, IntGenerator traceGenerator, double cachedRatio, Integer lowerBound, Integer upperBound) {
+            super(policyClass.getSimpleName(), traceTag, traceGenerator, cachedRatio, lowerBound, upperBound);
+            this.policyClass = policyClass;
+        }
+
+        @Override
+        protected void addToCache(Integer key, Integer value) {
+            // The policy already admitted the key when it was accessed
+        }
+
+        @Override
+        protected Integer generateValue() {
+            return 0;
+        }
+
+        @Override
+        protected void createCache(int cacheSize) {
+            policy = createPolicy(policyClass, cacheSize);
+        }
+
+        @Override
+        protected void clearCache() {
+            policy = null;
+        }
+
+        @Override
+        protected boolean run(Integer key, Integer value) {
+            return policy.access(key);
+        }
+
+        @Override
+        protected void cleanup(Integer key, Integer value, boolean succeeded) {
+            super.cleanup(key, value, succeeded);
+            if (succeeded) {
+                successes++;
+            } else {
+                failures++;
+            }
+        }
+
+        @Override
+        protected CacheStats generateStats() {
+            return CacheStats.read(successes, failures, getCacheSize(), policy.size());
+        }
+    }
+}
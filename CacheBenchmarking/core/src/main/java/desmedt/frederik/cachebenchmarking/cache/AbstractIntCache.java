@@ -0,0 +1,134 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+import desmedt.frederik.cachebenchmarking.util.IntSlotIndex;
+
+/**
+ * Base of the {@link IntCache} implementations. Entries are stored in slots of parallel key and
+ * value arrays, which never grow. Keys are mapped to their slot by an {@link IntSlotIndex}.
+ * <p/>
+ * Subclasses decide which slot is used for a new entry and which entry is evicted.
+ */
+public abstract class AbstractIntCache implements IntCache {
+
+    protected final int maxSize;
+    protected final int[] keys;
+    protected final int[] values;
+    protected int size = 0;
+
+    private final IntSlotIndex index;
+
+    public AbstractIntCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+
+        this.maxSize = maxSize;
+        keys = new int[maxSize];
+        values = new int[maxSize];
+        index = new IntSlotIndex(keys);
+    }
+
+    @Override
+    public int get(int key) {
+        final int slot = findSlot(key);
+        if (slot < 0) {
+            return NO_VALUE;
+        }
+
+        recordHit(slot);
+        return values[slot];
+    }
+
+    @Override
+    public void put(int key, int value) {
+        if (value == NO_VALUE) {
+            throw new IllegalArgumentException("NO_VALUE can't be stored");
+        }
+
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            recordHit(slot);
+            return;
+        }
+
+        if (size == maxSize) {
+            slot = evict();
+            index.removeSlot(slot);
+        } else {
+            slot = allocateSlot();
+            size++;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        index.insert(slot);
+        recordInsert(slot);
+    }
+
+    @Override
+    public void remove(int key) {
+        final int slot = index.remove(key);
+        if (slot >= 0) {
+            size--;
+            releaseSlot(slot);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        index.clear();
+        size = 0;
+        clearSlots();
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The slot of the entry with the key, or -1 if there is none
+     */
+    protected final int findSlot(int key) {
+        return index.find(key);
+    }
+
+    /**
+     * @return A free slot for a new entry, only called while the cache is not full
+     */
+    protected abstract int allocateSlot();
+
+    /**
+     * Pick the entry to make room for a new one, only called while the cache is full. The returned
+     * slot is reused for the new entry.
+     *
+     * @return The slot of the evicted entry
+     */
+    protected abstract int evict();
+
+    /**
+     * The entry in the slot was removed, the slot can be reused.
+     */
+    protected abstract void releaseSlot(int slot);
+
+    /**
+     * All entries were removed.
+     */
+    protected abstract void clearSlots();
+
+    /**
+     * A new entry was stored in the slot.
+     */
+    protected abstract void recordInsert(int slot);
+
+    /**
+     * The entry in the slot was read or updated.
+     */
+    protected abstract void recordHit(int slot);
+}
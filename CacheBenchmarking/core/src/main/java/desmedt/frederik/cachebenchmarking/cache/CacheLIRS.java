@@ -16,10 +16,6 @@
  */
 package desmedt.frederik.cachebenchmarking.cache;
 
-import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
-import android.util.Log;
-
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -42,6 +38,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import desmedt.frederik.cachebenchmarking.BenchmarkLog;
+
 /**
  * A scan resistant cache. It is meant to cache objects that are relatively
  * costly to acquire, for example file content.
@@ -101,7 +99,7 @@ public class CacheLIRS<K, V> implements LoadingCache<K, V> {
          * @param value the evicted item's value or {@code null} if non-resident
          * @param cause the cause of the eviction
          */
-        void evicted(@NonNull K key, @Nullable V value, @NonNull RemovalCause cause);
+        void evicted(K key, V value, RemovalCause cause);
     }
 
     private final int cacheId = NEXT_CACHE_ID.getAndIncrement();
@@ -166,7 +164,7 @@ public class CacheLIRS<K, V> implements LoadingCache<K, V> {
     CacheLIRS(Weigher<K, V> weigher, long maxMemory, int averageMemory,
               int segmentCount, int stackMoveDistance, final CacheLoader<K, V> loader,
               EvictionCallback<K, V> evicted, String module) {
-        Log.d(TAG, String.format("Init #%s, module=%s, maxMemory=%s, segmentCount=%s, stackMoveDistance=%s",
+        BenchmarkLog.d(TAG, String.format("Init #%s, module=%s, maxMemory=%s, segmentCount=%s, stackMoveDistance=%s",
                 cacheId, module, maxMemory, segmentCount, segmentCount));
         this.weigher = weigher;
         setMaxMemory(maxMemory);
@@ -329,7 +327,7 @@ public class CacheLIRS<K, V> implements LoadingCache<K, V> {
         try {
             getSegment(hash).refresh(key, hash, loader);
         } catch (ExecutionException e) {
-            Log.w(TAG, "Could not refresh value for key " + key, e);
+            BenchmarkLog.w(TAG, "Could not refresh value for key " + key, e);
         }
     }
 
@@ -362,7 +360,6 @@ public class CacheLIRS<K, V> implements LoadingCache<K, V> {
      * @return the value, or null if there is no resident entry
      */
     @Override
-    @Nullable
     public V getIfPresent(Object key) {
         int hash = getHash(key);
         return getSegment(hash).get(key, hash);
@@ -1535,7 +1532,7 @@ public class CacheLIRS<K, V> implements LoadingCache<K, V> {
 
         public Builder<K, V> segmentCount(int segmentCount) {
             if (Integer.bitCount(segmentCount) != 1 || segmentCount < 0 || segmentCount > 65536) {
-                Log.w(TAG, "Illegal segment count: " + segmentCount + ", using 16");
+                BenchmarkLog.w(TAG, "Illegal segment count: " + segmentCount + ", using 16");
                 segmentCount = 16;
             }
             this.segmentCount = segmentCount;
@@ -1544,7 +1541,7 @@ public class CacheLIRS<K, V> implements LoadingCache<K, V> {
 
         public Builder<K, V> stackMoveDistance(int stackMoveDistance) {
             if (stackMoveDistance < 0) {
-                Log.w(TAG, "Illegal stack move distance: " + stackMoveDistance + ", using 16");
+                BenchmarkLog.w(TAG, "Illegal stack move distance: " + stackMoveDistance + ", using 16");
                 stackMoveDistance = 16;
             }
             this.stackMoveDistance = stackMoveDistance;
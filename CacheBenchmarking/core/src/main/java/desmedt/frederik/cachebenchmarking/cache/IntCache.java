@@ -0,0 +1,54 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+/**
+ * Interface for every custom cache implementation with primitive {@code int} keys and values.
+ * In contrast to {@link Cache} no key or value is ever boxed, so a benchmark measures the
+ * replacement policy and not the allocation and dereferencing of boxed integers.
+ */
+public interface IntCache {
+
+    /**
+     * Returned by {@link IntCache#get(int)} if there is no entry linked to the key. Therefore it
+     * can't be used as a value.
+     */
+    int NO_VALUE = Integer.MIN_VALUE;
+
+    /**
+     * Get the value of the entry associated with the key or {@link IntCache#NO_VALUE} if there is
+     * no entry in the cache linked to the key.
+     *
+     * @param key The key associated with the entry
+     * @return The value if the key exists in the cache, {@link IntCache#NO_VALUE} otherwise
+     */
+    int get(int key);
+
+    /**
+     * Put a new entry in the cache with a key and a value.
+     *
+     * @param key   The key of the entry
+     * @param value The value of the entry, anything but {@link IntCache#NO_VALUE}
+     */
+    void put(int key, int value);
+
+    /**
+     * Removes a single entry from the cache, or does nothing if the key is not present.
+     *
+     * @param key The key of the entry that should be removed
+     */
+    void remove(int key);
+
+    /**
+     * Removes all elements from the cache.
+     */
+    void removeAll();
+
+    /**
+     * @return The maximum amount of entries present in the cache at any given time
+     */
+    int maxSize();
+
+    /**
+     * @return The current amount of entries present in the cache
+     */
+    int size();
+}
@@ -0,0 +1,70 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+import java.util.Arrays;
+
+/**
+ * A CLOCK cache replacement policy implementation for primitive keys and values. Every hit sets
+ * the reference bit of the entry. On eviction the clock hand sweeps over the slots, clearing set
+ * reference bits, until it finds an entry without a reference bit.
+ */
+public class IntClockCache extends AbstractIntCache {
+
+    public static final String CACHE_TAG = "IntClockCache";
+
+    private final boolean[] referenced;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int hand = 0;
+
+    public IntClockCache(int maxSize) {
+        super(maxSize);
+        referenced = new boolean[maxSize];
+        freeSlots = new int[maxSize];
+        clearSlots();
+    }
+
+    @Override
+    protected int allocateSlot() {
+        return freeSlots[--freeCount];
+    }
+
+    @Override
+    protected int evict() {
+        // The cache is full, so every slot holds an entry
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == maxSize ? 0 : hand + 1;
+        }
+
+        final int slot = hand;
+        hand = hand + 1 == maxSize ? 0 : hand + 1;
+        return slot;
+    }
+
+    @Override
+    protected void releaseSlot(int slot) {
+        referenced[slot] = false;
+        freeSlots[freeCount++] = slot;
+    }
+
+    @Override
+    protected void clearSlots() {
+        for (int i = 0; i < maxSize; i++) {
+            freeSlots[i] = maxSize - 1 - i;
+        }
+
+        freeCount = maxSize;
+        Arrays.fill(referenced, false);
+        hand = 0;
+    }
+
+    @Override
+    protected void recordInsert(int slot) {
+        referenced[slot] = false;
+    }
+
+    @Override
+    protected void recordHit(int slot) {
+        referenced[slot] = true;
+    }
+}
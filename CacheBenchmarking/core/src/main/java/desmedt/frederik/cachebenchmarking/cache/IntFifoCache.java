@@ -0,0 +1,101 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+import java.util.Arrays;
+
+/**
+ * A FIFO cache replacement policy implementation for primitive keys and values. The slots of
+ * the entries are linked in insertion order by two {@code int} arrays, unused slots are kept on
+ * a stack.
+ */
+public class IntFifoCache extends AbstractIntCache {
+
+    public static final String CACHE_TAG = "IntFifoCache";
+
+    private static final int NONE = -1;
+
+    private final int[] previous;
+    private final int[] next;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int head = NONE;
+    private int tail = NONE;
+
+    public IntFifoCache(int maxSize) {
+        super(maxSize);
+        previous = new int[maxSize];
+        next = new int[maxSize];
+        freeSlots = new int[maxSize];
+        clearSlots();
+    }
+
+    @Override
+    protected int allocateSlot() {
+        return freeSlots[--freeCount];
+    }
+
+    @Override
+    protected int evict() {
+        final int slot = head;
+        unlink(slot);
+        return slot;
+    }
+
+    @Override
+    protected void releaseSlot(int slot) {
+        unlink(slot);
+        freeSlots[freeCount++] = slot;
+    }
+
+    @Override
+    protected void clearSlots() {
+        for (int i = 0; i < maxSize; i++) {
+            freeSlots[i] = maxSize - 1 - i;
+        }
+
+        freeCount = maxSize;
+        Arrays.fill(previous, NONE);
+        Arrays.fill(next, NONE);
+        head = tail = NONE;
+    }
+
+    @Override
+    protected void recordInsert(int slot) {
+        linkLast(slot);
+    }
+
+    @Override
+    protected void recordHit(int slot) {
+    }
+
+    protected final void linkLast(int slot) {
+        previous[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+
+        tail = slot;
+    }
+
+    protected final void unlink(int slot) {
+        final int before = previous[slot];
+        final int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+
+        if (after == NONE) {
+            tail = before;
+        } else {
+            previous[after] = before;
+        }
+    }
+
+    protected final boolean isLast(int slot) {
+        return slot == tail;
+    }
+}
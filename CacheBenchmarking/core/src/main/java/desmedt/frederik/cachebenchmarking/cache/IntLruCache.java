@@ -0,0 +1,23 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+/**
+ * A LRU cache replacement policy implementation for primitive keys and values. Based on the
+ * insertion ordered list of {@link IntFifoCache}, every hit moves the entry to the end of the
+ * list.
+ */
+public class IntLruCache extends IntFifoCache {
+
+    public static final String CACHE_TAG = "IntLruCache";
+
+    public IntLruCache(int maxSize) {
+        super(maxSize);
+    }
+
+    @Override
+    protected void recordHit(int slot) {
+        if (!isLast(slot)) {
+            unlink(slot);
+            linkLast(slot);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A simple LRU cache replacement policy implementation. Uses the access order mode of
+ * {@link LinkedHashMap} to store, retrieve and remove its elements, like the Android
+ * {@code LruCache} does.
+ */
+public class LRUCache<K extends Comparable<K>, V> implements Cache<K, V> {
+
+    public static final String CACHE_TAG = "LruCache";
+
+    private final LinkedHashMap<K, V> heap;
+    private int maxSize = 0;
+
+    public LRUCache(final int maxSize) {
+        this.maxSize = maxSize;
+        heap = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public V get(K key) {
+        return heap.get(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        heap.put(key, value);
+    }
+
+    @Override
+    public void remove(K key) {
+        heap.remove(key);
+    }
+
+    @Override
+    public void removeAll() {
+        heap.clear();
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+}
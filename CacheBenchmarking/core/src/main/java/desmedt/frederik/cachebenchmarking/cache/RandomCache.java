@@ -0,0 +1,111 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * A simple random cache replacement policy implementation.
+ * <p/>
+ * The entries are stored densely in two arrays, the position of each key in these arrays is
+ * kept in a hash index. Removing an entry moves the last entry into its place, so every
+ * operation, including the eviction of a random entry, runs in constant time.
+ */
+public class RandomCache<K extends Comparable<K>, V> implements Cache<K, V> {
+
+    public static final String CACHE_TAG = "RandomCache";
+
+    private int maxSize;
+    private int size = 0;
+    private final Object2IntMap<K> index;
+    private final Object[] keys;
+    private final Object[] values;
+    private Random random = new Random();
+
+    public RandomCache(int maxSize) {
+        this.maxSize = maxSize;
+        index = new Object2IntOpenHashMap<>(maxSize);
+        index.defaultReturnValue(-1);
+        keys = new Object[maxSize];
+        values = new Object[maxSize];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        final int position = index.getInt(key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    @Override
+    public void put(K key, V value) {
+        final int position = index.getInt(key);
+        if (position >= 0) {
+            values[position] = value;
+            return;
+        }
+
+        if (maxSize == 0) {
+            return;
+        }
+
+        if (size == maxSize) {
+            removeElement();
+        }
+
+        keys[size] = key;
+        values[size] = value;
+        index.put(key, size++);
+    }
+
+    @Override
+    public void remove(K key) {
+        final int position = index.removeInt(key);
+        if (position >= 0) {
+            removeAt(position);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        index.clear();
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    private void removeElement() {
+        final int position = random.nextInt(size);
+        index.removeInt(keys[position]);
+        removeAt(position);
+    }
+
+    /**
+     * Fill the gap at {@code position} with the last entry. The key at {@code position} must
+     * already be removed from the index.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeAt(int position) {
+        final int last = --size;
+        if (position != last) {
+            keys[position] = keys[last];
+            values[position] = values[last];
+            index.put((K) keys[position], position);
+        }
+
+        keys[last] = null;
+        values[last] = null;
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,21 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+/**
+ * A {@link Generator} of primitive integers. Next to the boxed {@link Generator#next()} it can
+ * generate values without boxing them, either one at a time or a whole block at once, so
+ * generating keys does not allocate.
+ */
+public interface IntGenerator extends Generator<Integer> {
+
+    /**
+     * @return The next value, the same value {@link Generator#next()} would return
+     */
+    int nextInt();
+
+    /**
+     * Fill the complete array with the next {@code dst.length} values.
+     *
+     * @param dst The array to overwrite
+     */
+    void fill(int[] dst);
+}
@@ -0,0 +1,24 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+import org.cache2k.benchmark.traces.CacheAccessTraceSprite;
+
+/**
+ * A generator generating values based on access requests on the Sprite network file system.
+ */
+public class NfsGenerator extends TraceGenerator {
+
+    public static final String TRACE_TAG = "NFS";
+
+    public NfsGenerator() {
+        super(CacheAccessTraceSprite.getInstance());
+    }
+
+    public static int getLowerBound() {
+        return 0;
+    }
+
+    public static int getUpperBound() {
+        // Call getInstance() instead of static field to not cause a strong reference
+        return CacheAccessTraceSprite.getInstance().getHighValue();
+    }
+}
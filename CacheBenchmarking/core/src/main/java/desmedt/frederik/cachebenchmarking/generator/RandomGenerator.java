@@ -5,7 +5,7 @@ import java.util.Random;
 /**
  * A generator generating random numbers between some lower and upper bound.
  */
-public class RandomGenerator implements Generator<Integer> {
+public class RandomGenerator implements IntGenerator {
 
     public static final String TRACE_TAG = "Random";
 
@@ -20,6 +20,18 @@ public class RandomGenerator implements Generator<Integer> {
     }
 
     public Integer next() {
+        return nextInt();
+    }
+
+    @Override
+    public int nextInt() {
         return lower + random.nextInt(upper);
     }
+
+    @Override
+    public void fill(int[] dst) {
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = lower + random.nextInt(upper);
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+import org.cache2k.benchmark.traces.CacheAccessTraceUmassWebSearch1;
+
+/**
+ * A generator generating values based on search requests of an unnamed popular search engine.
+ */
+public class SearchEngineGenerator extends TraceGenerator {
+
+    public static final String TRACE_TAG = "SearchEngine";
+
+    public SearchEngineGenerator() {
+        super(CacheAccessTraceUmassWebSearch1.getInstance());
+    }
+
+    public static int getLowerBound() {
+        return 0;
+    }
+
+    public static int getUpperBound() {
+        // Call getInstance() instead of static field to not cause a strong reference
+        return CacheAccessTraceUmassWebSearch1.getInstance().getHighValue();
+    }
+}
@@ -0,0 +1,245 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+import org.cache2k.benchmark.util.AccessPattern;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An {@link IntGenerator} looping over a trace that is read as a stream, so the trace is never
+ * materialized. Like {@link TraceGenerator} negative values are skipped and the trace is
+ * restarted at its end, by opening the {@link AccessPattern} again.
+ * <p/>
+ * The pattern is read in blocks of a fixed size. Without read-ahead only a single block is held
+ * and it is read when the previous one is consumed. With read-ahead a background thread reads up
+ * to {@link StreamingTraceGenerator#READ_AHEAD_BLOCKS} blocks in advance, so reading and
+ * decompressing the trace overlaps with the benchmark or simulation consuming it. Either way the
+ * memory used is bounded by the block size.
+ * <p/>
+ * The generator should be closed once it is no longer used, to stop the read-ahead thread and
+ * close the pattern.
+ */
+public class StreamingTraceGenerator implements IntGenerator, Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    static final int READ_AHEAD_BLOCKS = 4;
+
+    /**
+     * Opens the pattern of the streamed trace, e.g.
+     * {@link org.cache2k.benchmark.traces.CacheAccessTraceUmassWebSearch1#openPattern()}. It is
+     * called again every time the end of the trace is reached.
+     */
+    public interface PatternSource {
+
+        AccessPattern open() throws Exception;
+    }
+
+    /**
+     * A block of the trace, or the failure that occurred reading it.
+     */
+    private static class Block {
+
+        final int[] keys;
+        int length;
+        Exception failure;
+
+        Block(int size) {
+            keys = new int[size];
+        }
+    }
+
+    private final PatternSource source;
+    private AccessPattern pattern;
+    private boolean passHasValues = false;
+
+    private final BlockingQueue<Block> filled;
+    private final BlockingQueue<Block> free;
+    final Thread readAhead;
+    private volatile boolean closed = false;
+
+    private Block block;
+    private int index = 0;
+    private Exception failure;
+
+    /**
+     * @param source    Opens the trace
+     * @param blockSize The amount of values read at once
+     * @param readAhead Whether blocks should be read in advance on a background thread
+     */
+    public StreamingTraceGenerator(PatternSource source, int blockSize, boolean readAhead) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be greater than 0");
+        }
+
+        this.source = source;
+        if (!readAhead) {
+            filled = null;
+            free = null;
+            this.readAhead = null;
+            block = new Block(blockSize);
+            return;
+        }
+
+        filled = new ArrayBlockingQueue<>(READ_AHEAD_BLOCKS);
+        free = new ArrayBlockingQueue<>(READ_AHEAD_BLOCKS + 1);
+        for (int i = 0; i < READ_AHEAD_BLOCKS; i++) {
+            free.add(new Block(blockSize));
+        }
+
+        this.readAhead = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!closed) {
+                        final Block next = free.take();
+                        read(next);
+                        filled.put(next);
+                        if (next.failure != null) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Closed
+                } finally {
+                    closePattern();
+                }
+            }
+        }, StreamingTraceGenerator.class.getSimpleName());
+        this.readAhead.setDaemon(true);
+        this.readAhead.start();
+    }
+
+    public StreamingTraceGenerator(PatternSource source, boolean readAhead) {
+        this(source, DEFAULT_BLOCK_SIZE, readAhead);
+    }
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    @Override
+    public int nextInt() {
+        if (block == null || index == block.length) {
+            nextBlock();
+        }
+
+        return block.keys[index++];
+    }
+
+    @Override
+    public void fill(int[] dst) {
+        int copied = 0;
+        while (copied < dst.length) {
+            if (block == null || index == block.length) {
+                nextBlock();
+            }
+
+            final int count = Math.min(dst.length - copied, block.length - index);
+            System.arraycopy(block.keys, index, dst, copied, count);
+            copied += count;
+            index += count;
+        }
+    }
+
+    /**
+     * Stop reading ahead and close the pattern.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (readAhead != null) {
+            readAhead.interrupt();
+        } else {
+            closePattern();
+        }
+    }
+
+    private void nextBlock() {
+        if (closed) {
+            throw new IllegalStateException("Generator is closed");
+        }
+
+        if (failure != null) {
+            // The read-ahead thread stopped at the failure
+            throw new IllegalStateException("Cannot read trace", failure);
+        }
+
+        if (readAhead == null) {
+            read(block);
+        } else {
+            if (block != null) {
+                free.add(block);
+            }
+
+            try {
+                block = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the trace", e);
+            }
+        }
+
+        index = 0;
+        if (block.failure != null) {
+            if (readAhead != null) {
+                failure = block.failure;
+            }
+
+            throw new IllegalStateException("Cannot read trace", block.failure);
+        }
+    }
+
+    /**
+     * Fill the block with the next non-negative values of the pattern, opening the pattern again
+     * at its end. Called by a single thread only, either the consumer or the read-ahead thread.
+     */
+    private void read(Block block) {
+        block.length = 0;
+        block.failure = null;
+        try {
+            final int[] keys = block.keys;
+            int length = 0;
+            while (length < keys.length) {
+                if (pattern == null) {
+                    pattern = source.open();
+                    passHasValues = false;
+                }
+
+                if (!pattern.hasNext()) {
+                    closePattern();
+                    if (!passHasValues) {
+                        throw new IllegalArgumentException("Trace has no non-negative values");
+                    }
+
+                    continue;
+                }
+
+                final int value = pattern.next();
+                if (value >= 0) {
+                    keys[length++] = value;
+                    passHasValues = true;
+                }
+            }
+
+            block.length = length;
+        } catch (Exception e) {
+            block.failure = e;
+        }
+    }
+
+    private void closePattern() {
+        if (pattern == null) {
+            return;
+        }
+
+        try {
+            pattern.close();
+        } catch (Exception e) {
+            // Nothing is read anymore from the pattern
+        } finally {
+            pattern = null;
+        }
+    }
+}
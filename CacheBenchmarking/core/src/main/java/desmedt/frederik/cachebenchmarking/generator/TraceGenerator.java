@@ -0,0 +1,92 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+import org.cache2k.benchmark.util.AccessTrace;
+
+/**
+ * An {@link IntGenerator} looping over a given trace, essentially making it eternal. Negative
+ * values in the trace are skipped.
+ */
+public class TraceGenerator implements IntGenerator {
+
+    private final int[] trace;
+    private int index = 0;
+
+    /**
+     * @param trace The trace that should be looped
+     */
+    protected TraceGenerator(AccessTrace trace) {
+        this(trace.getArray());
+    }
+
+    /**
+     * @param trace The values that should be looped, the array is never modified
+     */
+    public TraceGenerator(int[] trace) {
+        this.trace = nonNegative(trace);
+        if (this.trace.length == 0) {
+            throw new IllegalArgumentException("Trace has no non-negative values");
+        }
+    }
+
+    /**
+     * @return The values of {@code trace} that are not negative, {@code trace} itself if there are none
+     */
+    private static int[] nonNegative(int[] trace) {
+        int count = 0;
+        for (int value : trace) {
+            if (value >= 0) {
+                count++;
+            }
+        }
+
+        if (count == trace.length) {
+            return trace;
+        }
+
+        final int[] result = new int[count];
+        int i = 0;
+        for (int value : trace) {
+            if (value >= 0) {
+                result[i++] = value;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return The looped values, this array is shared and should not be modified
+     */
+    public int[] getTrace() {
+        return trace;
+    }
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    @Override
+    public int nextInt() {
+        final int result = trace[index];
+        if (++index == trace.length) {
+            index = 0;
+        }
+
+        return result;
+    }
+
+    @Override
+    public void fill(int[] dst) {
+        int filled = 0;
+        while (filled < dst.length) {
+            final int count = Math.min(dst.length - filled, trace.length - index);
+            System.arraycopy(trace, index, dst, filled, count);
+            filled += count;
+            index += count;
+            if (index == trace.length) {
+                index = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+import org.cache2k.benchmark.traces.CacheAccessTraceWeb12;
+
+/**
+ * A generator generating values based on HTTP GET requests of a product detail website.
+ */
+public class Web12Generator extends TraceGenerator {
+
+    public static final String TRACE_TAG = "Web12";
+
+    public Web12Generator() {
+        super(CacheAccessTraceWeb12.getInstance());
+    }
+
+    public static int getLowerBound() {
+        return 0;
+    }
+
+    public static int getUpperBound() {
+        // Call getInstance() instead of static field to not cause a strong reference
+        return CacheAccessTraceWeb12.getInstance().getHighValue();
+    }
+}
@@ -6,7 +6,7 @@ import org.cache2k.benchmark.util.ZipfianPattern;
  * A generator generating random numbers between some lower and upper bound following a zipf-like
  * pattern.
  */
-public class ZipfGenerator implements Generator<Integer> {
+public class ZipfGenerator implements IntGenerator {
 
     public static final String TRACE_TAG = "Zipf";
 
@@ -24,4 +24,16 @@ public class ZipfGenerator implements Generator<Integer> {
         int next = pattern.next();
         return next;
     }
+
+    @Override
+    public int nextInt() {
+        return pattern.next();
+    }
+
+    @Override
+    public void fill(int[] dst) {
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = pattern.next();
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+import desmedt.frederik.cachebenchmarking.util.IntSlotIndex;
+
+/**
+ * Base of the {@link Policy} simulators. Every tracked key is stored in a node, an index in
+ * parallel primitive arrays of the subclass. Keys are mapped to their node by an
+ * {@link IntSlotIndex}, like in {@link desmedt.frederik.cachebenchmarking.cache.AbstractIntCache}.
+ */
+public abstract class AbstractPolicy implements Policy {
+
+    protected static final int NONE = IntSlotIndex.NONE;
+
+    protected final int maxSize;
+    protected final int[] keys;
+
+    private final IntSlotIndex index;
+
+    /**
+     * @param maxSize   The maximum amount of cached keys
+     * @param nodeCount The maximum amount of tracked keys, including keys that are no longer cached
+     */
+    protected AbstractPolicy(int maxSize, int nodeCount) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+
+        this.maxSize = maxSize;
+        keys = new int[nodeCount];
+        index = new IntSlotIndex(keys);
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return The node of the key, or {@link AbstractPolicy#NONE} if the key isn't tracked
+     */
+    protected final int findNode(int key) {
+        return index.find(key);
+    }
+
+    /**
+     * Start tracking the key, which must not be tracked yet, in the node.
+     */
+    protected final void insertNode(int key, int node) {
+        keys[node] = key;
+        index.insert(node);
+    }
+
+    /**
+     * Stop tracking the key of the node.
+     */
+    protected final void removeNode(int node) {
+        index.removeSlot(node);
+    }
+}
@@ -0,0 +1,100 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+/**
+ * ARC simulator, following "ARC: A Self-Tuning, Low Overhead Replacement Cache" by Megiddo and
+ * Modha. The cached keys are split in T1, seen once recently, and T2, seen at least twice
+ * recently. The ghost lists B1 and B2 remember the keys recently evicted from T1 and T2, and a
+ * hit on a ghost adapts the target size of T1.
+ */
+public class ArcPolicy extends AbstractPolicy {
+
+    public static final String POLICY_TAG = "ArcPolicy";
+
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+
+    private final NodeLists lists;
+
+    /**
+     * Target size of T1.
+     */
+    private int target = 0;
+
+    public ArcPolicy(int maxSize) {
+        super(maxSize, 2 * maxSize);
+        lists = new NodeLists(2 * maxSize, 4);
+    }
+
+    @Override
+    public boolean access(int key) {
+        int node = findNode(key);
+        final int list = node == NONE ? NONE : lists.listOf(node);
+
+        switch (list) {
+            case T1:
+            case T2:
+                lists.moveToLast(T2, node);
+                return true;
+            case B1:
+                target = Math.min(maxSize, target + Math.max(lists.size(B2) / lists.size(B1), 1));
+                replace(false);
+                lists.moveToLast(T2, node);
+                return false;
+            case B2:
+                target = Math.max(0, target - Math.max(lists.size(B1) / lists.size(B2), 1));
+                replace(true);
+                lists.moveToLast(T2, node);
+                return false;
+            default:
+                break;
+        }
+
+        final int recentCount = lists.size(T1) + lists.size(B1);
+        final int totalCount = recentCount + lists.size(T2) + lists.size(B2);
+        if (recentCount == maxSize) {
+            if (lists.size(T1) < maxSize) {
+                discard(lists.first(B1));
+                replace(false);
+            } else {
+                discard(lists.first(T1));
+            }
+        } else if (totalCount >= maxSize) {
+            if (totalCount == 2 * maxSize) {
+                discard(lists.first(B2));
+            }
+
+            replace(false);
+        }
+
+        node = lists.allocate();
+        insertNode(key, node);
+        lists.addLast(T1, node);
+        return false;
+    }
+
+    /**
+     * Evict the least recently used key of T1 or T2 to its ghost list.
+     *
+     * @param ghostOfT2 Whether the accessed key is in B2
+     */
+    private void replace(boolean ghostOfT2) {
+        final int recent = lists.size(T1);
+        if (recent > 0 && (recent > target || (ghostOfT2 && recent == target))) {
+            lists.moveToLast(B1, lists.first(T1));
+        } else {
+            lists.moveToLast(B2, lists.first(T2));
+        }
+    }
+
+    private void discard(int node) {
+        removeNode(node);
+        lists.free(node);
+    }
+
+    @Override
+    public int size() {
+        return lists.size(T1) + lists.size(T2);
+    }
+}
@@ -0,0 +1,51 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+/**
+ * CLOCK simulator, a hit sets the reference bit of the key. On a miss the clock hand sweeps over
+ * the keys, clearing set reference bits, until it finds a key without a reference bit to replace.
+ */
+public class ClockPolicy extends AbstractPolicy {
+
+    public static final String POLICY_TAG = "ClockPolicy";
+
+    private final boolean[] referenced;
+    private int size = 0;
+    private int hand = 0;
+
+    public ClockPolicy(int maxSize) {
+        super(maxSize, maxSize);
+        referenced = new boolean[maxSize];
+    }
+
+    @Override
+    public boolean access(int key) {
+        final int hit = findNode(key);
+        if (hit != NONE) {
+            referenced[hit] = true;
+            return true;
+        }
+
+        final int node;
+        if (size == maxSize) {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = hand + 1 == maxSize ? 0 : hand + 1;
+            }
+
+            node = hand;
+            hand = hand + 1 == maxSize ? 0 : hand + 1;
+            removeNode(node);
+        } else {
+            node = size++;
+        }
+
+        insertNode(key, node);
+        referenced[node] = false;
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,188 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
+
+/**
+ * Replays a single pass over a source of keys through many {@link Policy} simulators. The keys
+ * are generated once, in blocks of {@link FanOutReplay#BLOCK_SIZE}, into a small ring of blocks
+ * that is shared by all consumers. Every consumer thread replays each block through its own group
+ * of policies and keeps its own position in the ring, a block is only overwritten after all
+ * consumers passed it. So generating or decoding the keys and reading them from memory is paid
+ * once instead of once per policy, and the ring stays in the processor caches.
+ * <p/>
+ * A thread waiting for a block, or for a slot of the ring to be free, spins briefly and then
+ * parks until it is unparked by the thread it waits for, so a slow producer or consumer does not
+ * keep the other threads busy.
+ */
+public class FanOutReplay {
+
+    static final int BLOCK_SIZE = 4096;
+    static final int RING_SIZE = 8;
+
+    /**
+     * How many times a waiting thread checks the condition before it parks. Replaying a block
+     * takes much longer, so this only avoids parking if the other thread is about to finish.
+     */
+    static final int SPIN_COUNT = 100;
+
+    private final List<Policy> policies;
+    private final int consumerCount;
+
+    /**
+     * @param policies      The policies to replay the keys through, each policy is only accessed
+     *                      by a single consumer thread
+     * @param consumerCount The amount of consumer threads, the policies are divided among them
+     */
+    public FanOutReplay(List<? extends Policy> policies, int consumerCount) {
+        if (consumerCount <= 0) {
+            throw new IllegalArgumentException("consumerCount must be greater than 0");
+        }
+
+        this.policies = new ArrayList<>(policies);
+        this.consumerCount = Math.min(consumerCount, Math.max(1, this.policies.size()));
+    }
+
+    /**
+     * Replay <code>warmupAccesses + runAccesses</code> keys of the source through every policy and
+     * count the hits of the accesses after the warmup.
+     *
+     * @return The hits of every policy, in the order of the policies
+     */
+    public long[] replay(final IntGenerator source, final long warmupAccesses, final long runAccesses) {
+        final long totalAccesses = warmupAccesses + runAccesses;
+        final long blockCount = (totalAccesses + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final int[][] ring = new int[RING_SIZE][BLOCK_SIZE];
+        final int[] lengths = new int[RING_SIZE];
+        final AtomicLong published = new AtomicLong();
+        final AtomicLong[] consumed = new AtomicLong[consumerCount];
+        final long[] hits = new long[policies.size()];
+        // The parked threads, to be unparked after publishing or consuming a block
+        final AtomicReferenceArray<Thread> parkedConsumers = new AtomicReferenceArray<>(consumerCount);
+        final AtomicReferenceArray<Thread> parkedProducer = new AtomicReferenceArray<>(1);
+
+        final ExecutorService consumers = Executors.newFixedThreadPool(consumerCount);
+        final List<Future<Void>> results = new ArrayList<>(consumerCount);
+        try {
+            for (int c = 0; c < consumerCount; c++) {
+                final int consumer = c;
+                consumed[c] = new AtomicLong();
+                results.add(consumers.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        try {
+                            for (long block = 0; block < blockCount; block++) {
+                                if (!await(published, block + 1, parkedConsumers, consumer)) {
+                                    // The producer failed
+                                    return null;
+                                }
+
+                                final int slot = (int) (block % RING_SIZE);
+                                replayBlock(consumer, ring[slot], lengths[slot], block * BLOCK_SIZE, warmupAccesses, hits);
+                                consumed[consumer].set(block + 1);
+                                LockSupport.unpark(parkedProducer.get(0));
+                            }
+                        } catch (RuntimeException | Error e) {
+                            // Never keep the producer waiting for this consumer
+                            consumed[consumer].set(Long.MAX_VALUE);
+                            LockSupport.unpark(parkedProducer.get(0));
+                            throw e;
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            final int[] lastBlock = new int[(int) (totalAccesses - (blockCount - 1) * BLOCK_SIZE)];
+            for (long block = 0; block < blockCount; block++) {
+                for (AtomicLong position : consumed) {
+                    if (!await(position, block - RING_SIZE + 1, parkedProducer, 0)) {
+                        throw new InterruptedException();
+                    }
+                }
+
+                final int slot = (int) (block % RING_SIZE);
+                if (block == blockCount - 1) {
+                    source.fill(lastBlock);
+                    System.arraycopy(lastBlock, 0, ring[slot], 0, lastBlock.length);
+                    lengths[slot] = lastBlock.length;
+                } else {
+                    source.fill(ring[slot]);
+                    lengths[slot] = BLOCK_SIZE;
+                }
+
+                published.set(block + 1);
+                for (int c = 0; c < consumerCount; c++) {
+                    LockSupport.unpark(parkedConsumers.get(c));
+                }
+            }
+
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Fan-out replay failed", e);
+        } finally {
+            consumers.shutdownNow();
+        }
+
+        return hits;
+    }
+
+    /**
+     * Wait until {@code counter} reached {@code value}. The waiting thread registers itself in
+     * {@code parked} before it checks the counter a last time and parks, the thread updating the
+     * counter unparks it afterwards, so the update is never missed.
+     *
+     * @return false if the waiting thread was interrupted
+     */
+    private static boolean await(AtomicLong counter, long value, AtomicReferenceArray<Thread> parked, int index) {
+        for (int spin = 0; counter.get() < value; spin++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+
+            if (spin >= SPIN_COUNT) {
+                parked.set(index, Thread.currentThread());
+                if (counter.get() < value) {
+                    LockSupport.park(counter);
+                }
+
+                parked.set(index, null);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Replay a block through every policy of the consumer, the policies of consumer {@code c} are
+     * the policies {@code c}, {@code c + consumerCount}, ...
+     */
+    private void replayBlock(int consumer, int[] keys, int length, long firstAccess, long warmupAccesses, long[] hits) {
+        // Accesses before this index of the block are part of the warmup
+        final int firstCounted = (int) Math.max(0, Math.min(length, warmupAccesses - firstAccess));
+        for (int p = consumer; p < policies.size(); p += consumerCount) {
+            final Policy policy = policies.get(p);
+            long policyHits = 0;
+            for (int i = 0; i < length; i++) {
+                if (policy.access(keys[i]) && i >= firstCounted) {
+                    policyHits++;
+                }
+            }
+
+            hits[p] += policyHits;
+        }
+    }
+}
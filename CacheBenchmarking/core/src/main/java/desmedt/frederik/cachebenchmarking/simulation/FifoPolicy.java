@@ -0,0 +1,41 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+/**
+ * FIFO simulator, the cached keys are kept in a ring in insertion order and a miss replaces the
+ * oldest key.
+ */
+public class FifoPolicy extends AbstractPolicy {
+
+    public static final String POLICY_TAG = "FifoPolicy";
+
+    private int size = 0;
+    private int oldest = 0;
+
+    public FifoPolicy(int maxSize) {
+        super(maxSize, maxSize);
+    }
+
+    @Override
+    public boolean access(int key) {
+        if (findNode(key) != NONE) {
+            return true;
+        }
+
+        final int node;
+        if (size == maxSize) {
+            node = oldest;
+            removeNode(node);
+            oldest = oldest + 1 == maxSize ? 0 : oldest + 1;
+        } else {
+            node = size++;
+        }
+
+        insertNode(key, node);
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,167 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+/**
+ * LIRS simulator, following "LIRS: An Efficient Low Inter-reference Recency Set Replacement
+ * Policy to Improve Buffer Cache Performance" by Jiang and Zhang. Keys with a low inter-reference
+ * recency (LIR) take up most of the cache, the remaining keys (HIR) are kept in a small FIFO
+ * queue. The recency stack remembers recently accessed keys, including non-resident HIR keys, so
+ * a HIR key that is accessed again while still in the stack is promoted to LIR.
+ * <p/>
+ * Like {@link desmedt.frederik.cachebenchmarking.cache.CacheLIRS} the amount of non-resident keys
+ * is bounded, here to {@code maxSize}, by forgetting the oldest non-resident key.
+ */
+public class LirsPolicy extends AbstractPolicy {
+
+    public static final String POLICY_TAG = "LirsPolicy";
+
+    /**
+     * Part of the cache that holds resident HIR keys.
+     */
+    private static final double HIR_RATIO = 0.01;
+
+    private static final int STACK = 0;
+    private static final int RESIDENT_HIR = 0;
+    private static final int NON_RESIDENT_HIR = 1;
+
+    private static final byte LIR = 0;
+    private static final byte HIR = 1;
+
+    private final int maxLirSize;
+    private final byte[] status;
+    private int lirSize = 0;
+
+    /**
+     * The recency stack, the top of the stack is the last node.
+     */
+    private final NodeLists stack;
+
+    /**
+     * The FIFO queues of resident and non-resident HIR keys.
+     */
+    private final NodeLists queues;
+
+    /**
+     * @param maxSize The maximum amount of cached keys, at least 2 to have room for a LIR and a HIR key
+     */
+    public LirsPolicy(int maxSize) {
+        super(maxSize, 2 * maxSize);
+        if (maxSize < 2) {
+            throw new IllegalArgumentException("maxSize must be at least 2");
+        }
+
+        maxLirSize = maxSize - Math.max(1, (int) (maxSize * HIR_RATIO));
+        status = new byte[2 * maxSize];
+        // The stack and the queues link the same nodes independently, nodes are allocated by the stack
+        stack = new NodeLists(2 * maxSize, 1);
+        queues = new NodeLists(2 * maxSize, 2);
+    }
+
+    @Override
+    public boolean access(int key) {
+        int node = findNode(key);
+        if (node != NONE && status[node] == LIR) {
+            final boolean bottom = stack.first(STACK) == node;
+            stack.moveToLast(STACK, node);
+            if (bottom) {
+                prune();
+            }
+
+            return true;
+        }
+
+        if (node != NONE && queues.listOf(node) == RESIDENT_HIR) {
+            if (stack.listOf(node) == STACK) {
+                promote(node);
+            } else {
+                stack.addLast(STACK, node);
+                queues.moveToLast(RESIDENT_HIR, node);
+            }
+
+            return true;
+        }
+
+        if (size() == maxSize) {
+            final int evicted = queues.first(RESIDENT_HIR);
+            if (stack.listOf(evicted) == STACK) {
+                queues.moveToLast(NON_RESIDENT_HIR, evicted);
+                if (queues.size(NON_RESIDENT_HIR) > maxSize) {
+                    discard(queues.first(NON_RESIDENT_HIR));
+                }
+            } else {
+                discard(evicted);
+            }
+
+            // The key might have been the forgotten non-resident key
+            node = findNode(key);
+        }
+
+        if (node == NONE) {
+            node = allocate(key);
+            if (lirSize < maxLirSize) {
+                status[node] = LIR;
+                lirSize++;
+                stack.addLast(STACK, node);
+            } else {
+                status[node] = HIR;
+                stack.addLast(STACK, node);
+                queues.addLast(RESIDENT_HIR, node);
+            }
+        } else {
+            // A non-resident HIR key that is still in the stack
+            promote(node);
+        }
+
+        return false;
+    }
+
+    /**
+     * Turn the HIR key in the stack into a LIR key, and the LIR key at the bottom of the stack
+     * into a resident HIR key.
+     */
+    private void promote(int node) {
+        queues.remove(node);
+        status[node] = LIR;
+        stack.moveToLast(STACK, node);
+        if (lirSize < maxLirSize) {
+            lirSize++;
+            return;
+        }
+
+        final int demoted = stack.first(STACK);
+        status[demoted] = HIR;
+        stack.remove(demoted);
+        queues.addLast(RESIDENT_HIR, demoted);
+        prune();
+    }
+
+    /**
+     * Remove HIR keys from the bottom of the stack until there is a LIR key at the bottom,
+     * forgetting removed keys that are non-resident.
+     */
+    private void prune() {
+        for (int bottom = stack.first(STACK); bottom != NONE && status[bottom] == HIR; bottom = stack.first(STACK)) {
+            if (queues.listOf(bottom) == NON_RESIDENT_HIR) {
+                discard(bottom);
+            } else {
+                stack.remove(bottom);
+            }
+        }
+    }
+
+    private int allocate(int key) {
+        final int node = stack.allocate();
+        insertNode(key, node);
+        return node;
+    }
+
+    private void discard(int node) {
+        removeNode(node);
+        queues.remove(node);
+        stack.free(node);
+    }
+
+    @Override
+    public int size() {
+        return lirSize + queues.size(RESIDENT_HIR);
+    }
+}
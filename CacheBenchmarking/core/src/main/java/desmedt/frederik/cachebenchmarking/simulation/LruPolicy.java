@@ -0,0 +1,46 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+/**
+ * LRU simulator, the cached keys are linked from least to most recently used and a miss replaces
+ * the least recently used key.
+ */
+public class LruPolicy extends AbstractPolicy {
+
+    public static final String POLICY_TAG = "LruPolicy";
+
+    private static final int RECENCY = 0;
+
+    private final NodeLists lists;
+
+    public LruPolicy(int maxSize) {
+        super(maxSize, maxSize);
+        lists = new NodeLists(maxSize, 1);
+    }
+
+    @Override
+    public boolean access(int key) {
+        final int hit = findNode(key);
+        if (hit != NONE) {
+            lists.moveToLast(RECENCY, hit);
+            return true;
+        }
+
+        final int node;
+        if (lists.size(RECENCY) == maxSize) {
+            node = lists.first(RECENCY);
+            lists.remove(node);
+            removeNode(node);
+        } else {
+            node = lists.allocate();
+        }
+
+        insertNode(key, node);
+        lists.addLast(RECENCY, node);
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return lists.size(RECENCY);
+    }
+}
@@ -0,0 +1,120 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+import java.util.Arrays;
+
+/**
+ * A pool of nodes that can be linked in one of several doubly linked lists, using primitive
+ * arrays only. Nodes that are not in use are kept on a stack.
+ */
+final class NodeLists {
+
+    static final int NONE = -1;
+
+    private final int[] previous;
+    private final int[] next;
+    private final byte[] listOf;
+    private final int[] first;
+    private final int[] last;
+    private final int[] sizes;
+
+    private final int[] freeNodes;
+    private int freeCount;
+
+    NodeLists(int nodeCount, int listCount) {
+        previous = new int[nodeCount];
+        next = new int[nodeCount];
+        listOf = new byte[nodeCount];
+        Arrays.fill(listOf, (byte) NONE);
+        first = new int[listCount];
+        last = new int[listCount];
+        Arrays.fill(first, NONE);
+        Arrays.fill(last, NONE);
+        sizes = new int[listCount];
+
+        freeNodes = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            freeNodes[i] = nodeCount - 1 - i;
+        }
+
+        freeCount = nodeCount;
+    }
+
+    /**
+     * @return A node that is not in any list
+     */
+    int allocate() {
+        return freeNodes[--freeCount];
+    }
+
+    /**
+     * Return the node to the pool, removing it from its list first.
+     */
+    void free(int node) {
+        remove(node);
+        freeNodes[freeCount++] = node;
+    }
+
+    void addLast(int list, int node) {
+        listOf[node] = (byte) list;
+        previous[node] = last[list];
+        next[node] = NONE;
+        if (last[list] == NONE) {
+            first[list] = node;
+        } else {
+            next[last[list]] = node;
+        }
+
+        last[list] = node;
+        sizes[list]++;
+    }
+
+    /**
+     * Remove the node from its list, does nothing if the node is in no list.
+     */
+    void remove(int node) {
+        final int list = listOf[node];
+        if (list == NONE) {
+            return;
+        }
+
+        if (previous[node] == NONE) {
+            first[list] = next[node];
+        } else {
+            next[previous[node]] = next[node];
+        }
+
+        if (next[node] == NONE) {
+            last[list] = previous[node];
+        } else {
+            previous[next[node]] = previous[node];
+        }
+
+        listOf[node] = NONE;
+        sizes[list]--;
+    }
+
+    void moveToLast(int list, int node) {
+        if (listOf[node] != list || last[list] != node) {
+            remove(node);
+            addLast(list, node);
+        }
+    }
+
+    /**
+     * @return The list of the node, {@link NodeLists#NONE} if it is in no list
+     */
+    int listOf(int node) {
+        return listOf[node];
+    }
+
+    /**
+     * @return The oldest node of the list, {@link NodeLists#NONE} if it is empty
+     */
+    int first(int list) {
+        return first[list];
+    }
+
+    int size(int list) {
+        return sizes[list];
+    }
+}
@@ -0,0 +1,27 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+/**
+ * A cache replacement policy that only simulates which keys are cached. There are no values,
+ * locks, statistics or listeners, so replaying a trace through a policy only pays for the
+ * bookkeeping that decides the hit ratio.
+ */
+public interface Policy {
+
+    /**
+     * Access the key, admitting it to the cache on a miss and evicting another key if needed.
+     *
+     * @param key The accessed key
+     * @return Whether the key was cached
+     */
+    boolean access(int key);
+
+    /**
+     * @return The current amount of cached keys
+     */
+    int size();
+
+    /**
+     * @return The maximum amount of cached keys
+     */
+    int maxSize();
+}
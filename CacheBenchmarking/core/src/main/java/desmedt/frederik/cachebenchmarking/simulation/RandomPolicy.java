@@ -0,0 +1,49 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+import java.util.Random;
+
+/**
+ * Random simulator, a miss replaces a uniformly chosen cached key.
+ */
+public class RandomPolicy extends AbstractPolicy {
+
+    public static final String POLICY_TAG = "RandomPolicy";
+
+    private final Random random;
+    private int size = 0;
+
+    public RandomPolicy(int maxSize) {
+        this(maxSize, new Random());
+    }
+
+    /**
+     * @param random The source of the evictions, seed it to make a replay reproducible
+     */
+    public RandomPolicy(int maxSize, Random random) {
+        super(maxSize, maxSize);
+        this.random = random;
+    }
+
+    @Override
+    public boolean access(int key) {
+        if (findNode(key) != NONE) {
+            return true;
+        }
+
+        final int node;
+        if (size == maxSize) {
+            node = random.nextInt(maxSize);
+            removeNode(node);
+        } else {
+            node = size++;
+        }
+
+        insertNode(key, node);
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
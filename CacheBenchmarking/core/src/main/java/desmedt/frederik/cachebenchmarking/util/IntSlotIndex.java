@@ -0,0 +1,117 @@
+package desmedt.frederik.cachebenchmarking.util;
+
+import java.util.Arrays;
+
+/**
+ * Maps int keys to slots, the indices of parallel primitive arrays of the owner. The keys are
+ * stored by the owner in the key array, the index only keeps the slot of each key in an open
+ * addressing hash table with linear probing. The table is kept at most half full.
+ */
+public final class IntSlotIndex {
+
+    public static final int NONE = -1;
+
+    private static final int EMPTY = 0;
+
+    private final int[] keys;
+
+    /**
+     * Slot of each key plus one, so that 0 marks an empty bucket.
+     */
+    private final int[] table;
+    private final int mask;
+
+    /**
+     * @param keys The key of each slot, written by the owner before the slot is inserted, the
+     *             length is the maximum amount of keys in the index
+     */
+    public IntSlotIndex(int[] keys) {
+        this.keys = keys;
+        table = new int[Integer.highestOneBit(Math.max(1, keys.length * 2 - 1)) << 1];
+        mask = table.length - 1;
+    }
+
+    private static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The slot of the key, or {@link IntSlotIndex#NONE} if the key isn't in the index
+     */
+    public int find(int key) {
+        for (int i = hash(key) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[table[i] - 1] == key) {
+                return table[i] - 1;
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Add the slot, its key must not be in the index yet.
+     */
+    public void insert(int slot) {
+        int i = hash(keys[slot]) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+
+        table[i] = slot + 1;
+    }
+
+    /**
+     * Remove the key from the index.
+     *
+     * @return The slot of the removed key, or {@link IntSlotIndex#NONE} if the key wasn't present
+     */
+    public int remove(int key) {
+        int i = hash(key) & mask;
+        while (table[i] != EMPTY && keys[table[i] - 1] != key) {
+            i = (i + 1) & mask;
+        }
+
+        if (table[i] == EMPTY) {
+            return NONE;
+        }
+
+        final int slot = table[i] - 1;
+        removeBucket(i);
+        return slot;
+    }
+
+    /**
+     * Remove the slot, which must be in the index.
+     */
+    public void removeSlot(int slot) {
+        int i = hash(keys[slot]) & mask;
+        while (table[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+
+        removeBucket(i);
+    }
+
+    /**
+     * Following entries of the probe sequence are shifted back into the gap, so no tombstones are
+     * needed.
+     */
+    private void removeBucket(int i) {
+        int gap = i;
+        for (int j = (i + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+            final int home = hash(keys[table[j] - 1]) & mask;
+            // Move the entry if its home bucket is not cyclically within (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                table[gap] = table[j];
+                gap = j;
+            }
+        }
+
+        table[gap] = EMPTY;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+    }
+}
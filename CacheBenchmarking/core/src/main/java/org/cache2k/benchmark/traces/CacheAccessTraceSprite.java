@@ -24,8 +24,6 @@ package org.cache2k.benchmark.traces;
 
 import org.cache2k.benchmark.util.AccessTrace;
 
-import desmedt.frederik.cachebenchmarking.R;
-
 /**
  * Reference trace used in the LIRS and CLOCK-Pro paper. This trace
  * is used to compare the hit percentages in the papers to the
@@ -41,7 +39,7 @@ import desmedt.frederik.cachebenchmarking.R;
 public class CacheAccessTraceSprite {
 
   public static AccessTrace getInstance() {
-    return TraceCache.getTraceLazy("trace-sprite.trc.bin.gz", R.raw.trace_sprite_trc_bin_gz);
+    return TraceCache.getTraceLazy("trace-sprite.trc.bin.gz");
   }
 
 }
@@ -22,19 +22,14 @@ package org.cache2k.benchmark.traces;
  * #L%
  */
 
-import android.support.annotation.IdRes;
-import android.support.annotation.RawRes;
-
-import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.cache2k.benchmark.util.AccessPattern;
 import org.cache2k.benchmark.util.AccessTrace;
+import org.cache2k.benchmark.util.ParallelBZip2InputStream;
 import org.cache2k.benchmark.util.Patterns;
 import org.cache2k.benchmark.util.UmassTraceReaderLbaOnly;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 
-import desmedt.frederik.cachebenchmarking.R;
-
 /**
  * UMass Financial1 trace. Truncated to one million requests using only
  * read access and only the first LBA of a sequence.
@@ -48,21 +43,18 @@ public class CacheAccessTraceUmassFinancial1 {
 
   static int LIMIT_LENGTH = 1000 * 1000;
 
-  static AccessTrace provideUmassTrace(@RawRes int id) throws IOException {
-    return new AccessTrace(Patterns.strip(new UmassTraceReaderLbaOnly(new BZip2CompressorInputStream(TraceCache.applicationContext.getResources().openRawResource(id))), LIMIT_LENGTH))
-                    .disableOptHitCount();
+  static AccessTrace provideUmassTrace(String s) throws IOException {
+    return new AccessTrace(Patterns.strip(openUmassPattern(s), LIMIT_LENGTH));
   }
 
-  static AccessTrace provideUmassTrace(String s) throws IOException {
+  /**
+   * Complete trace as a stream, it is neither truncated nor kept in memory.
+   */
+  static AccessPattern openUmassPattern(String s) throws IOException {
     return
-      new AccessTrace(
-        Patterns.strip(
-          new UmassTraceReaderLbaOnly(
-            new BZip2CompressorInputStream(
-              new FileInputStream(
-                TraceResourceDirectory.TRACE_DIRECTORY +
-                  "/umass.edu/" + s))), LIMIT_LENGTH))
-      .disableOptHitCount();
+      new UmassTraceReaderLbaOnly(
+        ParallelBZip2InputStream.open(
+          TraceCache.openResource("umass.edu/" + s)));
   }
 
   static final TraceCache.Provider PROVIDER = new TraceCache.Provider() {
@@ -76,4 +68,12 @@ public class CacheAccessTraceUmassFinancial1 {
     return TraceCache.getTraceLazy(CacheAccessTraceUmassFinancial1.class.getName(), PROVIDER);
   }
 
+  /**
+   * The complete trace, not truncated, read as a stream. Nothing is cached,
+   * every call opens and decompresses the trace file again.
+   */
+  public static AccessPattern openPattern() throws IOException {
+    return openUmassPattern("Financial1.spc.bz2");
+  }
+
 }
@@ -22,6 +22,7 @@ package org.cache2k.benchmark.traces;
  * #L%
  */
 
+import org.cache2k.benchmark.util.AccessPattern;
 import org.cache2k.benchmark.util.AccessTrace;
 import org.cache2k.benchmark.util.UmassTraceReaderLbaOnly;
 
@@ -49,4 +50,12 @@ public class CacheAccessTraceUmassFinancial2 {
     return TraceCache.getTraceLazy(CacheAccessTraceUmassFinancial2.class.getName(), PROVIDER);
   }
 
+  /**
+   * The complete trace, not truncated, read as a stream. Nothing is cached,
+   * every call opens and decompresses the trace file again.
+   */
+  public static AccessPattern openPattern() throws IOException {
+    return CacheAccessTraceUmassFinancial1.openUmassPattern("Financial2.spc.bz2");
+  }
+
 }
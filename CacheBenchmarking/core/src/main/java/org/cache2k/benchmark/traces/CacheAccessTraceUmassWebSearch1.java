@@ -22,12 +22,11 @@ package org.cache2k.benchmark.traces;
  * #L%
  */
 
+import org.cache2k.benchmark.util.AccessPattern;
 import org.cache2k.benchmark.util.AccessTrace;
 
 import java.io.IOException;
 
-import desmedt.frederik.cachebenchmarking.R;
-
 /**
  * UMass WebSearch1 trace. Truncated to one million requests using only
  * read access and only the first LBA of a sequence.
@@ -41,7 +40,7 @@ public class CacheAccessTraceUmassWebSearch1 {
   static final TraceCache.Provider PROVIDER = new TraceCache.Provider() {
     @Override
     public AccessTrace provide() throws IOException {
-      return CacheAccessTraceUmassFinancial1.provideUmassTrace(R.raw.web_search_1_spc);
+      return CacheAccessTraceUmassFinancial1.provideUmassTrace("WebSearch1.spc.bz2");
     }
   };
 
@@ -49,4 +48,12 @@ public class CacheAccessTraceUmassWebSearch1 {
     return TraceCache.getTraceLazy(CacheAccessTraceUmassWebSearch1.class.getName(), PROVIDER);
   }
 
+  /**
+   * The complete trace, not truncated, read as a stream. Nothing is cached,
+   * every call opens and decompresses the trace file again.
+   */
+  public static AccessPattern openPattern() throws IOException {
+    return CacheAccessTraceUmassFinancial1.openUmassPattern("WebSearch1.spc.bz2");
+  }
+
 }
@@ -22,6 +22,7 @@ package org.cache2k.benchmark.traces;
  * #L%
  */
 
+import org.cache2k.benchmark.util.AccessPattern;
 import org.cache2k.benchmark.util.AccessTrace;
 
 import java.io.IOException;
@@ -47,4 +48,12 @@ public class CacheAccessTraceUmassWebSearch3 {
     return TraceCache.getTraceLazy(CacheAccessTraceUmassWebSearch3.class.getName(), PROVIDER);
   }
 
+  /**
+   * The complete trace, not truncated, read as a stream. Nothing is cached,
+   * every call opens and decompresses the trace file again.
+   */
+  public static AccessPattern openPattern() throws IOException {
+    return CacheAccessTraceUmassFinancial1.openUmassPattern("WebSearch3.spc.bz2");
+  }
+
 }
@@ -24,8 +24,6 @@ package org.cache2k.benchmark.traces;
 
 import org.cache2k.benchmark.util.AccessTrace;
 
-import desmedt.frederik.cachebenchmarking.R;
-
 /**
  * Normalized access trace (HTTP requests) on a product detail page in december.
  *
@@ -34,7 +32,7 @@ import desmedt.frederik.cachebenchmarking.R;
 public class CacheAccessTraceWeb12 {
 
   public static AccessTrace getInstance() {
-    return TraceCache.getTraceLazy("trace-mt-20121220.trc.bin.gz", R.raw.trace_mt_20121220_trc_bin_gz);
+    return TraceCache.getTraceLazy("trace-mt-20121220.trc.bin.gz");
   }
 
 }
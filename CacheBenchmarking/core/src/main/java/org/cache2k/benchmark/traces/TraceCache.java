@@ -0,0 +1,285 @@
+package org.cache2k.benchmark.traces;
+
+/*
+ * #%L
+ * traces
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.cache2k.benchmark.util.AccessTrace;
+import org.cache2k.benchmark.util.CompactTraceReader;
+import org.cache2k.benchmark.util.CompactTraceWriter;
+import org.cache2k.benchmark.util.ParallelBZip2InputStream;
+import org.cache2k.benchmark.util.TraceMetadataStore;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Caches all traces that are read into memory already. We hold the traces so that
+ * we don't need to recalculate the Belady opt efficiency and other metrics
+ * again and again.
+ *
+ * <p>Traces are held strongly up to a memory budget, by default a quarter of the
+ * maximum heap, which can be changed with the system property
+ * {@value #BUDGET_PROPERTY_NAME} or {@link #setMemoryBudget(long)}. When the budget
+ * is exceeded, the least recently used traces are only held by a soft reference, so
+ * they are still reused until the garbage collector needs the memory. The memory
+ * of a trace is estimated without locking it, see {@link AccessTrace#getMemoryUsage()},
+ * so the cache is not blocked while a trace calculates its statistics.
+ *
+ * <p>Trace files are opened via a {@link Source}, by default from the
+ * {@link TraceResourceDirectory}. Platforms that bundle the traces differently,
+ * e.g. as Android resources, install their own source with {@link #setSource(Source)}.
+ *
+ * <p>Trace files in the compact trace format, ending with {@link CompactTraceWriter#EXTENSION},
+ * are decoded in parallel and come with their statistics.
+ *
+ * <p>Statistics and hit counts of the loaded traces are kept across runs in a
+ * {@link TraceMetadataStore}, by default the file {@value #DEFAULT_METADATA_FILE_NAME}
+ * in the trace directory, if the directory exists. The file can be changed with the
+ * system property {@value #METADATA_PROPERTY_NAME}, an empty value disables the store.
+ * Attaching a loaded trace to the store computes the SHA-1 over all values of the
+ * trace in memory, on every load, so tests and short runs should disable the store.
+ *
+ * @author Jens Wilke; created: 2013-11-20
+ */
+public class TraceCache {
+
+  public final static String BUDGET_PROPERTY_NAME = "trace.cache.budget";
+  public final static String METADATA_PROPERTY_NAME = "trace.metadata";
+  public final static String DEFAULT_METADATA_FILE_NAME = "trace-metadata.properties";
+
+  /** Entries in access order, the least recently used first */
+  static final LinkedHashMap<String, Entry> name2trace = new LinkedHashMap<>(16, 0.75F, true);
+  private static long memoryBudget =
+    Long.getLong(BUDGET_PROPERTY_NAME, Runtime.getRuntime().maxMemory() / 4);
+  /** Memory of all strongly held traces */
+  private static long memoryUsage = 0;
+
+  /**
+   * Opens the trace files from the {@link TraceResourceDirectory}.
+   */
+  public static final Source DIRECTORY_SOURCE = new Source() {
+    @Override
+    public InputStream open(String _fileName) throws IOException {
+      return TraceResourceDirectory.open(_fileName);
+    }
+  };
+
+  private static volatile Source source = DIRECTORY_SOURCE;
+
+  private static volatile TraceMetadataStore metadataStore = createMetadataStore();
+
+  private static TraceMetadataStore createMetadataStore() {
+    String _fileName = System.getProperty(METADATA_PROPERTY_NAME);
+    if (_fileName == null) {
+      File f = TraceResourceDirectory.getFile(DEFAULT_METADATA_FILE_NAME);
+      return f.getParentFile().isDirectory() ? new TraceMetadataStore(f) : null;
+    }
+    return _fileName.isEmpty() ? null : new TraceMetadataStore(new File(_fileName));
+  }
+
+  /**
+   * Store for the statistics of the traces loaded from now on, {@code null} to disable.
+   */
+  public static void setMetadataStore(TraceMetadataStore _store) {
+    metadataStore = _store;
+  }
+
+  public static TraceMetadataStore getMetadataStore() {
+    return metadataStore;
+  }
+
+  public static void setSource(Source _source) {
+    if (_source == null) {
+      throw new NullPointerException("source");
+    }
+    source = _source;
+  }
+
+  public static Source getSource() {
+    return source;
+  }
+
+  /**
+   * Open a trace file via the current source. The input is not decompressed.
+   */
+  static InputStream openResource(String _fileName) throws IOException {
+    return new BufferedInputStream(source.open(_fileName));
+  }
+
+  static AccessTrace getTraceLazy(final String _fileName) {
+    return getTraceLazy(_fileName, new Provider() {
+      @Override
+      public AccessTrace provide() throws IOException {
+        InputStream _resourceInput = openResource(_fileName);
+        if (_fileName.endsWith(CompactTraceWriter.EXTENSION)) {
+          return CompactTraceReader.read(_resourceInput);
+        }
+        InputStream _inputForTrace;
+        if (_fileName.endsWith(".bz2")) {
+          _inputForTrace = ParallelBZip2InputStream.open(_resourceInput);
+        } else {
+          _inputForTrace = new GZIPInputStream(_resourceInput);
+        }
+        return new AccessTrace(_inputForTrace);
+      }
+    });
+  }
+
+  /**
+   * Return the cached trace or load it. The trace is loaded without holding the
+   * lock, so concurrent requests for the same trace may load it twice, but only
+   * the first one is kept.
+   */
+  static AccessTrace getTraceLazy(String key, Provider p) {
+    AccessTrace t = lookup(key);
+    if (t != null) {
+      return t;
+    }
+    try {
+      t = p.provide();
+    } catch (Exception e) {
+      throw new RuntimeException("Cannot load trace: " + key, e);
+    }
+    TraceMetadataStore _store = metadataStore;
+    if (_store != null) {
+      _store.attach(t);
+    }
+    return insert(key, t);
+  }
+
+  private static synchronized AccessTrace lookup(String key) {
+    Entry e = name2trace.get(key);
+    if (e == null) {
+      return null;
+    }
+    if (e.strong == null) {
+      AccessTrace t = e.soft.get();
+      if (t == null) {
+        name2trace.remove(key);
+        return null;
+      }
+      e.strong = t;
+    }
+    evict(e);
+    return e.strong;
+  }
+
+  private static synchronized AccessTrace insert(String key, AccessTrace t) {
+    Entry e = name2trace.get(key);
+    if (e != null) {
+      AccessTrace _loaded = e.strong != null ? e.strong : e.soft.get();
+      if (_loaded != null) {
+        e.strong = _loaded;
+        evict(e);
+        return _loaded;
+      }
+    }
+    e = new Entry(t);
+    name2trace.put(key, e);
+    evict(e);
+    return t;
+  }
+
+  /**
+   * Update the memory usage, the traces grow when data is calculated from them,
+   * and move the least recently used traces to their soft reference until the
+   * memory budget is met. The entry just used is kept.
+   */
+  private static void evict(Entry _current) {
+    long _usage = 0;
+    for (Entry e : name2trace.values()) {
+      e.size = e.strong != null ? e.strong.getMemoryUsage() : 0;
+      _usage += e.size;
+    }
+    for (Entry e : name2trace.values()) {
+      if (_usage <= memoryBudget) {
+        break;
+      }
+      if (e != _current && e.strong != null) {
+        e.strong = null;
+        _usage -= e.size;
+        e.size = 0;
+      }
+    }
+    memoryUsage = _usage;
+  }
+
+  /**
+   * Memory in bytes for the traces that are held strongly, the trace used last is
+   * held also if it exceeds the budget.
+   */
+  public static synchronized void setMemoryBudget(long _bytes) {
+    if (_bytes < 0) {
+      throw new IllegalArgumentException("budget must not be negative");
+    }
+    memoryBudget = _bytes;
+    evict(null);
+  }
+
+  public static synchronized long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  /**
+   * Estimated memory of the traces held strongly, as of the last access to the cache.
+   */
+  public static synchronized long getMemoryUsage() {
+    return memoryUsage;
+  }
+
+  static class Entry {
+
+    AccessTrace strong;
+    final SoftReference<AccessTrace> soft;
+    long size;
+
+    Entry(AccessTrace t) {
+      strong = t;
+      soft = new SoftReference<>(t);
+    }
+
+  }
+
+  interface Provider {
+
+    AccessTrace provide() throws IOException;
+  }
+
+  /**
+   * Opens the raw, still compressed, content of a trace file.
+   */
+  public interface Source {
+
+    /**
+     * @param _fileName file name of the trace relative to the trace directory,
+     *                  e.g. {@code trace-sprite.trc.bin.gz} or {@code umass.edu/Financial1.spc.bz2}
+     * @throws java.io.FileNotFoundException if the source does not contain the trace
+     */
+    InputStream open(String _fileName) throws IOException;
+  }
+
+}
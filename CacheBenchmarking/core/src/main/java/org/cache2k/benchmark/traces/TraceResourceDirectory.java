@@ -22,7 +22,15 @@ package org.cache2k.benchmark.traces;
  * #L%
  */
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
+ * Directory containing the trace files. Defaults to {@value #DEFAULT_DIRECTORY}
+ * and can be changed with the system property {@value #PROPERTY_NAME}.
+ *
  * @author Jens Wilke
  */
 public class TraceResourceDirectory {
@@ -35,4 +43,12 @@ public class TraceResourceDirectory {
     TRACE_DIRECTORY = System.getProperty(PROPERTY_NAME,DEFAULT_DIRECTORY);
   }
 
+  public static File getFile(String _fileName) {
+    return new File(TRACE_DIRECTORY, _fileName);
+  }
+
+  public static InputStream open(String _fileName) throws IOException {
+    return new FileInputStream(getFile(_fileName));
+  }
+
 }
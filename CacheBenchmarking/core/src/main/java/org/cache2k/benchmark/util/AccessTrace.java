@@ -0,0 +1,776 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A finite list of requests to a cache with some calculated properties.
+ *
+ * @author Jens Wilke; created: 2013-11-14
+ */
+public class AccessTrace implements Iterable<Integer> {
+
+  AccessPattern pattern;
+  private volatile int[] trace = null;
+  private volatile Integer[] objectTrace = null;
+  int valueCount = -1;
+  int lowValue = Integer.MAX_VALUE;
+  int highValue = Integer.MIN_VALUE;
+  volatile Map<Integer, Integer> size2opt = new ConcurrentHashMap<>();
+  private volatile int[] nextOccurrences = null;
+  private volatile MissRatioCurve lruMissRatioCurve = null;
+  Map<Integer, Integer> size2random = new ConcurrentHashMap<>();
+  private String contentHash = null;
+  volatile TraceMetadataStore metadataStore = null;
+
+  /**
+   * Buffer size used for writing a trace to a file.
+   */
+  static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Number of runs with different seeds for {@link #getRandomHitRate(int)}.
+   */
+  public static final int RANDOM_SEED_COUNT = 8;
+
+  /**
+   * Read in access trace from file. The file format is binary integer
+   * values (4 bytes) in sequence, the order is big endian.
+   *
+   * <p>The trace is copied to the heap. Use {@link MappedAccessTrace#map(File)}
+   * for traces that should stay in the file or do not fit into the heap.
+   */
+  public AccessTrace(File f) throws IOException {
+    FileChannel in = new FileInputStream(f).getChannel();
+    ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+    trace = new int[(int) (in.size() / 4)];
+    buf.order(ByteOrder.BIG_ENDIAN);
+    buf.asIntBuffer().get(getTrace());
+    in.close();
+  }
+
+  /**
+   * Read in access trace. The format is binary integer
+   * values (4 bytes) in sequence, the order is big endian.
+   */
+  public AccessTrace(InputStream in) throws IOException {
+    byte[] ba = readToByteArray(in);
+    ByteBuffer buf = ByteBuffer.wrap(ba);
+    trace = new int[(int) (ba.length / 4)];
+    buf.order(ByteOrder.BIG_ENDIAN);
+    buf.asIntBuffer().get(getTrace());
+    in.close();
+  }
+
+  private byte[] readToByteArray(InputStream in) throws IOException {
+    byte[] ba = new byte[2048];
+    int pos = 0;
+    do {
+      int _possibleLength = ba.length - pos;
+      int l = in.read(ba, pos, _possibleLength);
+      if (l > 0) {
+        pos += l;
+        if (pos >= ba.length) {
+          byte[] ba2 = new byte[ba.length * 2];
+          System.arraycopy(ba, 0, ba2, 0, ba.length);
+          ba = ba2;
+        }
+      } else {
+        break;
+      }
+    } while (true);
+    byte[] ba2 = new byte[pos];
+    System.arraycopy(ba, 0, ba2, 0, pos);
+    return ba2;
+  }
+
+  /**
+   * For subclasses that provide the trace themselves.
+   */
+  AccessTrace() { }
+
+  /**
+   * Trace with statistics that are already known, e.g. from the header of a
+   * compact trace.
+   *
+   * @see CompactTraceReader
+   */
+  AccessTrace(int[] _trace, int _valueCount, int _lowValue, int _highValue) {
+    trace = _trace;
+    valueCount = _valueCount;
+    lowValue = _lowValue;
+    highValue = _highValue;
+  }
+
+  /**
+   * New trace of complete pattern.
+   */
+  public AccessTrace(AccessPattern... ps) {
+    AccessPattern p = Patterns.concat(ps);
+    if (p.isEternal()) {
+      throw new IllegalArgumentException("Pattern is expected not to be eternal");
+    }
+    pattern = p;
+  }
+
+  /**
+   * New trace of complete pattern.
+   */
+  public AccessTrace(int _maxSize, AccessPattern... ps) {
+    AccessPattern p = Patterns.concat(ps);
+    pattern = Patterns.strip(p, _maxSize);
+  }
+
+  /**
+   * New trace from partial pattern. Reads the pattern to the end but at most
+   * the maximum size.
+   */
+  public AccessTrace(AccessPattern p, int _maxSize) {
+    pattern = Patterns.strip(p, _maxSize);
+  }
+
+  public Integer[] getObjectTrace() {
+    if (objectTrace != null) {
+      return objectTrace;
+    }
+    int[] _trace = getTrace();
+    Integer[] ia = new Integer[_trace.length];
+    for (int i = 0; i < _trace.length; i++) {
+      ia[i] = _trace[i];
+    }
+    return objectTrace = ia;
+  }
+
+  public int[] getTrace() {
+    if (trace != null) {
+      return trace;
+    }
+    try {
+      trace = prepareTrace(pattern);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Error creating trace", e);
+    }
+    return trace;
+  }
+
+  /**
+   * Opt calculation is extremely slow for traces with no hits at all.
+   * This is used to predefine the opt hit count to a known value.
+   */
+  public AccessTrace setOptHitCount(int _size, int _count) {
+    size2opt.put(_size, _count);
+    return this;
+  }
+
+  public AccessTrace setRandomHitCount(int _size, int _count) {
+    size2random.put(_size, _count);
+    return this;
+  }
+
+  public AccessTrace disableOptHitCount() {
+    size2opt = null;
+    return this;
+  }
+
+  /**
+   * Write the trace in the format read by {@link #AccessTrace(File)}. The trace
+   * is written through a small buffer, so files larger than 2GB are possible.
+   */
+  public void write(File f) throws IOException {
+    int[] _trace = getTrace();
+    FileChannel out = new FileOutputStream(f).getChannel();
+    try {
+      ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+      buf.order(ByteOrder.BIG_ENDIAN);
+      IntBuffer _ints = buf.asIntBuffer();
+      int pos = 0;
+      while (pos < _trace.length) {
+        int _count = Math.min(_ints.capacity(), _trace.length - pos);
+        _ints.clear();
+        _ints.put(_trace, pos, _count);
+        buf.clear();
+        buf.limit(_count * 4);
+        writeFully(out, buf);
+        pos += _count;
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+    while (buf.hasRemaining()) {
+      out.write(buf);
+    }
+  }
+
+  /**
+   * Return an access pattern which starts at the beginning of the trace.
+   */
+  public AccessPattern newPattern() {
+    final int[] ia = getTrace();
+    return new AccessPattern() {
+      int idx = 0;
+
+      @Override
+      public boolean isEternal() {
+        return false;
+      }
+
+      @Override
+      public boolean hasNext() throws Exception {
+        return idx < ia.length;
+      }
+
+      @Override
+      public int next() throws Exception {
+        return ia[idx++];
+      }
+    };
+  }
+
+  /**
+   * Return the array of the trace. It is not allowed to modify the array, since this
+   * is the trace data itself. This is a poor API, however, when used in benchmarking we
+   * don't want to have to array copy in the timing.
+   */
+  public int[] getArray() {
+    return getTrace();
+  }
+
+  /**
+   * Returns the hits according to Beladys optimal algorithm for the given cache size.
+   * The calculation is done only once for a trace and a size.
+   */
+  public int getOptHitCount(int _size) {
+    if (_size <= 0) {
+      throw new IllegalArgumentException("size must be greater 0");
+    }
+    Map<Integer, Integer> _size2opt = size2opt;
+    if (_size2opt == null) {
+      return 0;
+    }
+    Integer v = _size2opt.get(_size);
+    if (v != null) {
+      return v;
+    }
+    OptimumReplacementCalculation c =
+      OptimumReplacementCalculation.ofNextOccurrences(_size, getNextOccurrences());
+    _size2opt.put(_size, c.getHitCount());
+    statisticsChanged();
+    return c.getHitCount();
+  }
+
+  /**
+   * Returns the hits according to Beladys optimal algorithm for all given cache sizes.
+   * Sizes not calculated yet are calculated concurrently, one task per size, sharing
+   * the next occurrence index of the trace.
+   *
+   * @return hit counts in the order of the requested sizes
+   */
+  public int[] getOptHitCounts(int... _sizes) {
+    for (int _size : _sizes) {
+      if (_size <= 0) {
+        throw new IllegalArgumentException("size must be greater 0");
+      }
+    }
+    final Map<Integer, Integer> _size2opt = size2opt;
+    int[] _counts = new int[_sizes.length];
+    if (_size2opt == null) {
+      return _counts;
+    }
+    final int[] _next = getNextOccurrences();
+    List<Callable<Void>> _tasks = new ArrayList<>();
+    Set<Integer> _pending = new HashSet<>();
+    for (final int _size : _sizes) {
+      if (_size2opt.containsKey(_size) || !_pending.add(_size)) {
+        continue;
+      }
+      _tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          _size2opt.put(_size, OptimumReplacementCalculation.ofNextOccurrences(_size, _next).getHitCount());
+          return null;
+        }
+      });
+    }
+    if (!_tasks.isEmpty()) {
+      ForkJoinPool _pool = new ForkJoinPool(Math.min(_tasks.size(), Runtime.getRuntime().availableProcessors()));
+      try {
+        for (Future<Void> f : _pool.invokeAll(_tasks)) {
+          f.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted during opt calculation", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Error calculating opt hit counts", e.getCause());
+      } finally {
+        _pool.shutdown();
+      }
+      statisticsChanged();
+    }
+    for (int i = 0; i < _sizes.length; i++) {
+      _counts[i] = _size2opt.get(_sizes[i]);
+    }
+    return _counts;
+  }
+
+  /**
+   * Position of the next access to the same value for each trace position. Calculated
+   * once and kept, since it is needed for the opt calculation of every cache size.
+   *
+   * @see OptimumReplacementCalculation#nextOccurrences(int[])
+   */
+  synchronized int[] getNextOccurrences() {
+    if (nextOccurrences == null) {
+      nextOccurrences = OptimumReplacementCalculation.nextOccurrences(getTrace());
+    }
+    return nextOccurrences;
+  }
+
+  public HitRate getOptHitRate(int _size) {
+    return new HitRate(getOptHitCount(_size));
+  }
+
+  /**
+   * Hit and miss ratios of an LRU cache for all cache sizes. The curve is calculated
+   * in a single pass over the trace and kept.
+   */
+  public synchronized MissRatioCurve getLruMissRatioCurve() {
+    if (lruMissRatioCurve == null) {
+      lruMissRatioCurve = MissRatioCurve.lru(getTrace());
+    }
+    return lruMissRatioCurve;
+  }
+
+  public HitRate getLruHitRate(int _size) {
+    if (_size <= 0) {
+      throw new IllegalArgumentException("size must be greater 0");
+    }
+    return new HitRate((int) getLruMissRatioCurve().getHitCount(_size));
+  }
+
+  /**
+   * Hits of a cache with random eviction, the mean of {@value #RANDOM_SEED_COUNT} runs
+   * with different seeds. The calculation is done only once for a trace and a size.
+   *
+   * @see #getRandomHitStatistics(int, int)
+   */
+  public HitRate getRandomHitRate(int _size) {
+    Integer v = size2random.get(_size);
+    if (v == null) {
+      v = (int) Math.round(getRandomHitStatistics(_size, RANDOM_SEED_COUNT).getMean());
+      size2random.put(_size, v);
+      statisticsChanged();
+    }
+    return new HitRate(v);
+  }
+
+  /**
+   * Hits of a cache with random eviction for the given number of seeds. The runs
+   * are done in parallel, one task per seed.
+   */
+  public HitStatistics getRandomHitStatistics(final int _size, int _seedCount) {
+    if (_size <= 0) {
+      throw new IllegalArgumentException("size must be greater 0");
+    }
+    if (_seedCount <= 0) {
+      throw new IllegalArgumentException("seed count must be greater 0");
+    }
+    final int[] _trace = getTrace();
+    final int[] _counts = new int[_seedCount];
+    if (_seedCount == 1) {
+      _counts[0] = calcRandomHits(_trace, _size, randomSeed(0));
+      return new HitStatistics(_counts);
+    }
+    List<Callable<Void>> _tasks = new ArrayList<>();
+    for (int i = 0; i < _seedCount; i++) {
+      final int _index = i;
+      _tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          _counts[_index] = calcRandomHits(_trace, _size, randomSeed(_index));
+          return null;
+        }
+      });
+    }
+    ForkJoinPool _pool = new ForkJoinPool(Math.min(_seedCount, Runtime.getRuntime().availableProcessors()));
+    try {
+      for (Future<Void> f : _pool.invokeAll(_tasks)) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted during random hit calculation", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Error calculating random hit counts", e.getCause());
+    } finally {
+      _pool.shutdown();
+    }
+    return new HitStatistics(_counts);
+  }
+
+  static long randomSeed(int _index) {
+    return 1802 + 4711L * _index;
+  }
+
+  /**
+   * Simulate a cache with random eviction. The cached values are kept in an array,
+   * together with a map from the value to its array index. The new value takes the
+   * index of the evicted value, so an eviction is constant time.
+   */
+  static int calcRandomHits(int[] _trace, int _size, long _seed) {
+    Int2IntOpenHashMap _value2index = new Int2IntOpenHashMap();
+    int[] _values = new int[Math.min(_size, _trace.length)];
+    int _fill = 0;
+    Random _random = new Random(_seed);
+    int _hitCnt = 0;
+    for (int v : _trace) {
+      if (_value2index.containsKey(v)) {
+        _hitCnt++;
+        continue;
+      }
+      int _index;
+      if (_fill < _size) {
+        _index = _fill++;
+      } else {
+        _index = _random.nextInt(_size);
+        _value2index.remove(_values[_index]);
+      }
+      _values[_index] = v;
+      _value2index.put(v, _index);
+    }
+    return _hitCnt;
+  }
+
+  /**
+   * Estimated heap memory held by this trace in bytes: the trace itself and the
+   * data calculated from it, like the object trace and the next occurrences.
+   * Memoized hit counts are small and not counted. Does not lock the trace, so it
+   * is not blocked by a long running calculation on it.
+   */
+  public long getMemoryUsage() {
+    long _bytes = 0;
+    int[] _trace = trace;
+    if (_trace != null) {
+      _bytes += 4L * _trace.length;
+    }
+    Integer[] _objectTrace = objectTrace;
+    if (_objectTrace != null) {
+      _bytes += 20L * _objectTrace.length;
+    }
+    int[] _nextOccurrences = nextOccurrences;
+    if (_nextOccurrences != null) {
+      _bytes += 4L * _nextOccurrences.length;
+    }
+    MissRatioCurve _curve = lruMissRatioCurve;
+    if (_curve != null) {
+      _bytes += 8L * (_curve.getMaxSize() + 1);
+    }
+    return _bytes;
+  }
+
+  /**
+   * Return the distinct values in this trace.
+   */
+  public int getValueCount() {
+    ensureStatistics();
+    return valueCount;
+  }
+
+  public int getHighValue() {
+    ensureStatistics();
+    return highValue;
+  }
+
+  public int getLowValue() {
+    ensureStatistics();
+    return lowValue;
+  }
+
+  private void ensureStatistics() {
+    if (valueCount < 0) {
+      initStatistics();
+      statisticsChanged();
+    }
+  }
+
+  /**
+   * Pass newly calculated statistics and hit counts on to the store, if the
+   * trace is attached to one.
+   *
+   * @see TraceMetadataStore#attach(AccessTrace)
+   */
+  void statisticsChanged() {
+    TraceMetadataStore _store = metadataStore;
+    if (_store != null) {
+      _store.update(this);
+    }
+  }
+
+  /**
+   * SHA-1 of the trace content as hex string. The content is hashed in the binary
+   * trace format, so this is the {@code sha1sum} of the trace file written by
+   * {@link #write(File)}. Calculated once and kept.
+   */
+  public synchronized String getContentHash() {
+    if (contentHash == null) {
+      MessageDigest _digest;
+      try {
+        _digest = MessageDigest.getInstance("SHA-1");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-1 not available", e);
+      }
+      updateDigest(_digest);
+      StringBuilder sb = new StringBuilder();
+      for (byte b : _digest.digest()) {
+        sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      contentHash = sb.toString();
+    }
+    return contentHash;
+  }
+
+  /**
+   * Feed the trace in the binary trace format into the digest.
+   */
+  void updateDigest(MessageDigest _digest) {
+    int[] _trace = getTrace();
+    ByteBuffer buf = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    buf.order(ByteOrder.BIG_ENDIAN);
+    IntBuffer _ints = buf.asIntBuffer();
+    int pos = 0;
+    while (pos < _trace.length) {
+      int _count = Math.min(_ints.capacity(), _trace.length - pos);
+      _ints.clear();
+      _ints.put(_trace, pos, _count);
+      _digest.update(buf.array(), 0, _count * 4);
+      pos += _count;
+    }
+  }
+
+  public int getTraceLength() {
+    return getTrace().length;
+  }
+
+  void initStatistics() {
+    IntSet _values = new IntOpenHashSet();
+    for (int v : getTrace()) {
+      _values.add(v);
+      if (v < lowValue) {
+        lowValue = v;
+      }
+      if (v > highValue) {
+        highValue = v;
+      }
+    }
+    valueCount = _values.size();
+  }
+
+  public String toString() {
+    return Arrays.toString(getTrace());
+  }
+
+  private static int[] prepareTrace(AccessPattern p, int _maxSize) throws Exception {
+    int[] ia = new int[1024];
+    int i = 0;
+    while (p.hasNext() && i < _maxSize) {
+      if (i >= ia.length) {
+        int[] ia2 = new int[ia.length * 2];
+        System.arraycopy(ia, 0, ia2, 0, i);
+        ia = ia2;
+      }
+      ia[i] = p.next();
+      i++;
+    }
+    int[] ia2 = new int[i];
+    System.arraycopy(ia, 0, ia2, 0, i);
+    p.close();
+    return ia2;
+  }
+
+  /** Read until pattern ends */
+  private static int[] prepareTrace(AccessPattern p) throws Exception {
+    return prepareTrace(p, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Hit counts of runs with different random seeds.
+   */
+  public static class HitStatistics {
+
+    /** Two sided 95% quantiles of the t-distribution, by degrees of freedom */
+    static final double[] T_95 = {
+      Double.NaN, 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+      2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+      2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+
+    private final int[] hitCounts;
+
+    HitStatistics(int[] _hitCounts) {
+      hitCounts = _hitCounts;
+    }
+
+    public int[] getHitCounts() {
+      return hitCounts.clone();
+    }
+
+    public int getSeedCount() {
+      return hitCounts.length;
+    }
+
+    public double getMean() {
+      long _sum = 0;
+      for (int v : hitCounts) {
+        _sum += v;
+      }
+      return (double) _sum / hitCounts.length;
+    }
+
+    /**
+     * Sample standard deviation of the hit counts, 0 for a single seed.
+     */
+    public double getStandardDeviation() {
+      int n = hitCounts.length;
+      if (n < 2) {
+        return 0;
+      }
+      double _mean = getMean();
+      double _sum = 0;
+      for (int v : hitCounts) {
+        _sum += (v - _mean) * (v - _mean);
+      }
+      return Math.sqrt(_sum / (n - 1));
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the mean hit count, the
+     * interval is {@code mean +- getConfidenceInterval()}. 0 for a single seed.
+     */
+    public double getConfidenceInterval() {
+      int n = hitCounts.length;
+      if (n < 2) {
+        return 0;
+      }
+      double t = n - 1 < T_95.length ? T_95[n - 1] : 1.960;
+      return t * getStandardDeviation() / Math.sqrt(n);
+    }
+
+    public String toString() {
+      return String.format("%.1f +- %.1f (95%%, %d seeds)", getMean(), getConfidenceInterval(), hitCounts.length);
+    }
+
+  }
+
+  public class HitRate {
+    int hitCount;
+
+    public HitRate(int hitCount) {
+      this.hitCount = hitCount;
+    }
+
+    public int getCount() {
+      return hitCount;
+    }
+
+    public double getFactor() {
+      return hitCount * 1D / getTraceLength();
+    }
+
+    /** Hitrate in percent from 0 to 100 */
+    public int getPercent() {
+      return getPer(100);
+    }
+
+    /** Hitrate in millis from 0 to 1000 */
+    public int get3digit() {
+      return getPer(1000);
+    }
+
+    /** Hitrate from 0 to 10000 */
+    public int get4digit() {
+      return getPer(10000);
+    }
+
+    public int getPer(long v) {
+      if (getTraceLength() == 0) {
+        throw new IllegalStateException("empty trace");
+      }
+      return (int) ((hitCount * v + getTraceLength() / 2) / getTraceLength());
+    }
+
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return new Iterator<Integer>() {
+
+      int idx = 0;
+
+      @Override
+      public boolean hasNext() {
+        return idx < getTrace().length;
+      }
+
+      @Override
+      public Integer next() {
+        return getTrace()[idx++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+}
@@ -24,8 +24,6 @@ package org.cache2k.benchmark.util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.nio.charset.Charset;
 
 /**
@@ -37,14 +35,14 @@ import java.nio.charset.Charset;
  */
 public class Base36TraceReader extends AccessPattern {
 
-  LineNumberReader reader;
+  LineScanner reader;
   int value;
 
   /**
    * Read in, default charset.
    */
   public Base36TraceReader(InputStream in, Charset cs) {
-    reader = new LineNumberReader(new InputStreamReader(in, cs));
+    reader = new LineScanner(in, cs);
   }
 
   @Override
@@ -54,17 +52,15 @@ public class Base36TraceReader extends AccessPattern {
 
   @Override
   public boolean hasNext() throws Exception {
-    String s;
     do {
-      s = reader.readLine();
-      if (s == null) {
+      if (!reader.nextLine()) {
         return false;
       }
-    } while (s.startsWith("#"));
+    } while (reader.startsWith('#'));
     try {
-      value = Integer.parseInt(s, 36);
+      value = reader.parseInt(0, reader.getLineLength(), 36);
     } catch(NumberFormatException e) {
-      System.err.println("parse error line " + reader.getLineNumber() + ": " + s);
+      System.err.println("parse error line " + reader.getLineNumber() + ": " + reader.getLine());
       return hasNext();
     }
     return true;
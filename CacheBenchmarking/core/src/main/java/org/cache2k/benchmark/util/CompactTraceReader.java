@@ -0,0 +1,360 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a trace in the compact trace format, see {@link CompactTraceWriter} for the
+ * format. The statistics of the trace are read from the header, without decoding the
+ * trace. The blocks are independent, so {@link #read(File)} decodes them in parallel,
+ * one task per block.
+ *
+ * <p>A file is mapped in chunks of {@link #CHUNK_SIZE} bytes, like
+ * {@link MappedAccessTrace}, since a single mapping is limited to 2GB. A block or an
+ * index entry may cross a chunk boundary, then its bytes are copied from both chunks.
+ *
+ * @author Jens Wilke
+ * @see CompactTraceWriter
+ */
+public class CompactTraceReader {
+
+  /**
+   * Bytes per mapped chunk.
+   */
+  static final int CHUNK_SIZE = 1 << 30;
+
+  private final ByteBuffer[] chunks;
+  private final int chunkSize;
+  private final long size;
+  private final boolean denseKeys;
+  private final int blockSize;
+  private final long length;
+  private final int valueCount;
+  private final int lowValue;
+  private final int highValue;
+  private final int blockCount;
+  private final long indexOffset;
+
+  CompactTraceReader(ByteBuffer _data) throws IOException {
+    this(new ByteBuffer[]{_data}, Math.max(1, _data.limit()), _data.limit());
+  }
+
+  /**
+   * @param _chunks the data, all chunks but the last have {@code _chunkSize} bytes
+   */
+  CompactTraceReader(ByteBuffer[] _chunks, int _chunkSize, long _size) throws IOException {
+    chunks = _chunks;
+    chunkSize = _chunkSize;
+    size = _size;
+    if (size < CompactTraceWriter.HEADER_SIZE || getInt(0) != CompactTraceWriter.MAGIC) {
+      throw new IOException("Not a compact trace");
+    }
+    if (getInt(4) != CompactTraceWriter.VERSION) {
+      throw new IOException("Unsupported compact trace version: " + getInt(4));
+    }
+    denseKeys = (getInt(8) & CompactTraceWriter.FLAG_DENSE_KEYS) != 0;
+    blockSize = getInt(12);
+    length = getLong(16);
+    valueCount = getInt(24);
+    lowValue = getInt(28);
+    highValue = getInt(32);
+    blockCount = getInt(36);
+    indexOffset = getLong(40);
+    if (indexOffset + (long) blockCount * CompactTraceWriter.INDEX_ENTRY_SIZE > size) {
+      throw new IOException("Compact trace is truncated");
+    }
+  }
+
+  /**
+   * Map the file, only the header is read.
+   */
+  public static CompactTraceReader open(File f) throws IOException {
+    return open(f, CHUNK_SIZE);
+  }
+
+  /**
+   * Map the file in chunks of the given size.
+   */
+  static CompactTraceReader open(File f, int _chunkSize) throws IOException {
+    RandomAccessFile _file = new RandomAccessFile(f, "r");
+    try {
+      FileChannel in = _file.getChannel();
+      long _size = in.size();
+      ByteBuffer[] _chunks = new ByteBuffer[(int) Math.max(1, (_size + _chunkSize - 1) / _chunkSize)];
+      for (int i = 0; i < _chunks.length; i++) {
+        long _position = (long) i * _chunkSize;
+        _chunks[i] = in.map(FileChannel.MapMode.READ_ONLY, _position, Math.min(_chunkSize, _size - _position));
+      }
+      return new CompactTraceReader(_chunks, _chunkSize, _size);
+    } finally {
+      _file.close();
+    }
+  }
+
+  /**
+   * Read the complete stream, the data is still compressed.
+   */
+  public static CompactTraceReader open(InputStream in) throws IOException {
+    ByteArrayOutputStream _bytes = new ByteArrayOutputStream();
+    byte[] ba = new byte[64 * 1024];
+    try {
+      int l;
+      while ((l = in.read(ba)) > 0) {
+        _bytes.write(ba, 0, l);
+      }
+    } finally {
+      in.close();
+    }
+    return new CompactTraceReader(ByteBuffer.wrap(_bytes.toByteArray()));
+  }
+
+  /**
+   * Read the trace from a file in the compact format, the trace statistics are
+   * taken from the header.
+   */
+  public static AccessTrace read(File f) throws IOException {
+    return open(f).toTrace();
+  }
+
+  public static AccessTrace read(InputStream in) throws IOException {
+    return open(in).toTrace();
+  }
+
+  /**
+   * Decode all blocks in parallel into a new trace.
+   */
+  public AccessTrace toTrace() {
+    return new AccessTrace(decode(), valueCount, lowValue, highValue);
+  }
+
+  /**
+   * Decode all blocks in parallel.
+   */
+  public int[] decode() {
+    if (length > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Trace too long for an array, length=" + length);
+    }
+    final int[] _trace = new int[(int) length];
+    if (blockCount <= 1) {
+      for (int b = 0; b < blockCount; b++) {
+        decodeBlock(b, _trace, 0);
+      }
+      return _trace;
+    }
+    List<Callable<Void>> _tasks = new ArrayList<>();
+    for (int b = 0; b < blockCount; b++) {
+      final int _block = b;
+      _tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          decodeBlock(_block, _trace, _block * blockSize);
+          return null;
+        }
+      });
+    }
+    ForkJoinPool _pool = new ForkJoinPool(Math.min(_tasks.size(), Runtime.getRuntime().availableProcessors()));
+    try {
+      for (Future<Void> f : _pool.invokeAll(_tasks)) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted during trace decoding", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Error decoding trace", e.getCause());
+    } finally {
+      _pool.shutdown();
+    }
+    return _trace;
+  }
+
+  /**
+   * Number of values in the block, all blocks but the last are full.
+   */
+  public int getBlockLength(int _block) {
+    if (_block < blockCount - 1) {
+      return blockSize;
+    }
+    return (int) (length - (long) (blockCount - 1) * blockSize);
+  }
+
+  /**
+   * Decode a single block into the array.
+   *
+   * @return number of values decoded
+   */
+  public int decodeBlock(int _block, int[] _target, int _offset) {
+    if (_block < 0 || _block >= blockCount) {
+      throw new IndexOutOfBoundsException("block=" + _block + ", blockCount=" + blockCount);
+    }
+    long _entry = indexOffset + (long) _block * CompactTraceWriter.INDEX_ENTRY_SIZE;
+    long _position = getLong(_entry);
+    int _compressedLength = getInt(_entry + 8);
+    int _rawLength = getInt(_entry + 12);
+    if (_compressedLength < 0 || _position < 0 || _position + _compressedLength > size) {
+      throw new IllegalStateException("Compact trace block " + _block + " is corrupt");
+    }
+    byte[] _compressed = new byte[_compressedLength];
+    get(_position, _compressed);
+    byte[] _raw = new byte[_rawLength];
+    Inflater _inflater = new Inflater();
+    try {
+      _inflater.setInput(_compressed);
+      int _inflated = 0;
+      while (_inflated < _rawLength && !_inflater.finished()) {
+        int n = _inflater.inflate(_raw, _inflated, _rawLength - _inflated);
+        if (n == 0 && (_inflater.needsInput() || _inflater.needsDictionary())) {
+          break;
+        }
+        _inflated += n;
+      }
+      if (_inflated != _rawLength) {
+        throw new IllegalStateException("Compact trace block " + _block + " is corrupt");
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Compact trace block " + _block + " is corrupt", e);
+    } finally {
+      _inflater.end();
+    }
+    int _count = getBlockLength(_block);
+    int _previous = 0;
+    int pos = 0;
+    for (int i = 0; i < _count; i++) {
+      int _zigzag = 0;
+      int _shift = 0;
+      byte b;
+      do {
+        b = _raw[pos++];
+        _zigzag |= (b & 0x7f) << _shift;
+        _shift += 7;
+      } while (b < 0);
+      _previous += (_zigzag >>> 1) ^ -(_zigzag & 1);
+      _target[_offset + i] = _previous;
+    }
+    return _count;
+  }
+
+  /**
+   * Sequential access, decoding one block at a time. Works for traces that are too
+   * long for an array.
+   */
+  public AccessPattern newPattern() {
+    return new AccessPattern() {
+      int[] values = new int[blockSize];
+      int block = 0;
+      int count = 0;
+      int idx = 0;
+
+      @Override
+      public boolean isEternal() {
+        return false;
+      }
+
+      @Override
+      public boolean hasNext() {
+        if (idx < count) {
+          return true;
+        }
+        if (block >= blockCount) {
+          return false;
+        }
+        count = decodeBlock(block++, values, 0);
+        idx = 0;
+        return count > 0;
+      }
+
+      @Override
+      public int next() {
+        if (idx == count && !hasNext()) {
+          throw new IllegalStateException("end of trace");
+        }
+        return values[idx++];
+      }
+    };
+  }
+
+  /**
+   * Copy the bytes at the position, they may span several chunks.
+   */
+  private void get(long _position, byte[] _target) {
+    int _copied = 0;
+    while (_copied < _target.length) {
+      long _pos = _position + _copied;
+      ByteBuffer _chunk = chunks[(int) (_pos / chunkSize)].duplicate();
+      _chunk.position((int) (_pos % chunkSize));
+      int n = Math.min(_target.length - _copied, _chunk.remaining());
+      _chunk.get(_target, _copied, n);
+      _copied += n;
+    }
+  }
+
+  private int getInt(long _position) {
+    byte[] ba = new byte[4];
+    get(_position, ba);
+    return (ba[0] & 0xff) << 24 | (ba[1] & 0xff) << 16 | (ba[2] & 0xff) << 8 | (ba[3] & 0xff);
+  }
+
+  private long getLong(long _position) {
+    return (long) getInt(_position) << 32 | (getInt(_position + 4) & 0xffffffffL);
+  }
+
+  public boolean isDenseKeys() {
+    return denseKeys;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public int getValueCount() {
+    return valueCount;
+  }
+
+  public int getLowValue() {
+    return lowValue;
+  }
+
+  public int getHighValue() {
+    return highValue;
+  }
+
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+}
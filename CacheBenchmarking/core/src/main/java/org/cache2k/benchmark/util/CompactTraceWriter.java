@@ -0,0 +1,310 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a trace in the compact trace format, read by {@link CompactTraceReader}.
+ * The values are added one by one, so a trace is converted as a stream and
+ * only a single block is held in memory.
+ *
+ * <p>The file starts with a header of {@link #HEADER_SIZE} bytes: magic, version,
+ * flags, values per block, trace length, distinct value count, low and high value,
+ * block count and the position of the block index. The blocks follow, each
+ * holding the zigzag varint encoded deltas of its values, compressed with deflate.
+ * Every block starts with a delta to zero, so it can be decoded on its own. The
+ * block index at the end holds the position, compressed and raw size of each block.
+ * All numbers in the header and index are big endian, like the binary trace format.
+ *
+ * <p>Optionally the non-negative values are dense ids, in order of their first
+ * occurrence, as produced by {@link Patterns#dense(AccessPattern)}. This does not
+ * change the hits of any cache, but the deltas get smaller. This is recorded in the
+ * header, the distinct value count is then known without a set of all values.
+ *
+ * @author Jens Wilke
+ * @see CompactTraceReader
+ */
+public class CompactTraceWriter implements Closeable {
+
+  /** File extension of the compact trace format */
+  public static final String EXTENSION = ".trcz";
+
+  static final int MAGIC = 0x43324b54;
+  static final int VERSION = 1;
+  static final int FLAG_DENSE_KEYS = 1;
+  static final int HEADER_SIZE = 48;
+  static final int INDEX_ENTRY_SIZE = 16;
+  public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  private final RandomAccessFile file;
+  private final FileChannel out;
+  private final boolean denseKeys;
+  private final int blockSize;
+  /** Number of dense ids, the next new id */
+  private int idCount = 0;
+  /** Distinct values that are not dense ids, all values or only the negative ones */
+  private final IntOpenHashSet values = new IntOpenHashSet();
+  private final Deflater deflater = new Deflater();
+
+  private final int[] block;
+  private int blockLength = 0;
+  private byte[] raw;
+  private byte[] compressed;
+  private ByteBuffer index = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 64);
+
+  private long length = 0;
+  private int lowValue = Integer.MAX_VALUE;
+  private int highValue = Integer.MIN_VALUE;
+  private int blockCount = 0;
+  private long position = HEADER_SIZE;
+
+  public CompactTraceWriter(File f, boolean _denseKeys) throws IOException {
+    this(f, _denseKeys, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * @param _denseKeys the non-negative values added are dense ids, see
+   *                   {@link Patterns#dense(AccessPattern)}
+   * @param _blockSize number of values per block
+   */
+  public CompactTraceWriter(File f, boolean _denseKeys, int _blockSize) throws IOException {
+    if (_blockSize <= 0) {
+      throw new IllegalArgumentException("block size must be greater 0");
+    }
+    denseKeys = _denseKeys;
+    blockSize = _blockSize;
+    block = new int[_blockSize];
+    raw = new byte[_blockSize * 5];
+    compressed = new byte[raw.length + raw.length / 100 + 64];
+    file = new RandomAccessFile(f, "rw");
+    file.setLength(0);
+    out = file.getChannel();
+    out.position(HEADER_SIZE);
+  }
+
+  /**
+   * Append the next value of the trace.
+   *
+   * @throws IllegalArgumentException if the writer is for dense ids and the value
+   *         is neither a known id nor the next one
+   */
+  public void add(int v) throws IOException {
+    if (denseKeys && v >= 0) {
+      if (v > idCount) {
+        throw new IllegalArgumentException("Value is not a dense id: " + v + ", next id: " + idCount);
+      }
+      if (v == idCount) {
+        idCount++;
+      }
+    } else {
+      values.add(v);
+    }
+    if (v < lowValue) {
+      lowValue = v;
+    }
+    if (v > highValue) {
+      highValue = v;
+    }
+    block[blockLength++] = v;
+    length++;
+    if (blockLength == blockSize) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * Append all values of the pattern and close it.
+   */
+  public void addAll(AccessPattern p) throws Exception {
+    try {
+      while (p.hasNext()) {
+        add(p.next());
+      }
+    } finally {
+      p.close();
+    }
+  }
+
+  /**
+   * Number of values added so far.
+   */
+  public long getLength() {
+    return length;
+  }
+
+  private void writeBlock() throws IOException {
+    int _rawLength = 0;
+    int _previous = 0;
+    for (int i = 0; i < blockLength; i++) {
+      int v = block[i];
+      int _zigzag = ((v - _previous) << 1) ^ ((v - _previous) >> 31);
+      _previous = v;
+      while ((_zigzag & ~0x7f) != 0) {
+        raw[_rawLength++] = (byte) ((_zigzag & 0x7f) | 0x80);
+        _zigzag >>>= 7;
+      }
+      raw[_rawLength++] = (byte) _zigzag;
+    }
+    deflater.reset();
+    deflater.setInput(raw, 0, _rawLength);
+    deflater.finish();
+    int _compressedLength = 0;
+    while (!deflater.finished()) {
+      if (_compressedLength == compressed.length) {
+        byte[] ba = new byte[compressed.length * 2];
+        System.arraycopy(compressed, 0, ba, 0, _compressedLength);
+        compressed = ba;
+      }
+      _compressedLength += deflater.deflate(compressed, _compressedLength, compressed.length - _compressedLength);
+    }
+    AccessTrace.writeFully(out, ByteBuffer.wrap(compressed, 0, _compressedLength));
+    if (index.remaining() < INDEX_ENTRY_SIZE) {
+      ByteBuffer _index = ByteBuffer.allocate(index.capacity() * 2);
+      index.flip();
+      _index.put(index);
+      index = _index;
+    }
+    index.putLong(position).putInt(_compressedLength).putInt(_rawLength);
+    position += _compressedLength;
+    blockCount++;
+    blockLength = 0;
+  }
+
+  /**
+   * Write the last block, the block index and the header.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (blockLength > 0) {
+        writeBlock();
+      }
+      index.flip();
+      AccessTrace.writeFully(out, index);
+      ByteBuffer _header = ByteBuffer.allocate(HEADER_SIZE);
+      _header.order(ByteOrder.BIG_ENDIAN);
+      _header
+        .putInt(MAGIC)
+        .putInt(VERSION)
+        .putInt(denseKeys ? FLAG_DENSE_KEYS : 0)
+        .putInt(blockSize)
+        .putLong(length)
+        .putInt(idCount + values.size())
+        .putInt(length == 0 ? 0 : lowValue)
+        .putInt(length == 0 ? 0 : highValue)
+        .putInt(blockCount)
+        .putLong(position);
+      _header.flip();
+      out.position(0);
+      AccessTrace.writeFully(out, _header);
+    } finally {
+      deflater.end();
+      file.close();
+    }
+  }
+
+  /**
+   * Convert a trace in the binary trace format into the compact trace format.
+   * The input may be compressed with gzip or bzip2, this is detected by the
+   * file extension. The trace is converted as a stream.
+   *
+   * @param _denseKeys replace the values by dense ids, see {@link Patterns#dense(AccessPattern)}
+   * @return number of values converted
+   * @see AccessTrace#AccessTrace(File)
+   */
+  public static long convert(File _input, File _output, boolean _denseKeys) throws Exception {
+    CompactTraceWriter w = new CompactTraceWriter(_output, _denseKeys);
+    try {
+      AccessPattern p = openBinaryTrace(_input);
+      w.addAll(_denseKeys ? Patterns.dense(p) : p);
+    } finally {
+      w.close();
+    }
+    return w.getLength();
+  }
+
+  /**
+   * Read a trace file in the binary trace format as stream. Files ending with
+   * {@code .gz} or {@code .bz2} are decompressed.
+   */
+  public static AccessPattern openBinaryTrace(File f) throws IOException {
+    return openBinaryTrace(TraceConverter.decompress(new FileInputStream(f), f.getName()));
+  }
+
+  /**
+   * Read the stream in the binary trace format, the stream is closed with the pattern.
+   */
+  public static AccessPattern openBinaryTrace(InputStream in) {
+    final DataInputStream _data = new DataInputStream(new BufferedInputStream(in));
+    return new AccessPattern() {
+      int next;
+      boolean available;
+
+      @Override
+      public boolean isEternal() {
+        return false;
+      }
+
+      @Override
+      public boolean hasNext() throws Exception {
+        if (!available) {
+          try {
+            next = _data.readInt();
+            available = true;
+          } catch (EOFException ex) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public int next() throws Exception {
+        hasNext();
+        available = false;
+        return next;
+      }
+
+      @Override
+      public void close() throws Exception {
+        _data.close();
+      }
+    };
+  }
+
+}
@@ -24,8 +24,6 @@ package org.cache2k.benchmark.util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.nio.charset.Charset;
 
 /**
@@ -35,14 +33,14 @@ import java.nio.charset.Charset;
  */
 public class IntegerTraceReader extends AccessPattern {
 
-  LineNumberReader reader;
+  LineScanner reader;
   int value;
 
   /**
    * Read in, default charset.
    */
   public IntegerTraceReader(InputStream in, Charset cs) {
-    reader = new LineNumberReader(new InputStreamReader(in, cs));
+    reader = new LineScanner(in, cs);
   }
 
   @Override
@@ -52,17 +50,15 @@ public class IntegerTraceReader extends AccessPattern {
 
   @Override
   public boolean hasNext() throws Exception {
-    String s;
     do {
-      s = reader.readLine();
-      if (s == null) {
+      if (!reader.nextLine()) {
         return false;
       }
-    } while (s.startsWith("#") || s.trim().length() == 0);
+    } while (reader.startsWith('#') || reader.isBlank());
     try {
-      value = Integer.parseInt(s);
+      value = reader.parseInt(0, reader.getLineLength());
     } catch(NumberFormatException e) {
-      System.err.println("parse error line " + reader.getLineNumber() + ": " + s);
+      System.err.println("parse error line " + reader.getLineNumber() + ": " + reader.getLine());
       return hasNext();
     }
     return true;
@@ -0,0 +1,323 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads lines of a text trace as bytes, within a reusable buffer. In contrast to
+ * {@link java.io.LineNumberReader#readLine()} no string is created per line and
+ * numbers are parsed directly from the bytes, so reading a trace does not allocate.
+ * Lines are terminated like for {@code readLine()}, by a line feed, a carriage
+ * return or both. The buffer grows for lines longer than the buffer.
+ *
+ * <p>Positions passed to the methods are relative to the start of the current line.
+ * The bytes are interpreted as ASCII, so the charset of the input needs to encode
+ * ASCII characters as single bytes, see {@link #checkCharset(Charset)}. This holds
+ * for UTF-8 and the ISO-8859 charsets.
+ *
+ * @author Jens Wilke
+ */
+public class LineScanner implements Closeable {
+
+  static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+  static final String ASCII_SAMPLE = "#,.+- 0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ\r\n\t";
+
+  private final InputStream in;
+  private final Charset charset;
+  private byte[] buffer;
+  private int position = 0;
+  private int limit = 0;
+  private boolean endOfInput = false;
+  private boolean skipLineFeed = false;
+  private int lineStart = 0;
+  private int lineEnd = 0;
+  private int lineNumber = 0;
+
+  public LineScanner(InputStream in, Charset cs) {
+    this(in, cs, DEFAULT_BUFFER_SIZE);
+  }
+
+  LineScanner(InputStream in, Charset cs, int _bufferSize) {
+    checkCharset(cs);
+    this.in = in;
+    charset = cs;
+    buffer = new byte[_bufferSize];
+  }
+
+  /**
+   * @throws IllegalArgumentException if the charset does not encode ASCII
+   *         characters as a single byte with the same value
+   */
+  public static void checkCharset(Charset cs) {
+    if (!Arrays.equals(ASCII_SAMPLE.getBytes(cs), ASCII_SAMPLE.getBytes(Charset.forName("US-ASCII")))) {
+      throw new IllegalArgumentException("Charset is not ASCII compatible: " + cs);
+    }
+  }
+
+  /**
+   * Move to the next line.
+   *
+   * @return false at the end of the input
+   */
+  public boolean nextLine() throws IOException {
+    if (skipLineFeed) {
+      if (position == limit) {
+        fill();
+      }
+      if (position < limit && buffer[position] == '\n') {
+        position++;
+      }
+      skipLineFeed = false;
+    }
+    int _scan = position;
+    while (true) {
+      byte[] ba = buffer;
+      for (int i = _scan; i < limit; i++) {
+        byte b = ba[i];
+        if (b == '\n' || b == '\r') {
+          lineStart = position;
+          lineEnd = i;
+          position = i + 1;
+          if (b == '\r') {
+            if (position < limit) {
+              if (ba[position] == '\n') {
+                position++;
+              }
+            } else {
+              skipLineFeed = true;
+            }
+          }
+          lineNumber++;
+          return true;
+        }
+      }
+      if (endOfInput) {
+        if (position == limit) {
+          return false;
+        }
+        lineStart = position;
+        lineEnd = limit;
+        position = limit;
+        lineNumber++;
+        return true;
+      }
+      int _scanned = limit - position;
+      fill();
+      _scan = position + _scanned;
+    }
+  }
+
+  /**
+   * Keep the unread bytes, move them to the start of the buffer and read more.
+   */
+  private void fill() throws IOException {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int n = in.read(buffer, limit, buffer.length - limit);
+    if (n < 0) {
+      endOfInput = true;
+    } else {
+      limit += n;
+    }
+  }
+
+  /**
+   * Number of the current line, starting at 1.
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  public int getLineLength() {
+    return lineEnd - lineStart;
+  }
+
+  public byte byteAt(int _index) {
+    return buffer[lineStart + _index];
+  }
+
+  public boolean startsWith(char c) {
+    return lineEnd > lineStart && buffer[lineStart] == c;
+  }
+
+  /**
+   * True if the line only contains characters {@code String.trim()} would remove.
+   */
+  public boolean isBlank() {
+    for (int i = lineStart; i < lineEnd; i++) {
+      if ((buffer[i] & 0xff) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Position of the character in the line, starting the search at {@code _from}.
+   *
+   * @return the position or -1 if the line does not contain the character
+   */
+  public int indexOf(char c, int _from) {
+    for (int i = lineStart + _from; i < lineEnd; i++) {
+      if (buffer[i] == c) {
+        return i - lineStart;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Parse the characters from {@code _from} to {@code _to} of the line, with the
+   * same rules as {@link Integer#parseInt(String, int)} for ASCII input.
+   *
+   * @throws NumberFormatException if the characters are not a number of the radix
+   */
+  public int parseInt(int _from, int _to, int _radix) {
+    int i = lineStart + _from;
+    int _end = lineStart + _to;
+    if (i >= _end) {
+      throw new NumberFormatException("empty number in line " + lineNumber);
+    }
+    boolean _negative = false;
+    int _limit = -Integer.MAX_VALUE;
+    byte _first = buffer[i];
+    if (_first == '-' || _first == '+') {
+      if (_first == '-') {
+        _negative = true;
+        _limit = Integer.MIN_VALUE;
+      }
+      i++;
+      if (i == _end) {
+        throw numberFormatException(_from, _to);
+      }
+    }
+    int _multiplyLimit = _limit / _radix;
+    int _result = 0;
+    while (i < _end) {
+      int _digit = digit(buffer[i++], _radix);
+      if (_digit < 0 || _result < _multiplyLimit) {
+        throw numberFormatException(_from, _to);
+      }
+      _result *= _radix;
+      if (_result < _limit + _digit) {
+        throw numberFormatException(_from, _to);
+      }
+      _result -= _digit;
+    }
+    return _negative ? _result : -_result;
+  }
+
+  public int parseInt(int _from, int _to) {
+    return parseInt(_from, _to, 10);
+  }
+
+  private static int digit(byte b, int _radix) {
+    int d;
+    if (b >= '0' && b <= '9') {
+      d = b - '0';
+    } else if (b >= 'a' && b <= 'z') {
+      d = b - 'a' + 10;
+    } else if (b >= 'A' && b <= 'Z') {
+      d = b - 'A' + 10;
+    } else {
+      return -1;
+    }
+    return d < _radix ? d : -1;
+  }
+
+  private NumberFormatException numberFormatException(int _from, int _to) {
+    return new NumberFormatException(
+      "For input string: \"" + new String(buffer, lineStart + _from, _to - _from, charset) + "\"");
+  }
+
+  /**
+   * 64 bit hash of the bytes of the current line.
+   */
+  public long hash() {
+    return hash(buffer, lineStart, lineEnd);
+  }
+
+  /**
+   * FNV-1a over the bytes with a final avalanche step, so the lower bits can be
+   * used directly by hash tables.
+   */
+  static long hash(byte[] ba, int _from, int _to) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = _from; i < _to; i++) {
+      h ^= ba[i] & 0xff;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * True if the current line consists of exactly these bytes.
+   */
+  public boolean contentEquals(byte[] ba) {
+    if (ba.length != lineEnd - lineStart) {
+      return false;
+    }
+    for (int i = 0; i < ba.length; i++) {
+      if (ba[i] != buffer[lineStart + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copy of the bytes of the current line.
+   */
+  public byte[] getLineBytes() {
+    return Arrays.copyOfRange(buffer, lineStart, lineEnd);
+  }
+
+  /**
+   * The current line as string, only meant for error messages.
+   */
+  public String getLine() {
+    return new String(buffer, lineStart, lineEnd - lineStart, charset);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+}
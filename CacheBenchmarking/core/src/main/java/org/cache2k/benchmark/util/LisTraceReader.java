@@ -24,8 +24,6 @@ package org.cache2k.benchmark.util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.nio.charset.Charset;
 
 /**
@@ -33,7 +31,7 @@ import java.nio.charset.Charset;
  */
 public class LisTraceReader extends AccessPattern {
 
-  LineNumberReader reader;
+  LineScanner reader;
   int value;
   int count;
 
@@ -45,7 +43,7 @@ public class LisTraceReader extends AccessPattern {
   }
 
   public LisTraceReader(InputStream in, Charset cs) {
-    reader = new LineNumberReader(new InputStreamReader(in, cs));
+    reader = new LineScanner(in, cs);
   }
 
   @Override
@@ -56,19 +54,21 @@ public class LisTraceReader extends AccessPattern {
   @Override
   public boolean hasNext() throws Exception {
     if (--count > 0) { return true; }
-    String s;
     do {
-      s = reader.readLine();
-      if (s == null) {
+      if (!reader.nextLine()) {
         return false;
       }
-    } while (s.startsWith("#") || s.trim().length() == 0);
+    } while (reader.startsWith('#') || reader.isBlank());
     try {
-      String[] sa = s.split(" ");
-      value = Integer.parseInt(sa[0]);
-      count = Integer.parseInt(sa[1]);
+      int _space = reader.indexOf(' ', 0);
+      if (_space < 0) {
+        throw new NumberFormatException("count missing");
+      }
+      value = reader.parseInt(0, _space);
+      int _end = reader.indexOf(' ', _space + 1);
+      count = reader.parseInt(_space + 1, _end < 0 ? reader.getLineLength() : _end);
     } catch(NumberFormatException e) {
-      System.err.println("parse error line " + reader.getLineNumber() + ": " + s);
+      System.err.println("parse error line " + reader.getLineNumber() + ": " + reader.getLine());
       return hasNext();
     }
     return true;
@@ -0,0 +1,296 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Access trace that stays in its file. The file is mapped in chunks of
+ * {@link #CHUNK_SIZE} bytes, since a single mapping is limited to 2GB, and the
+ * values are read directly from the mapped memory. Only the pages that are
+ * accessed are loaded, and the operating system may drop them again, so a trace
+ * may be larger than the heap.
+ *
+ * <p>Random access via {@link #get(long)} and sequential access via {@link #read},
+ * {@link #newPattern()} and {@link #iterator()} do not copy the trace.
+ * {@link #getTrace()} copies it to the heap on first use, this is needed for the
+ * opt and random hit counts and the LRU miss ratio curve.
+ *
+ * @see AccessTrace#AccessTrace(File) for the file format
+ */
+public class MappedAccessTrace extends AccessTrace {
+
+  /**
+   * Bytes per mapped chunk. A multiple of four, so no value crosses a chunk.
+   */
+  static final int CHUNK_SIZE = 1 << 30;
+
+  private final MappedByteBuffer[] mapped;
+  private final IntBuffer[] chunks;
+  private final int chunkShift;
+  private final int chunkMask;
+  private final long length;
+  private volatile int[] trace;
+
+  /**
+   * Map the file with the given chunk size.
+   *
+   * @param _chunkSize bytes per chunk, a power of two and at least 4
+   */
+  MappedAccessTrace(File f, int _chunkSize) throws IOException {
+    if (_chunkSize < 4 || Integer.bitCount(_chunkSize) != 1) {
+      throw new IllegalArgumentException("chunk size must be a power of two, at least 4");
+    }
+    int _intsPerChunk = _chunkSize / 4;
+    chunkShift = Integer.numberOfTrailingZeros(_intsPerChunk);
+    chunkMask = _intsPerChunk - 1;
+    RandomAccessFile _file = new RandomAccessFile(f, "r");
+    try {
+      FileChannel in = _file.getChannel();
+      long _size = in.size();
+      if (_size % 4 != 0) {
+        throw new IOException("Trace file size is not a multiple of 4: " + f);
+      }
+      length = _size / 4;
+      mapped = new MappedByteBuffer[(int) ((_size + _chunkSize - 1) / _chunkSize)];
+      chunks = new IntBuffer[mapped.length];
+      for (int i = 0; i < mapped.length; i++) {
+        long _position = (long) i * _chunkSize;
+        mapped[i] =
+          in.map(FileChannel.MapMode.READ_ONLY, _position, Math.min(_chunkSize, _size - _position));
+        mapped[i].order(ByteOrder.BIG_ENDIAN);
+        chunks[i] = mapped[i].asIntBuffer();
+      }
+    } finally {
+      _file.close();
+    }
+  }
+
+  /**
+   * Map a trace file in the format read by {@link AccessTrace#AccessTrace(File)}.
+   * The mapping stays valid after the file is closed.
+   */
+  public static MappedAccessTrace map(File f) throws IOException {
+    return new MappedAccessTrace(f, CHUNK_SIZE);
+  }
+
+  /**
+   * Number of values in the trace. In contrast to {@link #getTraceLength()} this
+   * also works for traces with more than {@link Integer#MAX_VALUE} values.
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Value at the given position of the trace.
+   */
+  public int get(long _index) {
+    if (_index < 0 || _index >= length) {
+      throw new IndexOutOfBoundsException("index=" + _index + ", length=" + length);
+    }
+    return chunks[(int) (_index >>> chunkShift)].get((int) _index & chunkMask);
+  }
+
+  /**
+   * Copy the values starting at the trace position into the array. Reads
+   * less than {@code _count} values only at the end of the trace.
+   *
+   * @return number of values copied, or -1 if the position is at the end of the trace
+   */
+  public int read(long _position, int[] _target, int _offset, int _count) {
+    if (_position < 0 || _position > length) {
+      throw new IndexOutOfBoundsException("position=" + _position + ", length=" + length);
+    }
+    if (_position == length) {
+      return -1;
+    }
+    int _copied = 0;
+    while (_copied < _count && _position < length) {
+      IntBuffer _chunk = chunks[(int) (_position >>> chunkShift)].duplicate();
+      _chunk.position((int) _position & chunkMask);
+      int n = Math.min(_count - _copied, _chunk.remaining());
+      _chunk.get(_target, _offset + _copied, n);
+      _copied += n;
+      _position += n;
+    }
+    return _copied;
+  }
+
+  /**
+   * Copies the trace to the heap on first use.
+   *
+   * @throws IllegalStateException if the trace has more values than an array can hold
+   */
+  @Override
+  public synchronized int[] getTrace() {
+    if (trace == null) {
+      int[] _trace = new int[getTraceLength()];
+      read(0, _trace, 0, _trace.length);
+      trace = _trace;
+    }
+    return trace;
+  }
+
+  /**
+   * The mapped chunks are not on the heap, only the copy of {@link #getTrace()} counts.
+   */
+  @Override
+  public long getMemoryUsage() {
+    int[] _trace = trace;
+    return super.getMemoryUsage() + (_trace != null ? 4L * _trace.length : 0);
+  }
+
+  /**
+   * @throws IllegalStateException if the trace has more values than an int can count,
+   *                               use {@link #getLength()}
+   */
+  @Override
+  public int getTraceLength() {
+    if (length > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Trace too long, length=" + length);
+    }
+    return (int) length;
+  }
+
+  /**
+   * Write the mapped chunks to the file, the trace is not copied to the heap.
+   */
+  @Override
+  public void write(File f) throws IOException {
+    FileChannel out = new FileOutputStream(f).getChannel();
+    try {
+      for (MappedByteBuffer buf : mapped) {
+        ByteBuffer _source = buf.duplicate();
+        _source.clear();
+        writeFully(out, _source);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Digest the mapped chunks, the trace is not copied to the heap.
+   */
+  @Override
+  void updateDigest(MessageDigest _digest) {
+    for (MappedByteBuffer buf : mapped) {
+      ByteBuffer _source = buf.duplicate();
+      _source.clear();
+      _digest.update(_source);
+    }
+  }
+
+  @Override
+  public AccessPattern newPattern() {
+    return new AccessPattern() {
+      long idx = 0;
+
+      @Override
+      public boolean isEternal() {
+        return false;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return idx < length;
+      }
+
+      @Override
+      public int next() {
+        return chunks[(int) (idx >>> chunkShift)].get((int) idx++ & chunkMask);
+      }
+    };
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return new Iterator<Integer>() {
+      long idx = 0;
+
+      @Override
+      public boolean hasNext() {
+        return idx < length;
+      }
+
+      @Override
+      public Integer next() {
+        if (idx >= length) {
+          throw new NoSuchElementException();
+        }
+        return chunks[(int) (idx >>> chunkShift)].get((int) idx++ & chunkMask);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Statistics are calculated on the mapped chunks, the trace is not copied to the heap.
+   */
+  @Override
+  void initStatistics() {
+    IntSet _values = new IntOpenHashSet();
+    int _low = lowValue;
+    int _high = highValue;
+    for (IntBuffer _chunk : chunks) {
+      int _limit = _chunk.limit();
+      for (int i = 0; i < _limit; i++) {
+        int v = _chunk.get(i);
+        _values.add(v);
+        if (v < _low) {
+          _low = v;
+        }
+        if (v > _high) {
+          _high = v;
+        }
+      }
+    }
+    lowValue = _low;
+    highValue = _high;
+    valueCount = _values.size();
+  }
+
+  public String toString() {
+    return "MappedAccessTrace(length=" + length + ")";
+  }
+
+}
@@ -0,0 +1,147 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Hit and miss ratios of a trace for every cache size, derived from a histogram
+ * of stack distances. The counts are doubles, since a curve may also be an
+ * estimation from a sample of the trace.
+ *
+ * @see StackDistanceAnalyzer
+ */
+public class MissRatioCurve {
+
+  private double accessCount;
+
+  /**
+   * Hits for the cache size equal to the index. The hits for larger sizes are
+   * the same as for the last index.
+   */
+  private double[] size2hits;
+
+  /**
+   * @param _distanceHistogram count of accesses per stack distance, cold accesses are not included
+   * @param _accessCount all accesses including cold accesses
+   */
+  public MissRatioCurve(double[] _distanceHistogram, double _accessCount) {
+    accessCount = _accessCount;
+    size2hits = new double[_distanceHistogram.length + 1];
+    for (int i = 0; i < _distanceHistogram.length; i++) {
+      size2hits[i + 1] = size2hits[i] + _distanceHistogram[i];
+    }
+  }
+
+  /**
+   * Exact curve of the LRU replacement for the trace, calculated in one pass.
+   */
+  public static MissRatioCurve lru(int[] _trace) {
+    StackDistanceAnalyzer _analyzer = new StackDistanceAnalyzer(_trace.length);
+    double[] _histogram = new double[1024];
+    for (int v : _trace) {
+      int d = _analyzer.access(v);
+      if (d == StackDistanceAnalyzer.COLD) {
+        continue;
+      }
+      if (d >= _histogram.length) {
+        _histogram = grow(_histogram, d);
+      }
+      _histogram[d]++;
+    }
+    return new MissRatioCurve(trim(_histogram), _trace.length);
+  }
+
+  static double[] grow(double[] _histogram, int _index) {
+    double[] _grown = new double[Math.max(_histogram.length * 2, _index + 1)];
+    System.arraycopy(_histogram, 0, _grown, 0, _histogram.length);
+    return _grown;
+  }
+
+  static double[] trim(double[] _histogram) {
+    int _length = _histogram.length;
+    while (_length > 0 && _histogram[_length - 1] == 0) {
+      _length--;
+    }
+    double[] _trimmed = new double[_length];
+    System.arraycopy(_histogram, 0, _trimmed, 0, _length);
+    return _trimmed;
+  }
+
+  public double getAccessCount() {
+    return accessCount;
+  }
+
+  /**
+   * The smallest cache size that reaches the maximum hit count. Beyond that size
+   * only cold misses remain.
+   */
+  public int getMaxSize() {
+    return size2hits.length - 1;
+  }
+
+  public double getHitCount(int _size) {
+    if (_size < 0) {
+      throw new IllegalArgumentException("size must not be negative");
+    }
+    return size2hits[Math.min(_size, size2hits.length - 1)];
+  }
+
+  /** Hit ratio from 0 to 1 */
+  public double getHitRatio(int _size) {
+    if (accessCount == 0) {
+      throw new IllegalStateException("empty trace");
+    }
+    return getHitCount(_size) / accessCount;
+  }
+
+  /** Miss ratio from 0 to 1 */
+  public double getMissRatio(int _size) {
+    return 1 - getHitRatio(_size);
+  }
+
+  /**
+   * Mean absolute difference of the miss ratios of this and the reference curve,
+   * for all cache sizes from 1 to the maximum size of the reference curve.
+   */
+  public double getMeanAbsoluteError(MissRatioCurve _reference) {
+    int _maxSize = Math.max(1, _reference.getMaxSize());
+    double _sum = 0;
+    for (int i = 1; i <= _maxSize; i++) {
+      _sum += Math.abs(getMissRatio(i) - _reference.getMissRatio(i));
+    }
+    return _sum / _maxSize;
+  }
+
+  /**
+   * Maximum absolute difference of the miss ratios of this and the reference curve,
+   * for all cache sizes from 1 to the maximum size of the reference curve.
+   */
+  public double getMaxAbsoluteError(MissRatioCurve _reference) {
+    int _maxSize = Math.max(1, _reference.getMaxSize());
+    double _max = 0;
+    for (int i = 1; i <= _maxSize; i++) {
+      _max = Math.max(_max, Math.abs(getMissRatio(i) - _reference.getMissRatio(i)));
+    }
+    return _max;
+  }
+
+}
@@ -0,0 +1,185 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads in a file line by line and maps all distinct line contents to an
+ * integer value. The line content can be anything. Values are assigned in the
+ * order of the first occurrence, starting at 0.
+ *
+ * <p>The trace is streamed, each line is mapped when it is read. Only a 64 bit hash
+ * of the line is kept per distinct line, so logs with more distinct keys than fit
+ * into memory as strings can be read. Two lines with the same hash would get the same
+ * value, with a probability of about {@code n^2 / 2^65} for n distinct lines. With
+ * verification enabled the line contents are kept and lines with colliding hashes
+ * get distinct values.
+ *
+ * @author Jens Wilke; created: 2013-11-15
+ */
+public class NormalizeTraceReader extends AccessPattern {
+
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+  static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+  int value = 0;
+  int current;
+  LineScanner scanner;
+  LineNumberReader reader;
+  Long2IntOpenHashMap mapping = new Long2IntOpenHashMap();
+  boolean verify;
+  /** Line content per value, only with verification */
+  ArrayList<byte[]> keys;
+  /** Lines whose hash is taken by another line, only with verification */
+  Map<String, Integer> collisions;
+
+  public NormalizeTraceReader(InputStream s, Charset cs) {
+    this(s, cs, false);
+  }
+
+  /**
+   * @param _verify keep the line contents and map lines with colliding hashes
+   *                to different values
+   */
+  public NormalizeTraceReader(InputStream s, Charset cs, boolean _verify) {
+    this(_verify);
+    scanner = new LineScanner(s, cs);
+  }
+
+  /**
+   * Read from a reader, lines are hashed in the UTF-8 encoding.
+   */
+  public NormalizeTraceReader(LineNumberReader r) {
+    this(false);
+    reader = r;
+  }
+
+  public NormalizeTraceReader(File f, Charset cs) throws IOException {
+    this(new FileInputStream(f), cs);
+  }
+
+  private NormalizeTraceReader(boolean _verify) {
+    mapping.defaultReturnValue(-1);
+    verify = _verify;
+    if (verify) {
+      keys = new ArrayList<>();
+      collisions = new HashMap<>();
+    }
+  }
+
+  @Override
+  public boolean isEternal() {
+    return false;
+  }
+
+  @Override
+  public boolean hasNext() throws Exception {
+    if (scanner != null) {
+      if (!scanner.nextLine()) {
+        close();
+        return false;
+      }
+      long _hash = scanner.hash();
+      current = mapping.get(_hash);
+      if (current < 0) {
+        current = add(_hash, verify ? scanner.getLineBytes() : null);
+      } else if (verify && !scanner.contentEquals(keys.get(current))) {
+        current = collision(scanner.getLineBytes());
+      }
+      return true;
+    }
+    String s = reader.readLine();
+    if (s == null) {
+      close();
+      return false;
+    }
+    byte[] _line = s.getBytes(UTF_8);
+    long _hash = LineScanner.hash(_line, 0, _line.length);
+    current = mapping.get(_hash);
+    if (current < 0) {
+      current = add(_hash, _line);
+    } else if (verify && !Arrays.equals(_line, keys.get(current))) {
+      current = collision(_line);
+    }
+    return true;
+  }
+
+  private int add(long _hash, byte[] _line) {
+    int v = value++;
+    mapping.put(_hash, v);
+    if (verify) {
+      keys.add(_line);
+    }
+    return v;
+  }
+
+  /**
+   * The hash of the line is already mapped to a different line, map by
+   * the line content.
+   */
+  private int collision(byte[] _line) {
+    String _key = new String(_line, ISO_8859_1);
+    Integer v = collisions.get(_key);
+    if (v == null) {
+      v = value++;
+      collisions.put(_key, v);
+      keys.add(_line);
+    }
+    return v;
+  }
+
+  @Override
+  public int next() throws Exception {
+    return current;
+  }
+
+  /**
+   * Number of distinct lines read so far.
+   */
+  public int getValueCount() {
+    return value;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (scanner != null) {
+      scanner.close();
+    } else {
+      reader.close();
+    }
+  }
+
+}
@@ -0,0 +1,202 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Process a trace to calculate the percentage for the optimum
+ * replacement strategy according to the Belady algorithm. The idea
+ * is, that whenever a cache eviction is done, the element is chosen which
+ * use is longest ahead or with no more use at all.
+ *
+ * <p/>The algorithm is quite fast. The position of the next occurrence of
+ * every trace entry is computed upfront in a single backward sweep, see
+ * {@link #nextOccurrences(int[])}. The cache content is held in a binary
+ * max heap keyed by the next position of each value, so the eviction
+ * candidate is always at the root. The overall runtime is O(n log size).
+ *
+ * @author Jens Wilke; created: 2013-10-16
+ */
+public class OptimumReplacementCalculation {
+
+  private int size;
+  private int hit;
+  private int[] next;
+
+  /**
+   * Binary max heap with the next position of each value currently in the cache.
+   * The heap holds the cache content, the value itself is not needed.
+   */
+  private int[] heap;
+  private int heapSize = 0;
+
+  /**
+   * Index of a position within the heap or -1 if the position is not in
+   * the heap. Only positions within the trace are tracked, positions
+   * beyond the trace end mean there is no next occurrence.
+   */
+  private int[] pos2heapIndex;
+
+  /**
+   * @throws IllegalArgumentException if the size is not greater 0
+   */
+  public OptimumReplacementCalculation(int _size, int[] _trace) {
+    this(_size);
+    calculate(nextOccurrences(_trace));
+  }
+
+  private OptimumReplacementCalculation(int _size) {
+    if (_size <= 0) {
+      throw new IllegalArgumentException("size must be greater 0");
+    }
+    size = _size;
+  }
+
+  /**
+   * Calculate with a precomputed next occurrence index. The index is only read,
+   * so it may be shared by calculations for different cache sizes.
+   *
+   * @see #nextOccurrences(int[])
+   */
+  public static OptimumReplacementCalculation ofNextOccurrences(int _size, int[] _nextOccurrences) {
+    OptimumReplacementCalculation c = new OptimumReplacementCalculation(_size);
+    c.calculate(_nextOccurrences);
+    return c;
+  }
+
+  private void calculate(int[] _nextOccurrences) {
+    next = _nextOccurrences;
+    heap = new int[Math.min(size, next.length)];
+    pos2heapIndex = new int[next.length];
+    Arrays.fill(pos2heapIndex, -1);
+    for (int _step = 0; _step < next.length; _step++) {
+      step(_step);
+    }
+    next = null;
+    heap = null;
+    pos2heapIndex = null;
+  }
+
+  /**
+   * For each position in the trace, calculate the position of the next access
+   * to the same value. If the value is not accessed again, the position is
+   * {@code trace.length + i}, which is beyond the trace end and unique. For traces
+   * longer than 2^30 this would overflow, positions that do not fit are
+   * {@code Integer.MAX_VALUE} instead. This is still beyond the trace end, values
+   * that are not accessed again don't need to be distinguished for the hit count.
+   */
+  public static int[] nextOccurrences(int[] _trace) {
+    int[] _next = new int[_trace.length];
+    Int2IntMap _value2pos = new Int2IntOpenHashMap();
+    _value2pos.defaultReturnValue(-1);
+    for (int i = _trace.length - 1; i >= 0; i--) {
+      int _pos = _value2pos.put(_trace[i], i);
+      _next[i] = _pos >= 0 ? _pos : beyondEnd(_trace.length, i);
+    }
+    return _next;
+  }
+
+  static int beyondEnd(int _length, int _position) {
+    return (int) Math.min((long) _length + _position, Integer.MAX_VALUE);
+  }
+
+  void step(int _step) {
+    int _nextPos = next[_step];
+    int idx = pos2heapIndex[_step];
+    if (idx >= 0) {
+      hit++;
+      pos2heapIndex[_step] = -1;
+      heap[idx] = _nextPos;
+      track(idx);
+      siftUp(idx);
+      return;
+    }
+    if (heapSize == size) {
+      untrack(heap[0]);
+      heap[0] = _nextPos;
+      track(0);
+      siftDown(0);
+      return;
+    }
+    heap[heapSize] = _nextPos;
+    track(heapSize);
+    siftUp(heapSize++);
+  }
+
+  private void track(int idx) {
+    int _pos = heap[idx];
+    if (_pos < pos2heapIndex.length) {
+      pos2heapIndex[_pos] = idx;
+    }
+  }
+
+  private void untrack(int _pos) {
+    if (_pos < pos2heapIndex.length) {
+      pos2heapIndex[_pos] = -1;
+    }
+  }
+
+  private void siftUp(int idx) {
+    int _pos = heap[idx];
+    while (idx > 0) {
+      int _parent = (idx - 1) >>> 1;
+      if (heap[_parent] >= _pos) {
+        break;
+      }
+      heap[idx] = heap[_parent];
+      track(idx);
+      idx = _parent;
+    }
+    heap[idx] = _pos;
+    track(idx);
+  }
+
+  private void siftDown(int idx) {
+    int _pos = heap[idx];
+    int _half = heapSize >>> 1;
+    while (idx < _half) {
+      int _child = (idx << 1) + 1;
+      int _right = _child + 1;
+      if (_right < heapSize && heap[_right] > heap[_child]) {
+        _child = _right;
+      }
+      if (_pos >= heap[_child]) {
+        break;
+      }
+      heap[idx] = heap[_child];
+      track(idx);
+      idx = _child;
+    }
+    heap[idx] = _pos;
+    track(idx);
+  }
+
+  public int getHitCount() {
+    return hit;
+  }
+
+}
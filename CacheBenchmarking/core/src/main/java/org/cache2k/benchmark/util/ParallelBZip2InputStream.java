@@ -0,0 +1,507 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decompresses a bzip2 stream with multiple threads. A bzip2 stream consists of
+ * blocks that are compressed independently. The blocks are not byte aligned, but
+ * each starts with a 48 bit magic number, and the stream ends with another one.
+ * The compressed data is read in chunks and scanned for the magic numbers on the
+ * reading thread. Every block is then copied into a bzip2 stream of its own and
+ * decompressed by {@link BZip2CompressorInputStream} on a thread pool. The
+ * decompressed blocks are returned in order, at most {@link #LOOKAHEAD_PER_THREAD}
+ * blocks per thread are decompressed in advance and only the compressed data of
+ * these blocks is kept, so memory stays bounded, regardless of the stream length.
+ *
+ * <p>Concatenated streams, as written by parallel bzip2 compressors, are supported.
+ * A magic number may appear by chance within the compressed data, the probability
+ * is about one in 2^48 per bit. The block would then be split and its CRC check
+ * fails. The block is then decompressed again on the reading thread, up to the
+ * next magic number, until it decompresses or gets longer than a bzip2 block
+ * can be. So the data is never silently corrupted.
+ *
+ * @author Jens Wilke
+ */
+public class ParallelBZip2InputStream extends InputStream {
+
+  static final long BLOCK_MAGIC = 0x314159265359L;
+  static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+  static final long MAGIC_MASK = (1L << 48) - 1;
+  static final int LOOKAHEAD_PER_THREAD = 2;
+  static final int READ_SIZE = 64 * 1024;
+
+  /**
+   * Upper bound of the compressed size of a block. A block holds at most 900k bytes,
+   * which never compress to much more than that.
+   */
+  static final long MAX_BLOCK_BITS = 2L * 1024 * 1024 * 8;
+
+  private final InputStream input;
+  private final ExecutorService executor;
+  private final ArrayDeque<Block> pending = new ArrayDeque<>();
+  private final int lookahead;
+  private boolean inputDone = false;
+
+  /** The compressed data, starting at byte {@link #bufferStart} of the stream */
+  private byte[] buffer = new byte[READ_SIZE * 4];
+  private long bufferStart = 0;
+  private int bufferLength = 0;
+
+  /** Number of bytes scanned for magic numbers */
+  private long scanned = 0;
+  private long scanBits = 0;
+
+  /** Magic numbers found within the buffer, see {@link #isBlock(long)} */
+  private final LongArrayList magics = new LongArrayList();
+
+  /** Start of the block the end is not yet found of, or -1 */
+  private long openBlock = -1;
+  private byte level;
+  private int blockCount = 0;
+
+  private byte[] current = new byte[0];
+  private int position = 0;
+
+  public ParallelBZip2InputStream(InputStream in) throws IOException {
+    this(in, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Decompress the stream in parallel if there is more than one processor. Splitting
+   * into blocks costs about a third of the decompression time, so with a single
+   * processor the stream is decompressed sequentially.
+   */
+  public static InputStream open(InputStream in) throws IOException {
+    if (Runtime.getRuntime().availableProcessors() == 1) {
+      return new BZip2CompressorInputStream(in);
+    }
+    return new ParallelBZip2InputStream(in);
+  }
+
+  /**
+   * Reads the stream header, the compressed stream is closed by {@link #close()}.
+   */
+  public ParallelBZip2InputStream(InputStream in, int _threads) throws IOException {
+    if (_threads <= 0) {
+      throw new IllegalArgumentException("threads must be greater 0");
+    }
+    input = in;
+    while (bufferLength < 4) {
+      int l = in.read(buffer, bufferLength, READ_SIZE);
+      if (l < 0) {
+        break;
+      }
+      bufferLength += l;
+    }
+    if (bufferLength < 4 || buffer[0] != 'B' || buffer[1] != 'Z' || buffer[2] != 'h') {
+      in.close();
+      throw new IOException("Not a bzip2 stream");
+    }
+    level = buffer[3];
+    lookahead = _threads * LOOKAHEAD_PER_THREAD;
+    executor = Executors.newFixedThreadPool(_threads, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, ParallelBZip2InputStream.class.getSimpleName());
+        t.setDaemon(true);
+        return t;
+      }
+    });
+  }
+
+  /**
+   * Scan the bytes not yet scanned, or read and scan the next chunk of the
+   * compressed stream.
+   */
+  private void readInput() throws IOException {
+    if (scanned == bufferStart + bufferLength) {
+      ensureCapacity(READ_SIZE);
+      int l = input.read(buffer, bufferLength, READ_SIZE);
+      if (l < 0) {
+        inputDone = true;
+        if (openBlock >= 0) {
+          throw new IOException("bzip2 stream is truncated");
+        }
+        return;
+      }
+      bufferLength += l;
+    }
+    scan();
+  }
+
+  /**
+   * Make room for more bytes in the buffer. The bytes before the oldest block that
+   * is not returned yet are dropped. Blocks being decompressed keep a reference to
+   * the buffer, so the data is copied to a new array and never modified in place.
+   */
+  private void ensureCapacity(int _count) {
+    if (bufferLength + _count <= buffer.length) {
+      return;
+    }
+    // keep the header of a stream, that may precede the next block magic
+    long _keepBit = scanned * 8 - 128;
+    if (openBlock >= 0) {
+      _keepBit = Math.min(_keepBit, openBlock);
+    }
+    if (!pending.isEmpty()) {
+      _keepBit = Math.min(_keepBit, pending.peekFirst().start);
+    }
+    long _keep = Math.max(bufferStart, _keepBit >> 3);
+    int _drop = (int) (_keep - bufferStart);
+    byte[] _buffer = new byte[Math.max(buffer.length, (bufferLength - _drop + _count) * 2)];
+    System.arraycopy(buffer, _drop, _buffer, 0, bufferLength - _drop);
+    buffer = _buffer;
+    bufferStart = _keep;
+    bufferLength -= _drop;
+    int _obsolete = 0;
+    while (_obsolete < magics.size() && bitPosition(magics.getLong(_obsolete)) < _keep * 8) {
+      _obsolete++;
+    }
+    magics.removeElements(0, _obsolete);
+  }
+
+  /**
+   * Scan the buffered bytes for the magic numbers.
+   */
+  private void scan() {
+    long _end = bufferStart + bufferLength;
+    for (; scanned < _end; scanned++) {
+      int b = buffer[(int) (scanned - bufferStart)] & 0xff;
+      for (int j = 7; j >= 0; j--) {
+        scanBits = (scanBits << 1) | ((b >>> j) & 1);
+        long _candidate = scanBits & MAGIC_MASK;
+        if (_candidate == BLOCK_MAGIC || _candidate == END_OF_STREAM_MAGIC) {
+          long _start = scanned * 8 + (7 - j) - 47;
+          if (_start >= 0) {
+            foundMagic(_start, _candidate == BLOCK_MAGIC);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * A magic number ends the open block and a block magic starts the next one.
+   */
+  void foundMagic(long _start, boolean _block) {
+    magics.add(_block ? (_start << 1) | 1 : _start << 1);
+    if (openBlock >= 0) {
+      submit(new Block(openBlock, _start, level));
+      openBlock = -1;
+    }
+    if (_block) {
+      level = streamLevel(_start, level);
+      openBlock = _start;
+    }
+  }
+
+  /**
+   * Magic numbers are recorded as bit position shifted left by one, the lowest
+   * bit is set for block starts.
+   */
+  private static boolean isBlock(long _magic) {
+    return (_magic & 1) != 0;
+  }
+
+  private static long bitPosition(long _magic) {
+    return _magic >>> 1;
+  }
+
+  /**
+   * The block size level of the stream, {@code '1'} to {@code '9'}. The first block of
+   * a concatenated stream directly follows a new stream header with its own level.
+   */
+  private byte streamLevel(long _blockStart, byte _level) {
+    if ((_blockStart & 7) != 0 || (_blockStart >>> 3) - 4 < bufferStart) {
+      return _level;
+    }
+    int _header = (int) ((_blockStart >>> 3) - 4 - bufferStart);
+    if (buffer[_header] == 'B' && buffer[_header + 1] == 'Z' && buffer[_header + 2] == 'h'
+      && buffer[_header + 3] >= '1' && buffer[_header + 3] <= '9') {
+      return buffer[_header + 3];
+    }
+    return _level;
+  }
+
+  /**
+   * Number of compressed blocks found so far, all blocks of the stream are found
+   * after it is read completely.
+   */
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  private void submit(final Block _block) {
+    final byte[] _data = buffer;
+    final long _dataStart = bufferStart * 8;
+    blockCount++;
+    _block.result = executor.submit(new Callable<byte[]>() {
+      @Override
+      public byte[] call() throws Exception {
+        return decompressBlock(_data, _dataStart, _block);
+      }
+    });
+    pending.add(_block);
+  }
+
+  /**
+   * Copy the block into a bzip2 stream of its own and decompress it. The stream
+   * holds a single block, so its combined CRC is the CRC of the block, which
+   * directly follows the block magic.
+   *
+   * @param _dataStart bit position of the data within the compressed stream
+   */
+  static byte[] decompressBlock(byte[] _data, long _dataStart, Block _block) throws IOException {
+    long _start = _block.start - _dataStart;
+    long _bitCount = _block.end - _block.start;
+    BitWriter w = new BitWriter((int) ((_bitCount + 7) / 8) + 16);
+    w.write('B', 8);
+    w.write('Z', 8);
+    w.write('h', 8);
+    w.write(_block.level, 8);
+    long i = 0;
+    for (; i + 8 <= _bitCount; i += 8) {
+      w.write(readBits(_data, _start + i, 8), 8);
+    }
+    if (i < _bitCount) {
+      int n = (int) (_bitCount - i);
+      w.write(readBits(_data, _start + i, n), n);
+    }
+    w.write((int) (END_OF_STREAM_MAGIC >>> 24), 24);
+    w.write((int) (END_OF_STREAM_MAGIC & 0xffffff), 24);
+    w.write(readBits(_data, _start + 48, 16), 16);
+    w.write(readBits(_data, _start + 64, 16), 16);
+    InputStream in = new BZip2CompressorInputStream(new ByteArrayInputStream(w.toByteArray()));
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024 * 1024);
+    byte[] ba = new byte[64 * 1024];
+    int l;
+    while ((l = in.read(ba)) > 0) {
+      out.write(ba, 0, l);
+    }
+    in.close();
+    return out.toByteArray();
+  }
+
+  /**
+   * Read up to 24 bits, starting at the bit position.
+   */
+  private static int readBits(byte[] _data, long _bitPosition, int _count) {
+    int _index = (int) (_bitPosition >>> 3);
+    int _word = 0;
+    for (int k = 0; k < 4; k++) {
+      _word = (_word << 8) | (_index + k < _data.length ? _data[_index + k] & 0xff : 0);
+    }
+    int _offset = (int) (_bitPosition & 7);
+    return (_word << _offset) >>> (32 - _count);
+  }
+
+  /**
+   * Move to the next decompressed block.
+   *
+   * @return false at the end of the stream
+   */
+  private boolean nextBlock() throws IOException {
+    while (position == current.length) {
+      while (pending.size() < lookahead && !inputDone) {
+        readInput();
+      }
+      Block _block = pending.peekFirst();
+      if (_block == null) {
+        return false;
+      }
+      try {
+        current = _block.result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while decompressing", e);
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof IOException || e.getCause() instanceof RuntimeException)) {
+          throw new IOException("Error decompressing bzip2 block", e.getCause());
+        }
+        current = decompressAgain(_block, e.getCause());
+      }
+      pending.pollFirst();
+      position = 0;
+    }
+    return true;
+  }
+
+  /**
+   * The block failed, maybe it is split by a magic number within the compressed
+   * data. Extend the block to the next magic number and decompress it on this
+   * thread, the blocks within the extended block are dropped.
+   *
+   * @param _block the first pending block, it is replaced by the extended block
+   */
+  private byte[] decompressAgain(Block _block, Throwable _cause) throws IOException {
+    for (;;) {
+      long _next = nextMagic(_block.end);
+      if (_next < 0 || _next - _block.start > MAX_BLOCK_BITS) {
+        throw new IOException("Error decompressing bzip2 block", _cause);
+      }
+      pending.pollFirst();
+      while (!pending.isEmpty() && pending.peekFirst().start < _next) {
+        pending.pollFirst().result.cancel(true);
+      }
+      _block = new Block(_block.start, _next, _block.level);
+      pending.addFirst(_block);
+      try {
+        return decompressBlock(buffer, bufferStart * 8, _block);
+      } catch (IOException | RuntimeException ignore) {
+        // extend further
+      }
+    }
+  }
+
+  /**
+   * The position of the first magic number after the bit position, reads more
+   * input if needed.
+   *
+   * @return the bit position or -1 at the end of the stream
+   */
+  private long nextMagic(long _after) throws IOException {
+    for (;;) {
+      for (int i = 0; i < magics.size(); i++) {
+        long _position = bitPosition(magics.getLong(i));
+        if (_position > _after) {
+          return _position;
+        }
+      }
+      if (inputDone) {
+        return -1;
+      }
+      readInput();
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextBlock()) {
+      return -1;
+    }
+    return current[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextBlock()) {
+      return -1;
+    }
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    pending.clear();
+    current = new byte[0];
+    position = 0;
+    input.close();
+  }
+
+  /**
+   * Bit range of a compressed block within the stream.
+   */
+  static class Block {
+
+    final long start;
+    final long end;
+    final byte level;
+    Future<byte[]> result;
+
+    Block(long _start, long _end, byte _level) {
+      this.start = _start;
+      this.end = _end;
+      this.level = _level;
+    }
+
+  }
+
+  static class BitWriter {
+
+    byte[] bytes;
+    int bitCount = 0;
+
+    BitWriter(int _capacity) {
+      bytes = new byte[_capacity];
+    }
+
+    /**
+     * Append the lowest {@code n} bits of the value, at most 24.
+     */
+    void write(int _value, int n) {
+      if (n == 8 && (bitCount & 7) == 0) {
+        int _index = bitCount >>> 3;
+        if (_index == bytes.length) {
+          bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[_index] = (byte) _value;
+        bitCount += 8;
+        return;
+      }
+      for (int i = n - 1; i >= 0; i--) {
+        int _index = bitCount >>> 3;
+        if (_index == bytes.length) {
+          bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        if (((_value >>> i) & 1) != 0) {
+          bytes[_index] |= 0x80 >>> (bitCount & 7);
+        }
+        bitCount++;
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, (bitCount + 7) >>> 3);
+    }
+
+  }
+
+}
@@ -22,6 +22,8 @@ package org.cache2k.benchmark.util;
  * #L%
  */
 
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
 import java.util.Random;
 
 /**
@@ -60,6 +62,47 @@ public class Patterns {
     return new Strip(p, _stripCount);
   }
 
+  /**
+   * Replace the non-negative values by ids from 0 to n-1 in the order of their
+   * first occurrence, negative values are kept. Hits and misses stay the same.
+   */
+  public static AccessPattern dense(AccessPattern p) {
+    return new Dense(p);
+  }
+
+  /**
+   * The values of the array, in order. The array is not copied.
+   */
+  public static AccessPattern of(int... _values) {
+    return new Values(_values);
+  }
+
+  static class Values extends AccessPattern {
+
+    final int[] values;
+    int pos = 0;
+
+    Values(int[] _values) {
+      values = _values;
+    }
+
+    @Override
+    public boolean isEternal() {
+      return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pos < values.length;
+    }
+
+    @Override
+    public int next() {
+      return values[pos++];
+    }
+
+  }
+
   public static class Sequence extends AccessPattern {
 
     int pos = 0;
@@ -510,6 +553,34 @@ public class Patterns {
 
   }
 
+  static class Dense extends PatternProxy {
+
+    Int2IntOpenHashMap key2id = new Int2IntOpenHashMap();
+
+    Dense(AccessPattern pattern) {
+      super(pattern);
+      key2id.defaultReturnValue(-1);
+    }
+
+    public int next() throws Exception {
+      int v = pattern.next();
+      if (v < 0) {
+        return v;
+      }
+      int id = key2id.get(v);
+      if (id < 0) {
+        id = key2id.size();
+        key2id.put(v, id);
+      }
+      return id;
+    }
+
+    public void close() throws Exception {
+      pattern.close();
+    }
+
+  }
+
   static class PatternProxy extends AccessPattern {
 
     AccessPattern pattern;
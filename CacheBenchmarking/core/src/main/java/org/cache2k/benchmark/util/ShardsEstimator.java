@@ -0,0 +1,197 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+
+/**
+ * Estimates the LRU miss ratio curve of a stream of accesses from a spatially hashed
+ * sample, following the SHARDS approach by Waldspurger et al. A value is sampled if its
+ * hash is below a threshold, so either all or no accesses of a value are in the sample.
+ * The stack distances within the sample are scaled up by the inverse sampling rate.
+ *
+ * <p/>The sampling either runs with a fixed rate, or with a fixed budget of distinct
+ * values. With a budget, the value with the highest hash is dropped from the sample
+ * whenever the budget is exceeded and the threshold, and with it the rate, is lowered
+ * accordingly. The memory needed is bounded by the budget, independent of the stream
+ * length and the distinct values in the stream.
+ *
+ * <p/>The accesses are consumed one by one, so a trace does not need to be in memory.
+ *
+ * @see #estimate(AccessPattern, ShardsEstimator)
+ */
+public class ShardsEstimator {
+
+  static final int MODULUS_BITS = 24;
+  static final int MODULUS = 1 << MODULUS_BITS;
+
+  private int threshold;
+  private int maxValues;
+  private StackDistanceAnalyzer analyzer;
+
+  /**
+   * Sampled values with the highest hash first. Every entry consists of the hash in
+   * the upper and the value in the lower 32 bits. Only used with a value budget.
+   */
+  private LongHeapPriorityQueue hash2value;
+
+  private double[] histogram = new double[1024];
+  private long accessCount;
+  private double sampledWeight;
+
+  private ShardsEstimator(double _rate, int _maxValues) {
+    if (_rate <= 0 || _rate > 1) {
+      throw new IllegalArgumentException("rate must be greater 0 and at most 1");
+    }
+    threshold = (int) Math.round(_rate * MODULUS);
+    maxValues = _maxValues;
+    analyzer = new StackDistanceAnalyzer();
+    if (_maxValues > 0) {
+      hash2value = new LongHeapPriorityQueue(new LongComparator() {
+        @Override
+        public int compare(long k1, long k2) {
+          return Long.compare(k2, k1);
+        }
+
+        @Override
+        public int compare(Long k1, Long k2) {
+          return compare(k1.longValue(), k2.longValue());
+        }
+      });
+    }
+  }
+
+  /**
+   * Sample with a fixed rate, e.g. 0.01 to sample 1% of the values.
+   */
+  public static ShardsEstimator fixedRate(double _rate) {
+    return new ShardsEstimator(_rate, 0);
+  }
+
+  /**
+   * Sample at most the given number of distinct values. The rate starts at 1 and
+   * is lowered as needed.
+   */
+  public static ShardsEstimator fixedSize(int _maxValues) {
+    if (_maxValues <= 0) {
+      throw new IllegalArgumentException("maxValues must be greater 0");
+    }
+    return new ShardsEstimator(1, _maxValues);
+  }
+
+  /**
+   * Read the pattern to the end and estimate its miss ratio curve.
+   */
+  public static MissRatioCurve estimate(AccessPattern p, ShardsEstimator e) throws Exception {
+    if (p.isEternal()) {
+      throw new IllegalArgumentException("Pattern is expected not to be eternal");
+    }
+    while (p.hasNext()) {
+      e.access(p.next());
+    }
+    p.close();
+    return e.getMissRatioCurve();
+  }
+
+  static int hash(int v) {
+    int h = v;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h & (MODULUS - 1);
+  }
+
+  public void access(int v) {
+    accessCount++;
+    int h = hash(v);
+    if (h >= threshold) {
+      return;
+    }
+    double _rate = getSamplingRate();
+    int d = analyzer.access(v);
+    sampledWeight += 1 / _rate;
+    if (d == StackDistanceAnalyzer.COLD) {
+      if (hash2value != null) {
+        hash2value.enqueue(((long) h << 32) | (v & 0xffffffffL));
+        if (analyzer.getValueCount() > maxValues) {
+          lowerThreshold();
+        }
+      }
+      return;
+    }
+    double _scaled = d / _rate;
+    if (_scaled >= histogram.length) {
+      histogram = MissRatioCurve.grow(histogram, (int) _scaled);
+    }
+    histogram[(int) _scaled] += 1 / _rate;
+  }
+
+  /**
+   * Drop the values with the highest hash from the sample, until the budget is met.
+   */
+  private void lowerThreshold() {
+    while (analyzer.getValueCount() > maxValues) {
+      long _first = hash2value.dequeueLong();
+      threshold = (int) (_first >>> 32);
+      analyzer.remove((int) _first);
+      while (!hash2value.isEmpty() && (int) (hash2value.firstLong() >>> 32) == threshold) {
+        analyzer.remove((int) hash2value.dequeueLong());
+      }
+    }
+  }
+
+  /**
+   * Current sampling rate, from 0 to 1.
+   */
+  public double getSamplingRate() {
+    return threshold * 1D / MODULUS;
+  }
+
+  public long getAccessCount() {
+    return accessCount;
+  }
+
+  /**
+   * Distinct values in the sample.
+   */
+  int getSampledValueCount() {
+    return analyzer.getValueCount();
+  }
+
+  /**
+   * Estimated curve of all accesses so far. The sample may contain slightly more or
+   * less accesses than expected from the rate. As proposed for SHARDS, the difference
+   * is accounted to the smallest stack distance, which reduces the error considerably.
+   */
+  public MissRatioCurve getMissRatioCurve() {
+    double[] _histogram = MissRatioCurve.trim(histogram);
+    if (_histogram.length > 0) {
+      _histogram[0] = Math.max(0, _histogram[0] + accessCount - sampledWeight);
+    }
+    return new MissRatioCurve(_histogram, accessCount);
+  }
+
+}
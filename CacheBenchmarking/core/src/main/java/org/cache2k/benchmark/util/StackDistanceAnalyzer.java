@@ -0,0 +1,149 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import java.util.Arrays;
+
+/**
+ * Calculates LRU stack distances of a stream of accesses, as described by Mattson et al.
+ * The stack distance of an access is the number of distinct other values accessed since
+ * the previous access of the same value. An access is a hit in an LRU cache of size
+ * {@code n} exactly when its stack distance is less than {@code n}.
+ *
+ * <p/>The time of the last access of every value is marked in a Fenwick tree, so
+ * counting the distinct values between two accesses is O(log n). The timestamps are
+ * renumbered when the tree is full, so the tree size is bounded by the number of
+ * distinct values and not by the stream length.
+ *
+ * @see MissRatioCurve
+ */
+public class StackDistanceAnalyzer {
+
+  /** Returned by {@link #access(int)} on the first access of a value. */
+  public static final int COLD = -1;
+
+  private Int2IntMap value2time = new Int2IntOpenHashMap();
+  private int[] tree;
+  private int time = 0;
+  private int valueCount = 0;
+
+  public StackDistanceAnalyzer() {
+    this(1024);
+  }
+
+  /**
+   * @param _initialCapacity initial number of timestamps, the tree grows on demand
+   */
+  public StackDistanceAnalyzer(int _initialCapacity) {
+    tree = new int[Math.max(16, _initialCapacity) + 1];
+    value2time.defaultReturnValue(-1);
+  }
+
+  /**
+   * Record an access and return its stack distance or {@link #COLD}.
+   */
+  public int access(int v) {
+    if (time == tree.length - 1) {
+      compact();
+    }
+    int _now = time++;
+    int _last = value2time.put(v, _now);
+    mark(_now, 1);
+    if (_last < 0) {
+      valueCount++;
+      return COLD;
+    }
+    mark(_last, -1);
+    return sum(_now - 1) - sum(_last);
+  }
+
+  /**
+   * Forget a value, as if it was never accessed. The next access will be
+   * {@link #COLD}.
+   */
+  public void remove(int v) {
+    int _last = value2time.remove(v);
+    if (_last >= 0) {
+      mark(_last, -1);
+      valueCount--;
+    }
+  }
+
+  /**
+   * Number of distinct values currently known.
+   */
+  public int getValueCount() {
+    return valueCount;
+  }
+
+  private void mark(int _time, int _delta) {
+    for (int i = _time + 1; i < tree.length; i += i & -i) {
+      tree[i] += _delta;
+    }
+  }
+
+  /**
+   * Count of marked timestamps from 0 to the given time, inclusive.
+   */
+  private int sum(int _time) {
+    int _sum = 0;
+    for (int i = _time + 1; i > 0; i -= i & -i) {
+      _sum += tree[i];
+    }
+    return _sum;
+  }
+
+  /**
+   * Renumber the timestamps of all known values to {@code 0 .. valueCount - 1}
+   * keeping their order, and rebuild the tree with room for at least as many new
+   * timestamps.
+   */
+  private void compact() {
+    long[] _timeAndValue = new long[valueCount];
+    int i = 0;
+    ObjectIterator<Int2IntMap.Entry> it = value2time.int2IntEntrySet().iterator();
+    while (it.hasNext()) {
+      Int2IntMap.Entry e = it.next();
+      _timeAndValue[i++] = ((long) e.getIntValue() << 32) | (e.getIntKey() & 0xffffffffL);
+    }
+    Arrays.sort(_timeAndValue);
+    int _capacity = Math.max(tree.length - 1, valueCount * 2);
+    tree = new int[_capacity + 1];
+    for (i = 0; i < valueCount; i++) {
+      value2time.put((int) _timeAndValue[i], i);
+      tree[i + 1] = 1;
+    }
+    for (i = 1; i < tree.length; i++) {
+      int _parent = i + (i & -i);
+      if (_parent < tree.length) {
+        tree[_parent] += tree[i];
+      }
+    }
+    time = valueCount;
+  }
+
+}
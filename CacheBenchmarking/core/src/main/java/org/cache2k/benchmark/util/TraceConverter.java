@@ -0,0 +1,244 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import com.google.common.io.CountingInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command line tool to convert a trace into the binary trace format read by
+ * {@link AccessTrace#AccessTrace(File)}, or into the compact trace format if the
+ * output file name ends with {@code .trcz}. An output file ending with {@code .gz} is
+ * compressed with gzip. Input files ending with {@code .gz} or {@code .bz2} are
+ * decompressed.
+ *
+ * <p>The trace is converted as a stream, so input and output may be larger than the
+ * available memory. With {@code -dense} the keys are replaced by ids from 0 to n-1,
+ * which needs memory for each distinct key.
+ *
+ * <pre>
+ * TraceConverter [-dense] [-verify] [-charset name] format input output
+ * </pre>
+ *
+ * The formats are:
+ * <dl>
+ *   <dt>umass</dt><dd>UMass SPC storage trace, see {@link UmassTraceReaderLbaOnly}</dd>
+ *   <dt>lis</dt><dd>value and repeat count per line, see {@link LisTraceReader}</dd>
+ *   <dt>base36</dt><dd>base 36 integer per line, see {@link Base36TraceReader}</dd>
+ *   <dt>integer</dt><dd>decimal integer per line, see {@link IntegerTraceReader}</dd>
+ *   <dt>normalize</dt><dd>any string per line, e.g. URLs, see {@link NormalizeTraceReader},
+ *     {@code -verify} maps colliding hashes correctly</dd>
+ *   <dt>binary</dt><dd>the binary trace format, e.g. to densify a trace</dd>
+ * </dl>
+ *
+ * @author Jens Wilke
+ */
+public class TraceConverter {
+
+  static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+  static final long PROGRESS_INTERVAL_MILLIS = 10 * 1000;
+  static final List<String> FORMATS = Arrays.asList("umass", "lis", "base36", "integer", "normalize", "binary");
+
+  static final String USAGE =
+    "Usage: TraceConverter [-dense] [-verify] [-charset name] format input output\n" +
+    "  format: umass, lis, base36, integer, normalize or binary\n" +
+    "  output: binary trace, compact trace if the name ends with " + CompactTraceWriter.EXTENSION +
+    ", gzip compressed if the name ends with .gz";
+
+  public static void main(String[] args) throws Exception {
+    boolean _dense = false;
+    boolean _verify = false;
+    Charset _charset = Charset.defaultCharset();
+    int i = 0;
+    for (; i < args.length && args[i].startsWith("-"); i++) {
+      if ("-dense".equals(args[i])) {
+        _dense = true;
+      } else if ("-verify".equals(args[i])) {
+        _verify = true;
+      } else if ("-charset".equals(args[i]) && i + 1 < args.length) {
+        _charset = Charset.forName(args[++i]);
+      } else {
+        usage("Unknown option: " + args[i]);
+        return;
+      }
+    }
+    if (args.length - i != 3) {
+      usage(null);
+      return;
+    }
+    String _format = args[i];
+    if (!FORMATS.contains(_format)) {
+      usage("Unknown trace format: " + _format);
+      return;
+    }
+    File _input = new File(args[i + 1]);
+    File _output = new File(args[i + 2]);
+    CountingInputStream _count = new CountingInputStream(new FileInputStream(_input));
+    AccessPattern p = openPattern(_format, decompress(_count, _input.getName()), _charset, _verify);
+    long t0 = System.currentTimeMillis();
+    long n = convert(p, _output, _dense, _count);
+    long t = Math.max(1, System.currentTimeMillis() - t0);
+    System.out.println(String.format(
+      "%s: %d values, %.1f MB read, %.1f MB written in %.1fs, %.0f values/s, %.1f MB/s",
+      _output, n, _count.getCount() / 1E6, _output.length() / 1E6, t / 1E3,
+      n * 1E3 / t, _count.getCount() / 1E3 / t));
+  }
+
+  static void usage(String _message) {
+    if (_message != null) {
+      System.err.println(_message);
+    }
+    System.err.println(USAGE);
+    System.exit(2);
+  }
+
+  /**
+   * Reader for the trace format.
+   *
+   * @throws IllegalArgumentException if the format is unknown
+   */
+  public static AccessPattern openPattern(String _format, InputStream in, Charset cs, boolean _verify) {
+    switch (_format) {
+      case "umass": return new UmassTraceReaderLbaOnly(in);
+      case "lis": return new LisTraceReader(in, cs);
+      case "base36": return new Base36TraceReader(in, cs);
+      case "integer": return new IntegerTraceReader(in, cs);
+      case "normalize": return new NormalizeTraceReader(in, cs, _verify);
+      case "binary": return CompactTraceWriter.openBinaryTrace(in);
+      default: throw new IllegalArgumentException("Unknown trace format: " + _format);
+    }
+  }
+
+  /**
+   * Decompress the input if the file name ends with {@code .gz} or {@code .bz2}.
+   */
+  public static InputStream decompress(InputStream in, String _fileName) throws IOException {
+    in = new BufferedInputStream(in);
+    if (_fileName.endsWith(".gz")) {
+      return new GZIPInputStream(in);
+    }
+    if (_fileName.endsWith(".bz2")) {
+      return ParallelBZip2InputStream.open(in);
+    }
+    return in;
+  }
+
+  /**
+   * Write the pattern to the file, in the compact trace format if the file name
+   * ends with {@value CompactTraceWriter#EXTENSION}, otherwise in the binary trace
+   * format. The pattern is closed.
+   *
+   * @param _dense replace the keys by ids, see {@link Patterns#dense(AccessPattern)}
+   * @param _progress input count for the progress report or {@code null}
+   * @return number of values written
+   */
+  public static long convert(AccessPattern p, File _output, boolean _dense, CountingInputStream _progress)
+    throws Exception {
+    long n = 0;
+    long t0 = System.currentTimeMillis();
+    long _nextReport = t0 + PROGRESS_INTERVAL_MILLIS;
+    boolean _compact = _output.getName().endsWith(CompactTraceWriter.EXTENSION);
+    if (_dense) {
+      p = Patterns.dense(p);
+    }
+    Closeable w = _compact ?
+      new CompactTraceWriter(_output, _dense) :
+      new BinaryWriter(_output, _output.getName().endsWith(".gz"));
+    try {
+      while (p.hasNext()) {
+        int v = p.next();
+        if (_compact) {
+          ((CompactTraceWriter) w).add(v);
+        } else {
+          ((BinaryWriter) w).add(v);
+        }
+        if ((++n & 0xfffff) == 0 && _progress != null && System.currentTimeMillis() >= _nextReport) {
+          long t = System.currentTimeMillis() - t0;
+          System.err.println(String.format("%d values, %.1f MB read, %.1f MB/s",
+            n, _progress.getCount() / 1E6, _progress.getCount() / 1E3 / t));
+          _nextReport += PROGRESS_INTERVAL_MILLIS;
+        }
+      }
+    } finally {
+      try {
+        p.close();
+      } finally {
+        w.close();
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Writes big endian integers through a reused buffer.
+   */
+  static class BinaryWriter implements Closeable {
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+    private int position = 0;
+
+    BinaryWriter(File f, boolean _gzip) throws IOException {
+      OutputStream os = new FileOutputStream(f);
+      out = _gzip ? new GZIPOutputStream(os, OUTPUT_BUFFER_SIZE) : os;
+    }
+
+    void add(int v) throws IOException {
+      if (position == buffer.length) {
+        out.write(buffer, 0, position);
+        position = 0;
+      }
+      byte[] ba = buffer;
+      int pos = position;
+      ba[pos] = (byte) (v >>> 24);
+      ba[pos + 1] = (byte) (v >>> 16);
+      ba[pos + 2] = (byte) (v >>> 8);
+      ba[pos + 3] = (byte) v;
+      position = pos + 4;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        out.write(buffer, 0, position);
+      } finally {
+        out.close();
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,273 @@
+package org.cache2k.benchmark.util;
+
+/*
+ * #%L
+ * util
+ * %%
+ * Copyright (C) 2013 - 2016 headissue GmbH, Munich
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import desmedt.frederik.cachebenchmarking.BenchmarkLog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the statistics and hit counts of traces in a properties file, so they are
+ * calculated only once and not in every run. The entries are keyed by the SHA-1 of
+ * the trace content, see {@link AccessTrace#getContentHash()}, which is the
+ * {@code sha1sum} of the uncompressed trace file. Stored are the value count, the
+ * lowest and highest value and the opt and random hit counts per cache size.
+ *
+ * <p>An attached trace reports newly calculated values to the store. The values are
+ * written together, {@link #WRITE_DELAY_MILLIS} after the first one that is not
+ * written yet, by {@link #flush()} or when the JVM exits. Before writing, the file is
+ * read again, so processes sharing the file add up their results. The file is
+ * replaced by renaming a temporary file. Errors writing the file are logged once and
+ * otherwise ignored, the values are recalculated in the next run.
+ *
+ * @author Jens Wilke
+ */
+public class TraceMetadataStore {
+
+  static final String VALUE_COUNT = "valueCount";
+  /** Version 1 was the initial value of the calculation instead of the lowest value */
+  static final String LOW_VALUE = "lowValue.v2";
+  static final String HIGH_VALUE = "highValue";
+  static final String OPT_PREFIX = "opt.";
+  /** Change the version if the calculation of the random hits changes */
+  static final String RANDOM_PREFIX = "random.v2.";
+
+  /** Time to collect further values before the file is written */
+  static final long WRITE_DELAY_MILLIS = 10 * 1000;
+
+  static final String TAG = TraceMetadataStore.class.getSimpleName();
+
+  private static final ScheduledExecutorService WRITER =
+    Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, TAG);
+        t.setDaemon(true);
+        return t;
+      }
+    });
+
+  private final File file;
+  private final Properties properties = new Properties();
+  /** Values that are not written yet */
+  private final Properties unwritten = new Properties();
+  private boolean writeScheduled = false;
+  private boolean shutdownHookAdded = false;
+  private long lastModified = 0;
+  private long lastLength = -1;
+  private boolean warned = false;
+
+  public TraceMetadataStore(File _file) {
+    file = _file;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Fill in the known statistics and hit counts of the trace and keep the ones
+   * calculated from now on.
+   */
+  public void attach(AccessTrace t) {
+    String _prefix = t.getContentHash() + ".";
+    synchronized (this) {
+      reload();
+      try {
+        String _valueCount = properties.getProperty(_prefix + VALUE_COUNT);
+        String _lowValue = properties.getProperty(_prefix + LOW_VALUE);
+        if (_valueCount != null && _lowValue != null && t.valueCount < 0) {
+          t.lowValue = Integer.parseInt(_lowValue);
+          t.highValue = Integer.parseInt(properties.getProperty(_prefix + HIGH_VALUE));
+          t.valueCount = Integer.parseInt(_valueCount);
+        }
+      } catch (NumberFormatException ex) {
+        warn("Ignoring invalid trace statistics in " + file + ": " + ex);
+      }
+      for (String _name : properties.stringPropertyNames()) {
+        if (!_name.startsWith(_prefix)) {
+          continue;
+        }
+        String _key = _name.substring(_prefix.length());
+        if (_key.startsWith(OPT_PREFIX) && t.size2opt != null) {
+          apply(t.size2opt, _key.substring(OPT_PREFIX.length()), properties.getProperty(_name));
+        } else if (_key.startsWith(RANDOM_PREFIX)) {
+          apply(t.size2random, _key.substring(RANDOM_PREFIX.length()), properties.getProperty(_name));
+        }
+      }
+    }
+    t.metadataStore = this;
+  }
+
+  private void apply(Map<Integer, Integer> _size2count, String _size, String _count) {
+    try {
+      Integer _key = Integer.valueOf(_size);
+      if (!_size2count.containsKey(_key)) {
+        _size2count.put(_key, Integer.valueOf(_count));
+      }
+    } catch (NumberFormatException ex) {
+      warn("Ignoring invalid hit count in " + file + ": " + ex);
+    }
+  }
+
+  /**
+   * Store the values of the trace, a write of the file is scheduled if there are new values.
+   */
+  synchronized void update(AccessTrace t) {
+    String _prefix = t.getContentHash() + ".";
+    Properties _values = new Properties();
+    if (t.valueCount >= 0) {
+      _values.setProperty(_prefix + VALUE_COUNT, Integer.toString(t.valueCount));
+      _values.setProperty(_prefix + LOW_VALUE, Integer.toString(t.lowValue));
+      _values.setProperty(_prefix + HIGH_VALUE, Integer.toString(t.highValue));
+    }
+    Map<Integer, Integer> _size2opt = t.size2opt;
+    if (_size2opt != null) {
+      for (Map.Entry<Integer, Integer> e : _size2opt.entrySet()) {
+        _values.setProperty(_prefix + OPT_PREFIX + e.getKey(), e.getValue().toString());
+      }
+    }
+    for (Map.Entry<Integer, Integer> e : t.size2random.entrySet()) {
+      _values.setProperty(_prefix + RANDOM_PREFIX + e.getKey(), e.getValue().toString());
+    }
+    for (String _name : _values.stringPropertyNames()) {
+      String v = _values.getProperty(_name);
+      if (!v.equals(properties.getProperty(_name))) {
+        properties.setProperty(_name, v);
+        unwritten.setProperty(_name, v);
+      }
+    }
+    if (!unwritten.isEmpty() && !writeScheduled) {
+      scheduleWrite();
+    }
+  }
+
+  private void scheduleWrite() {
+    writeScheduled = true;
+    if (!shutdownHookAdded) {
+      shutdownHookAdded = true;
+      Runtime.getRuntime().addShutdownHook(new Thread(TAG) {
+        @Override
+        public void run() {
+          flush();
+        }
+      });
+    }
+    WRITER.schedule(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Write the values that are not written yet.
+   */
+  public synchronized void flush() {
+    writeScheduled = false;
+    if (unwritten.isEmpty()) {
+      return;
+    }
+    reload();
+    properties.putAll(unwritten);
+    unwritten.clear();
+    save();
+  }
+
+  /**
+   * Add the entries of the file, if it was changed since we read or wrote it. Values
+   * that are not written yet are kept.
+   */
+  private void reload() {
+    long _modified = file.lastModified();
+    long _length = file.length();
+    if (_modified == 0 || (_modified == lastModified && _length == lastLength)) {
+      return;
+    }
+    Properties _stored = new Properties();
+    try {
+      InputStream in = new FileInputStream(file);
+      try {
+        _stored.load(in);
+      } finally {
+        in.close();
+      }
+    } catch (IOException ex) {
+      warn("Cannot read trace metadata from " + file + ": " + ex);
+      return;
+    }
+    properties.putAll(_stored);
+    properties.putAll(unwritten);
+    lastModified = _modified;
+    lastLength = _length;
+  }
+
+  private void save() {
+    File _temp = null;
+    try {
+      File _directory = file.getAbsoluteFile().getParentFile();
+      _temp = File.createTempFile(file.getName(), ".tmp", _directory);
+      OutputStream out = new FileOutputStream(_temp);
+      try {
+        properties.store(out, "Trace statistics by SHA-1 of the trace content");
+      } finally {
+        out.close();
+      }
+      if (!_temp.renameTo(file)) {
+        file.delete();
+        if (!_temp.renameTo(file)) {
+          throw new IOException("Cannot rename " + _temp + " to " + file);
+        }
+      }
+      _temp = null;
+      lastModified = file.lastModified();
+      lastLength = file.length();
+    } catch (IOException ex) {
+      warn("Cannot write trace metadata to " + file + ": " + ex);
+    } finally {
+      if (_temp != null) {
+        _temp.delete();
+      }
+    }
+  }
+
+  private void warn(String _message) {
+    if (!warned) {
+      warned = true;
+      BenchmarkLog.w(TAG, _message);
+    }
+  }
+
+}
@@ -24,8 +24,7 @@ package org.cache2k.benchmark.util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
+import java.nio.charset.Charset;
 
 /**
  * Reads in a trace file from the UMass Trace Repository.
@@ -38,26 +37,30 @@ import java.io.LineNumberReader;
  */
 public class UmassTraceReaderLbaOnly extends AccessPattern {
 
-  LineNumberReader reader;
+  LineScanner reader;
   int lba;
 
   public UmassTraceReaderLbaOnly(InputStream in) {
-    reader = new LineNumberReader(new InputStreamReader(in));
+    reader = new LineScanner(in, Charset.defaultCharset());
   }
 
   @Override
   public boolean hasNext() throws Exception {
     char rw = ' ';
     do {
-      String s = reader.readLine();
-      if (s == null) {
+      if (!reader.nextLine()) {
         return false;
       }
       try {
-        String[] sa = s.split(",", 5);
-        if (sa.length < 4) { continue; }
-        lba = Integer.parseInt(sa[1]);
-        rw = Character.toLowerCase(sa[3].charAt(0));
+        int _comma1 = reader.indexOf(',', 0);
+        int _comma2 = _comma1 < 0 ? -1 : reader.indexOf(',', _comma1 + 1);
+        int _comma3 = _comma2 < 0 ? -1 : reader.indexOf(',', _comma2 + 1);
+        if (_comma3 < 0) { continue; }
+        lba = reader.parseInt(_comma1 + 1, _comma2);
+        if (_comma3 + 1 == reader.getLineLength() || reader.byteAt(_comma3 + 1) == ',') {
+          throw new IllegalArgumentException("read/write field empty");
+        }
+        rw = Character.toLowerCase((char) (reader.byteAt(_comma3 + 1) & 0xff));
       } catch (Exception ex) {
         throw new IOException("Error at line number " + reader.getLineNumber(), ex);
       }
@@ -75,4 +78,9 @@ public class UmassTraceReaderLbaOnly extends AccessPattern {
     return lba;
   }
 
+  @Override
+  public void close() throws Exception {
+    reader.close();
+  }
+
 }
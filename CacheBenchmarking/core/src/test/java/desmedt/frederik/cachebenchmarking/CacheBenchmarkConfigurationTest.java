@@ -0,0 +1,92 @@
+package desmedt.frederik.cachebenchmarking;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CacheBenchmarkConfigurationTest {
+
+    /**
+     * Counts the runs and fails the run with the given number, the inputs are irrelevant.
+     */
+    private static class CountingConfiguration extends CacheBenchmarkConfiguration<Integer, Integer> {
+
+        final AtomicLong runs = new AtomicLong();
+        final long failingRun;
+        boolean tornDown;
+
+        CountingConfiguration(long failingRun) {
+            super("Counting", "Null", 1, 0, 0);
+            this.failingRun = failingRun;
+        }
+
+        @Override
+        protected boolean run(Integer key, Integer value) {
+            if (runs.incrementAndGet() == failingRun) {
+                throw new IllegalStateException("run " + failingRun);
+            }
+
+            return true;
+        }
+
+        @Override
+        protected Input<Integer, Integer> generateInput() {
+            return null;
+        }
+
+        @Override
+        protected CacheStats generateStats() {
+            return CacheStats.nonRead(StatType.UPDATE, 0, 0);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
+        @Override
+        protected void tearDown() {
+            tornDown = true;
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void concurrentRunWithoutInputs() {
+        final CountingConfiguration configuration = new CountingConfiguration(-1);
+        configuration.runConcurrent(4, 100, 1000);
+        assertEquals(4 * 1100, configuration.runs.get());
+        assertEquals(4, configuration.getStats().getThreadCount());
+        assertEquals(true, configuration.tornDown);
+    }
+
+    /**
+     * The workers that completed their warmup wait for the failed one, they have to be released.
+     */
+    @Test(timeout = 60_000)
+    public void failureInWarmupStopsAllWorkers() {
+        final CountingConfiguration configuration = new CountingConfiguration(150);
+        try {
+            configuration.runConcurrent(4, 100, 1000);
+            fail("exception expected");
+        } catch (RuntimeException e) {
+            assertSame(IllegalStateException.class, e.getCause().getClass());
+        }
+
+        assertEquals(true, configuration.tornDown);
+    }
+
+    @Test(timeout = 60_000)
+    public void failureInRunFailsTheRun() {
+        final CountingConfiguration configuration = new CountingConfiguration(1000);
+        try {
+            configuration.runConcurrent(2, 10, 1000);
+            fail("exception expected");
+        } catch (RuntimeException e) {
+            assertSame(IllegalStateException.class, e.getCause().getClass());
+        }
+    }
+}
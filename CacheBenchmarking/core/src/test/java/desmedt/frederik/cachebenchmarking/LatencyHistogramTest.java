@@ -0,0 +1,42 @@
+package desmedt.frederik.cachebenchmarking;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguous() throws Exception {
+        for (int i = 0; i < LatencyHistogram.indexOf(LatencyHistogram.HIGHEST_TRACKABLE_VALUE); i++) {
+            assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.lowestEquivalentValue(i)));
+            assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.highestEquivalentValue(i)));
+            assertEquals(LatencyHistogram.highestEquivalentValue(i) + 1, LatencyHistogram.lowestEquivalentValue(i + 1));
+        }
+    }
+
+    @Test
+    public void percentilesWithinPrecision() throws Exception {
+        Random random = new Random(1337);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+
+        Arrays.sort(values);
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + estimate + " vs " + exact, estimate >= exact && estimate <= exact + exact / 64);
+        }
+
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+}
@@ -0,0 +1,124 @@
+package desmedt.frederik.cachebenchmarking.cache;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RandomCacheTest {
+
+    private static final int KEY_RANGE = 64;
+
+    /**
+     * Random operations compared to a map. A put of a new key into a full cache may drop
+     * exactly one of the other entries, which is then dropped from the map as well.
+     */
+    @Test
+    public void sameAsReferenceMap() {
+        final int capacity = 16;
+        final RandomCache<Integer, Integer> cache = new RandomCache<>(capacity);
+        final Map<Integer, Integer> reference = new HashMap<>();
+        final Random random = new Random(1802);
+        int evictions = 0;
+        for (int i = 0; i < 100_000; i++) {
+            final Integer key = random.nextInt(KEY_RANGE);
+            final int operation = random.nextInt(10);
+            if (operation < 5) {
+                assertEquals(reference.get(key), cache.get(key));
+            } else if (operation < 9) {
+                final boolean evict = !reference.containsKey(key) && reference.size() == capacity;
+                cache.put(key, i);
+                reference.put(key, i);
+                if (evict) {
+                    final Integer evicted = findEvicted(cache, reference);
+                    assertTrue(evicted != null && !evicted.equals(key));
+                    reference.remove(evicted);
+                    evictions++;
+                }
+            } else {
+                cache.remove(key);
+                reference.remove(key);
+            }
+            assertContent(reference, cache);
+        }
+        assertTrue(evictions > 0);
+    }
+
+    @Test
+    public void removeLastAndFirstSlot() {
+        final RandomCache<Integer, String> cache = new RandomCache<>(4);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        // 3 is in the last slot, nothing needs to be moved
+        cache.remove(3);
+        assertEquals(2, cache.size());
+        assertNull(cache.get(3));
+        // 1 is in the first slot, 2 moves into its place
+        cache.remove(1);
+        assertEquals(1, cache.size());
+        assertEquals("b", cache.get(2));
+        cache.put(2, "B");
+        assertEquals("B", cache.get(2));
+        cache.remove(2);
+        assertEquals(0, cache.size());
+        cache.remove(2);
+        assertEquals(0, cache.size());
+        cache.put(4, "d");
+        assertEquals("d", cache.get(4));
+    }
+
+    @Test
+    public void evictionKeepsCapacity() {
+        final RandomCache<Integer, Integer> cache = new RandomCache<>(8);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            assertEquals(Math.min(i + 1, 8), cache.size());
+            assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+        int present = 0;
+        for (int i = 0; i < 1000; i++) {
+            final Integer value = cache.get(i);
+            if (value != null) {
+                assertEquals(Integer.valueOf(i), value);
+                present++;
+            }
+        }
+        assertEquals(8, present);
+        cache.removeAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(999));
+    }
+
+    @Test
+    public void zeroCapacityStoresNothing() {
+        final RandomCache<Integer, Integer> cache = new RandomCache<>(0);
+        cache.put(1, 1);
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+
+    private static Integer findEvicted(Cache<Integer, Integer> cache, Map<Integer, Integer> reference) {
+        Integer evicted = null;
+        for (Integer key : reference.keySet()) {
+            if (cache.get(key) == null) {
+                assertNull("only one entry is evicted", evicted);
+                evicted = key;
+            }
+        }
+
+        return evicted;
+    }
+
+    private static void assertContent(Map<Integer, Integer> reference, Cache<Integer, Integer> cache) {
+        assertEquals(reference.size(), cache.size());
+        for (int key = 0; key < KEY_RANGE; key++) {
+            assertEquals(reference.get(key), cache.get(key));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package desmedt.frederik.cachebenchmarking.generator;
+
+import org.cache2k.benchmark.util.AccessPattern;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StreamingTraceGeneratorTest {
+
+    /**
+     * Opens patterns over the values and counts how often, the patterns fail after
+     * {@code failAfter} values.
+     */
+    private static class CountingSource implements StreamingTraceGenerator.PatternSource {
+
+        final int[] values;
+        final int failAfter;
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+
+        CountingSource(int[] values, int failAfter) {
+            this.values = values;
+            this.failAfter = failAfter;
+        }
+
+        CountingSource(int... values) {
+            this(values, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public AccessPattern open() {
+            opened.incrementAndGet();
+            return new AccessPattern() {
+                int idx = 0;
+
+                @Override
+                public boolean isEternal() {
+                    return false;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return idx < values.length;
+                }
+
+                @Override
+                public int next() throws IOException {
+                    if (idx == failAfter) {
+                        throw new IOException("broken trace");
+                    }
+
+                    return values[idx++];
+                }
+
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void loopsOverTheTrace() throws Exception {
+        for (boolean readAhead : new boolean[]{false, true}) {
+            final CountingSource source = new CountingSource(3, -1, 4, -5, 5);
+            final StreamingTraceGenerator generator = new StreamingTraceGenerator(source, 4, readAhead);
+            final int[] values = new int[10];
+            generator.fill(values);
+            assertArrayEquals(new int[]{3, 4, 5, 3, 4, 5, 3, 4, 5, 3}, values);
+            assertEquals(4, generator.nextInt());
+            assertEquals(Integer.valueOf(5), generator.next());
+            // Every pass opens the pattern again and closes the previous one
+            assertTrue(source.opened.get() >= 4);
+            assertTrue(source.closed.get() >= source.opened.get() - 1);
+            generator.close();
+            if (readAhead) {
+                generator.readAhead.join(10_000);
+            }
+
+            assertEquals(source.opened.get(), source.closed.get());
+        }
+    }
+
+    @Test
+    public void noNonNegativeValues() throws Exception {
+        for (boolean readAhead : new boolean[]{false, true}) {
+            final StreamingTraceGenerator generator = new StreamingTraceGenerator(new CountingSource(-1, -2), 4, readAhead);
+            try {
+                generator.nextInt();
+                fail("exception expected");
+            } catch (IllegalStateException e) {
+                assertSame(IllegalArgumentException.class, e.getCause().getClass());
+            } finally {
+                generator.close();
+            }
+        }
+    }
+
+    /**
+     * The values read before the failure are returned, the failure is reported every time a
+     * value is requested afterwards.
+     */
+    @Test
+    public void readFailure() throws Exception {
+        for (boolean readAhead : new boolean[]{false, true}) {
+            final int[] trace = new int[20];
+            for (int i = 0; i < trace.length; i++) {
+                trace[i] = i;
+            }
+
+            final StreamingTraceGenerator generator = new StreamingTraceGenerator(new CountingSource(trace, 10), 4, readAhead);
+            final int[] values = new int[8];
+            generator.fill(values);
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, values);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    generator.nextInt();
+                    fail("exception expected");
+                } catch (IllegalStateException e) {
+                    assertSame(IOException.class, e.getCause().getClass());
+                }
+            }
+
+            generator.close();
+        }
+    }
+
+    @Test
+    public void closeStopsReadAhead() throws Exception {
+        final CountingSource source = new CountingSource(1, 2, 3);
+        final StreamingTraceGenerator generator = new StreamingTraceGenerator(source, 4, true);
+        assertEquals(1, generator.nextInt());
+        // The read-ahead thread is blocked, as all blocks are filled
+        generator.close();
+        generator.readAhead.join(10_000);
+        assertFalse(generator.readAhead.isAlive());
+        assertEquals(source.opened.get(), source.closed.get());
+        try {
+            generator.fill(new int[100]);
+            fail("exception expected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
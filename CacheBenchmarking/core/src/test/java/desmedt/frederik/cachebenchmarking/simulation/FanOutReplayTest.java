@@ -0,0 +1,106 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import desmedt.frederik.cachebenchmarking.generator.TraceGenerator;
+import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class FanOutReplayTest {
+
+    private static List<Policy> policies() {
+        final List<Policy> policies = new ArrayList<>();
+        for (int size : new int[]{10, 100, 1000}) {
+            policies.add(new LruPolicy(size));
+            policies.add(new ClockPolicy(size));
+            policies.add(new ArcPolicy(size));
+            policies.add(new LirsPolicy(size));
+        }
+
+        return policies;
+    }
+
+    @Test
+    public void sameHitsAsSequentialReplay() throws Exception {
+        final int[] trace = new int[FanOutReplay.BLOCK_SIZE * FanOutReplay.RING_SIZE * 3 + 123];
+        new ZipfGenerator(0, 10_000).fill(trace);
+        final int warmup = FanOutReplay.BLOCK_SIZE + 7;
+        // Loop the trace once more than its length
+        final int run = trace.length * 2 - warmup;
+
+        final List<Policy> sequential = policies();
+        final long[] expected = new long[sequential.size()];
+        for (int p = 0; p < sequential.size(); p++) {
+            for (int i = 0; i < warmup + run; i++) {
+                if (sequential.get(p).access(trace[i % trace.length]) && i >= warmup) {
+                    expected[p]++;
+                }
+            }
+        }
+
+        for (int consumers : new int[]{1, 3, 12, 20}) {
+            final long[] hits = new FanOutReplay(policies(), consumers).replay(new TraceGenerator(trace), warmup, run);
+            for (int p = 0; p < expected.length; p++) {
+                assertEquals(consumers + " consumers, policy " + p, expected[p], hits[p]);
+            }
+        }
+    }
+
+    /**
+     * The other consumers keep replaying and the producer is not kept waiting for the failed
+     * consumer.
+     */
+    @Test(timeout = 60_000)
+    public void failingConsumerFailsTheReplay() throws Exception {
+        final int[] trace = new int[FanOutReplay.BLOCK_SIZE * 3];
+        new ZipfGenerator(0, 10_000).fill(trace);
+        final List<Policy> policies = policies();
+        policies.add(new LruPolicy(10) {
+            private int accesses = 0;
+
+            @Override
+            public boolean access(int key) {
+                if (++accesses == FanOutReplay.BLOCK_SIZE * 2) {
+                    throw new IllegalStateException();
+                }
+
+                return super.access(key);
+            }
+        });
+        try {
+            new FanOutReplay(policies, 4).replay(new TraceGenerator(trace), 0, FanOutReplay.BLOCK_SIZE * FanOutReplay.RING_SIZE * 4);
+            fail("exception expected");
+        } catch (RuntimeException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getCause().getClass());
+        }
+    }
+
+    /**
+     * The consumers waiting for the next block stop.
+     */
+    @Test(timeout = 60_000)
+    public void failingProducerFailsTheReplay() throws Exception {
+        final TraceGenerator source = new TraceGenerator(new int[]{1, 2, 3}) {
+            private int blocks = 0;
+
+            @Override
+            public void fill(int[] dst) {
+                if (++blocks == FanOutReplay.RING_SIZE * 2) {
+                    throw new IllegalStateException();
+                }
+
+                super.fill(dst);
+            }
+        };
+        try {
+            new FanOutReplay(policies(), 4).replay(source, 0, FanOutReplay.BLOCK_SIZE * FanOutReplay.RING_SIZE * 4);
+            fail("exception expected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package desmedt.frederik.cachebenchmarking.simulation;
+
+import org.cache2k.Cache;
+import org.cache2k.benchmark.util.AccessTrace;
+import org.cache2k.benchmark.util.Patterns;
+import org.junit.Test;
+
+import java.util.Random;
+
+import desmedt.frederik.cachebenchmarking.benchmark.Cache2KBenchmark;
+import desmedt.frederik.cachebenchmarking.cache.CacheLIRS;
+import desmedt.frederik.cachebenchmarking.cache.FIFOCache;
+import desmedt.frederik.cachebenchmarking.cache.IntCache;
+import desmedt.frederik.cachebenchmarking.cache.IntClockCache;
+import desmedt.frederik.cachebenchmarking.cache.IntFifoCache;
+import desmedt.frederik.cachebenchmarking.cache.IntLruCache;
+import desmedt.frederik.cachebenchmarking.cache.LRUCache;
+import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PolicyTest {
+
+    private static final int[] SIZES = {1, 7, 100, 1000};
+
+    private static int[] zipfTrace() {
+        final int[] trace = new int[200_000];
+        new ZipfGenerator(0, 10_000).fill(trace);
+        return trace;
+    }
+
+    private static long replay(Policy policy, int[] trace) {
+        long hits = 0;
+        for (int key : trace) {
+            if (policy.access(key)) {
+                hits++;
+            }
+
+            assertTrue(policy.size() <= policy.maxSize());
+        }
+
+        return hits;
+    }
+
+    private static long replay(IntCache cache, int[] trace) {
+        long hits = 0;
+        for (int key : trace) {
+            if (cache.get(key) != IntCache.NO_VALUE) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+
+        return hits;
+    }
+
+    private static long replay(desmedt.frederik.cachebenchmarking.cache.Cache<Integer, Integer> cache, int[] trace) {
+        long hits = 0;
+        for (int key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+
+        return hits;
+    }
+
+    private static long replay(Cache<Integer, Integer> cache, int[] trace) {
+        long hits = 0;
+        for (int key : trace) {
+            if (cache.peek(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+
+        cache.close();
+        return hits;
+    }
+
+    @Test
+    public void matchesIntCaches() throws Exception {
+        final int[] trace = zipfTrace();
+        for (int size : SIZES) {
+            assertEquals(replay(new IntLruCache(size), trace), replay(new LruPolicy(size), trace));
+            assertEquals(replay(new IntFifoCache(size), trace), replay(new FifoPolicy(size), trace));
+            assertEquals(replay(new IntClockCache(size), trace), replay(new ClockPolicy(size), trace));
+        }
+    }
+
+    @Test
+    public void matchesCaches() throws Exception {
+        final int[] trace = zipfTrace();
+        for (int size : SIZES) {
+            assertEquals(replay(new LRUCache<Integer, Integer>(size), trace), replay(new LruPolicy(size), trace));
+            assertEquals(replay(new FIFOCache<Integer, Integer>(size), trace), replay(new FifoPolicy(size), trace));
+        }
+    }
+
+    /**
+     * The clock of cache2k differs in details, e.g. the hand position after removing an entry.
+     */
+    @Test
+    public void clockCloseToCache2k() throws Exception {
+        final int[] trace = zipfTrace();
+        for (int size : SIZES) {
+            final long cacheHits = replay(Cache2KBenchmark.createCache(Cache2KBenchmark.CLOCK_CACHE, size), trace);
+            final long policyHits = replay(new ClockPolicy(size), trace);
+            assertTrue(size + ": " + policyHits + " vs " + cacheHits, Math.abs(policyHits - cacheHits) <= trace.length / 1000);
+        }
+    }
+
+    @Test
+    public void arcCloseToCache2k() throws Exception {
+        final int[] trace = zipfTrace();
+        for (int size : new int[]{100, 1000}) {
+            final long cacheHits = replay(Cache2KBenchmark.createCache(Cache2KBenchmark.ARC_CACHE, size), trace);
+            final long policyHits = replay(new ArcPolicy(size), trace);
+            assertTrue(size + ": " + policyHits + " vs " + cacheHits, Math.abs(policyHits - cacheHits) <= trace.length / 500);
+        }
+    }
+
+    /**
+     * {@link CacheLIRS} with a single segment and without a stack move distance, so every hit
+     * updates the recency stack like the policy. The hit counts still differ by up to about 0.7%
+     * of the accesses, as the cache keeps about 3% of its entries for HIR keys instead of 1% and
+     * bounds the non-resident keys by the stack size instead of the cache size. The tolerance is
+     * 1% of the accesses.
+     */
+    @Test
+    public void lirsCloseToCacheLirs() throws Exception {
+        final int[] trace = zipfTrace();
+        for (int size : SIZES) {
+            if (size < 2) {
+                continue;
+            }
+
+            final CacheLIRS<Integer, Integer> cache = CacheLIRS.<Integer, Integer>newBuilder()
+                    .maximumSize(size).segmentCount(1).stackMoveDistance(0).build();
+            long cacheHits = 0;
+            for (int key : trace) {
+                if (cache.getIfPresent(key) != null) {
+                    cacheHits++;
+                } else {
+                    cache.put(key, key);
+                }
+            }
+
+            final long policyHits = replay(new LirsPolicy(size), trace);
+            assertTrue(size + ": " + policyHits + " vs " + cacheHits, Math.abs(policyHits - cacheHits) <= trace.length / 100);
+        }
+    }
+
+    /**
+     * The mean hits of seeded replays are compared with the hits calculated by
+     * {@link AccessTrace#getRandomHitStatistics(int, int)}, both are means of independent random
+     * replays, so they differ by less than three standard errors of their difference.
+     */
+    @Test
+    public void randomMatchesHitStatistics() throws Exception {
+        final int[] trace = zipfTrace();
+        final AccessTrace accessTrace = new AccessTrace(Patterns.of(trace));
+        final int seeds = 8;
+        for (int size : SIZES) {
+            final AccessTrace.HitStatistics statistics = accessTrace.getRandomHitStatistics(size, 10);
+            long hits = 0;
+            for (int seed = 0; seed < seeds; seed++) {
+                hits += replay(new RandomPolicy(size, new Random(seed)), trace);
+            }
+
+            final double mean = (double) hits / seeds;
+            final double tolerance = 3 * statistics.getStandardDeviation() * Math.sqrt(1.0 / seeds + 1.0 / statistics.getSeedCount());
+            assertEquals("size " + size, statistics.getMean(), mean, Math.max(1, tolerance));
+        }
+    }
+
+    @Test
+    public void lirsResistsLoops() throws Exception {
+        // A loop slightly larger than the cache misses on every access with LRU, LIRS keeps its LIR keys
+        final int size = 100;
+        final Policy lru = new LruPolicy(size);
+        final Policy lirs = new LirsPolicy(size);
+        long lruHits = 0;
+        long lirsHits = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int key = 0; key < size + 10; key++) {
+                lruHits += lru.access(key) ? 1 : 0;
+                lirsHits += lirs.access(key) ? 1 : 0;
+            }
+        }
+
+        assertEquals(0, lruHits);
+        assertTrue(String.valueOf(lirsHits), lirsHits >= 49 * (size - 10));
+    }
+
+    @Test
+    public void lirsAndRandomBounded() throws Exception {
+        final int[] trace = zipfTrace();
+        for (int size : SIZES) {
+            replay(new RandomPolicy(size), trace);
+            if (size < 2) {
+                continue;
+            }
+
+            replay(new LirsPolicy(size), trace);
+            final Policy lirs = new LirsPolicy(size);
+            assertFalse(lirs.access(42));
+            assertTrue(lirs.access(42));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.cache2k.benchmark.traces;
+
+import org.cache2k.benchmark.util.AccessPattern;
+import org.cache2k.benchmark.util.AccessTrace;
+import org.cache2k.benchmark.util.TraceMetadataStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TraceCacheTest {
+
+    private final long budget = TraceCache.getMemoryBudget();
+    private final TraceMetadataStore metadataStore = TraceCache.getMetadataStore();
+
+    /**
+     * Without the store, loading a trace neither hashes it nor writes the metadata file.
+     */
+    @Before
+    public void setUp() {
+        TraceCache.setMetadataStore(null);
+    }
+
+    @After
+    public void tearDown() {
+        TraceCache.name2trace.clear();
+        TraceCache.setMemoryBudget(budget);
+        TraceCache.setMetadataStore(metadataStore);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        // Every trace holds 4000 bytes, two fit into the budget
+        TraceCache.setMemoryBudget(8000);
+        AccessTrace a = TraceCache.getTraceLazy("a", provider());
+        AccessTrace b = TraceCache.getTraceLazy("b", provider());
+        assertSame(a, TraceCache.getTraceLazy("a", provider()));
+
+        AccessTrace c = TraceCache.getTraceLazy("c", provider());
+        assertEquals(8000, TraceCache.getMemoryUsage());
+        assertSame(a, TraceCache.name2trace.get("a").strong);
+        assertNull(TraceCache.name2trace.get("b").strong);
+        assertSame(c, TraceCache.name2trace.get("c").strong);
+
+        // Still reachable by the soft reference
+        assertSame(b, TraceCache.getTraceLazy("b", provider()));
+        assertNull(TraceCache.name2trace.get("a").strong);
+        assertEquals(8000, TraceCache.getMemoryUsage());
+    }
+
+    /**
+     * A trace holds its lock while it calculates its statistics, the cache does not wait for it.
+     */
+    @Test(timeout = 60_000)
+    public void notBlockedByLockedTrace() throws Exception {
+        final AccessTrace a = TraceCache.getTraceLazy("a", provider());
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                synchronized (a) {
+                    locked.countDown();
+                    try {
+                        done.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            }
+        };
+        thread.start();
+        try {
+            locked.await();
+            TraceCache.getTraceLazy("b", provider());
+            assertEquals(8000, TraceCache.getMemoryUsage());
+        } finally {
+            done.countDown();
+            thread.join();
+        }
+    }
+
+    private static TraceCache.Provider provider() {
+        return new TraceCache.Provider() {
+            @Override
+            public AccessTrace provide() throws IOException {
+                AccessTrace trace = new AccessTrace(new AccessPattern() {
+                    int idx = 0;
+
+                    @Override
+                    public boolean isEternal() {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return idx < 1000;
+                    }
+
+                    @Override
+                    public int next() {
+                        return idx++;
+                    }
+                });
+                trace.getTrace();
+                return trace;
+            }
+        };
+    }
+}
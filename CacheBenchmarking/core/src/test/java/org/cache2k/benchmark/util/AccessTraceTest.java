@@ -0,0 +1,65 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AccessTraceTest {
+
+    @Test
+    public void optHitCountsMatchSingleCalculation() {
+        Random random = new Random(1802);
+        int[] values = new int[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(3) == 0 ? random.nextInt(10_000) : random.nextInt(500);
+        }
+        AccessTrace trace = new AccessTrace(values, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        int memoized = trace.getOptHitCount(50);
+        int[] sizes = {10, 50, 100, 10, 5000, 50, 1};
+        int[] counts = trace.getOptHitCounts(sizes);
+
+        AccessTrace reference = new AccessTrace(values, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        assertEquals(memoized, counts[1]);
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals("size " + sizes[i], reference.getOptHitCount(sizes[i]), counts[i]);
+            assertEquals(counts[i], trace.getOptHitCount(sizes[i]));
+        }
+        assertEquals(counts[0], counts[3]);
+    }
+
+    @Test
+    public void randomHitsWithoutEviction() {
+        int[] values = {1, 1, 2, 2, 3, 1, 3, 2};
+        AccessTrace trace = new AccessTrace(values, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        AccessTrace.HitStatistics statistics = trace.getRandomHitStatistics(3, 4);
+        assertEquals(5, statistics.getMean(), 0);
+        assertEquals(0, statistics.getConfidenceInterval(), 0);
+        assertEquals(2, trace.getRandomHitStatistics(1, 4).getMean(), 0);
+    }
+
+    @Test
+    public void randomHitsBetweenLruAndOpt() {
+        Random random = new Random(4711);
+        int[] values = new int[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(5) == 0 ? random.nextInt(100_000) : random.nextInt(2_000);
+        }
+        AccessTrace trace = new AccessTrace(values, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        int size = 500;
+        AccessTrace.HitStatistics statistics = trace.getRandomHitStatistics(size, 10);
+        assertEquals(10, statistics.getSeedCount());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(AccessTrace.calcRandomHits(values, size, AccessTrace.randomSeed(i)), statistics.getHitCounts()[i]);
+        }
+        assertTrue(statistics.getMean() < trace.getOptHitCount(size));
+        // uniform popularity within the hot set, random and LRU are close
+        assertEquals(trace.getLruHitRate(size).getCount(), statistics.getMean(), values.length * 0.01);
+        assertTrue(statistics.getConfidenceInterval() > 0);
+        assertTrue(statistics.getConfidenceInterval() < statistics.getStandardDeviation());
+        assertEquals(Math.round(trace.getRandomHitStatistics(size, AccessTrace.RANDOM_SEED_COUNT).getMean()),
+                trace.getRandomHitRate(size).getCount());
+    }
+}
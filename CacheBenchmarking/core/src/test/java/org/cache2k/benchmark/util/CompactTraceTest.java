@@ -0,0 +1,106 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CompactTraceTest {
+
+    @Test
+    public void roundTrip() throws Exception {
+        Random random = new Random(4711);
+        int[] values = new int[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10) == 0 ? random.nextInt() : 1000 + random.nextInt(500);
+        }
+
+        File file = File.createTempFile("trace", CompactTraceWriter.EXTENSION);
+        try {
+            CompactTraceWriter writer = new CompactTraceWriter(file, false, 333);
+            for (int value : values) {
+                writer.add(value);
+            }
+            writer.close();
+
+            AccessTrace expected = new AccessTrace(values.length, Patterns.of(values));
+            CompactTraceReader reader = CompactTraceReader.open(file);
+            assertEquals(values.length, reader.getLength());
+            assertEquals(expected.getValueCount(), reader.getValueCount());
+            assertEquals(expected.getLowValue(), reader.getLowValue());
+            assertEquals(expected.getHighValue(), reader.getHighValue());
+
+            AccessTrace trace = reader.toTrace();
+            assertArrayEquals(values, trace.getTrace());
+            assertEquals(expected.getValueCount(), trace.getValueCount());
+
+            AccessPattern p = reader.newPattern();
+            for (int value : values) {
+                assertEquals(value, p.next());
+            }
+            assertFalse(p.hasNext());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void denseKeysKeepHits() throws Exception {
+        Random random = new Random(1802);
+        int[] values = new int[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(1000) * 7919;
+        }
+
+        File file = File.createTempFile("trace", CompactTraceWriter.EXTENSION);
+        try {
+            CompactTraceWriter writer = new CompactTraceWriter(file, true, 1024);
+            writer.addAll(Patterns.dense(Patterns.of(values)));
+            writer.close();
+
+            AccessTrace expected = new AccessTrace(values.length, Patterns.of(values));
+            AccessTrace trace = CompactTraceReader.read(file);
+            assertEquals(expected.getValueCount(), trace.getValueCount());
+            assertEquals(expected.getValueCount() - 1, trace.getHighValue());
+            for (int size : new int[]{10, 100, 500}) {
+                assertEquals(expected.getOptHitCount(size), trace.getOptHitCount(size));
+                assertEquals(expected.getLruHitRate(size).getCount(), trace.getLruHitRate(size).getCount());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Blocks, index entries and header fields cross the chunk boundaries, like in files larger
+     * than {@link CompactTraceReader#CHUNK_SIZE}.
+     */
+    @Test
+    public void smallChunks() throws Exception {
+        Random random = new Random(1802);
+        int[] values = new int[5_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(100_000);
+        }
+
+        File file = File.createTempFile("trace", CompactTraceWriter.EXTENSION);
+        try {
+            CompactTraceWriter writer = new CompactTraceWriter(file, false, 100);
+            writer.addAll(Patterns.of(values));
+            writer.close();
+
+            for (int chunkSize : new int[]{7, 64, 4096}) {
+                CompactTraceReader reader = CompactTraceReader.open(file, chunkSize);
+                assertEquals(values.length, reader.getLength());
+                assertEquals(50, reader.getBlockCount());
+                assertArrayEquals(values, reader.decode());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class LineScannerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void sameLinesAsLineNumberReader() throws Exception {
+        Random random = new Random(4711);
+        String[] terminators = {"\n", "\r", "\r\n", "\n\r", ""};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            int length = random.nextInt(i % 100 == 0 ? 100 : 10);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            sb.append(terminators[random.nextInt(terminators.length)]);
+        }
+        String text = sb.toString();
+
+        List<String> expected = new ArrayList<>();
+        LineNumberReader reader = new LineNumberReader(new StringReader(text));
+        String s;
+        while ((s = reader.readLine()) != null) {
+            expected.add(s);
+        }
+
+        for (int bufferSize : new int[]{1, 7, 64 * 1024}) {
+            LineScanner scanner = new LineScanner(new ByteArrayInputStream(text.getBytes(UTF_8)), UTF_8, bufferSize);
+            List<String> lines = new ArrayList<>();
+            while (scanner.nextLine()) {
+                lines.add(scanner.getLine());
+                assertEquals(lines.size(), scanner.getLineNumber());
+            }
+            assertEquals(expected, lines);
+        }
+    }
+
+    @Test
+    public void parseIntLikeInteger() throws Exception {
+        String[] numbers = {"0", "-0", "+7", "123", "-123", "2147483647", "-2147483648", "2147483648",
+                "-2147483649", "99999999999", "", "-", "+", "1a", " 1", "1 ", "zz", "ZZ", "-zik0zj", "zik0zk"};
+        for (int radix : new int[]{10, 36}) {
+            for (String number : numbers) {
+                LineScanner scanner = new LineScanner(new ByteArrayInputStream(("x" + number + "x").getBytes(UTF_8)), UTF_8);
+                scanner.nextLine();
+                Integer expected;
+                try {
+                    expected = Integer.parseInt(number, radix);
+                } catch (NumberFormatException e) {
+                    expected = null;
+                }
+                try {
+                    int value = scanner.parseInt(1, number.length() + 1, radix);
+                    assertEquals(number, expected, (Integer) value);
+                } catch (NumberFormatException e) {
+                    if (expected != null) {
+                        fail("parse error for " + number + ", radix " + radix);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void charsetNotAsciiCompatible() {
+        new LineScanner(new ByteArrayInputStream(new byte[0]), Charset.forName("UTF-16"));
+    }
+}
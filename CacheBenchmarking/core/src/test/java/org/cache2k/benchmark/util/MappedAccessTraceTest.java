@@ -0,0 +1,66 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MappedAccessTraceTest {
+
+    @Test
+    public void readsAcrossChunks() throws Exception {
+        Random random = new Random(1802);
+        final int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(300);
+        }
+
+        File file = File.createTempFile("trace", ".trc.bin");
+        File copy = File.createTempFile("trace", ".trc.bin");
+        try {
+            new AccessTrace(Patterns.of(values), Integer.MAX_VALUE).write(file);
+            AccessTrace expected = new AccessTrace(file);
+            assertArrayEquals(values, expected.getTrace());
+
+            MappedAccessTrace trace = new MappedAccessTrace(file, 64);
+            assertEquals(values.length, trace.getLength());
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(values[i], trace.get(i));
+            }
+
+            int[] block = new int[37];
+            for (long position = 0; position < values.length; position += block.length) {
+                int count = trace.read(position, block, 0, block.length);
+                assertEquals(Math.min(block.length, values.length - position), count);
+                for (int i = 0; i < count; i++) {
+                    assertEquals(values[(int) position + i], block[i]);
+                }
+            }
+            assertEquals(-1, trace.read(values.length, block, 0, block.length));
+
+            AccessPattern p = trace.newPattern();
+            Iterator<Integer> it = trace.iterator();
+            for (int value : values) {
+                assertEquals(value, p.next());
+                assertEquals(value, (int) it.next());
+            }
+            assertFalse(p.hasNext());
+            assertFalse(it.hasNext());
+
+            assertEquals(expected.getValueCount(), trace.getValueCount());
+            assertEquals(expected.getHighValue(), trace.getHighValue());
+            assertEquals(expected.getOptHitCount(50), trace.getOptHitCount(50));
+
+            trace.write(copy);
+            assertArrayEquals(values, new AccessTrace(copy).getTrace());
+        } finally {
+            file.delete();
+            copy.delete();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MissRatioCurveTest {
+
+    @Test
+    public void lruMatchesReplay() throws Exception {
+        Random random = new Random(1802);
+        for (int run = 0; run < 50; run++) {
+            int[] trace = new int[1 + random.nextInt(2000)];
+            int range = 1 + random.nextInt(200);
+            for (int i = 0; i < trace.length; i++) {
+                trace[i] = random.nextInt(range);
+            }
+
+            MissRatioCurve curve = MissRatioCurve.lru(trace);
+            for (int size = 1; size <= range + 1; size++) {
+                assertEquals(replayLru(size, trace), curve.getHitCount(size), 0);
+            }
+        }
+    }
+
+    @Test
+    public void distancesSurviveCompaction() throws Exception {
+        Random random = new Random(4711);
+        StackDistanceAnalyzer small = new StackDistanceAnalyzer(16);
+        StackDistanceAnalyzer large = new StackDistanceAnalyzer(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            int v = random.nextInt(500);
+            assertEquals(large.access(v), small.access(v));
+        }
+    }
+
+    private static int replayLru(final int size, int[] trace) {
+        Map<Integer, Integer> cache = new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > size;
+            }
+        };
+        int hits = 0;
+        for (int v : trace) {
+            if (cache.get(v) != null) {
+                hits++;
+            } else {
+                cache.put(v, v);
+            }
+        }
+
+        return hits;
+    }
+}
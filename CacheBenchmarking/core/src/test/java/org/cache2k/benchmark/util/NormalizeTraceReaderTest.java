@@ -0,0 +1,68 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NormalizeTraceReaderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void valuesInOrderOfFirstOccurrence() throws Exception {
+        Random random = new Random(4711);
+        StringBuilder sb = new StringBuilder();
+        List<Integer> expected = new ArrayList<>();
+        Map<String, Integer> mapping = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String line = "/page/" + random.nextInt(2000) + "?q=\u00e4";
+            sb.append(line).append('\n');
+            Integer value = mapping.get(line);
+            if (value == null) {
+                value = mapping.size();
+                mapping.put(line, value);
+            }
+            expected.add(value);
+        }
+
+        for (boolean verify : new boolean[]{false, true}) {
+            NormalizeTraceReader reader =
+                    new NormalizeTraceReader(new ByteArrayInputStream(sb.toString().getBytes(UTF_8)), UTF_8, verify);
+            List<Integer> values = new ArrayList<>();
+            while (reader.hasNext()) {
+                values.add(reader.next());
+            }
+            assertEquals(expected, values);
+            assertEquals(mapping.size(), reader.getValueCount());
+        }
+    }
+
+    @Test
+    public void verificationSeparatesCollidingLines() throws Exception {
+        byte[] data = "a\nb\na\nb\n".getBytes(UTF_8);
+        NormalizeTraceReader reader = new NormalizeTraceReader(new ByteArrayInputStream(data), UTF_8, true);
+        assertTrue(reader.hasNext());
+        assertEquals(0, reader.next());
+        // simulate that "b" has the same hash as "a"
+        byte[] b = "b".getBytes(UTF_8);
+        reader.mapping.put(LineScanner.hash(b, 0, b.length), 0);
+        assertTrue(reader.hasNext());
+        assertEquals(1, reader.next());
+        assertTrue(reader.hasNext());
+        assertEquals(0, reader.next());
+        assertTrue(reader.hasNext());
+        assertEquals(1, reader.next());
+        assertFalse(reader.hasNext());
+        assertEquals(2, reader.getValueCount());
+    }
+}
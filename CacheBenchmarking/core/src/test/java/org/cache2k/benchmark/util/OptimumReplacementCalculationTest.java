@@ -0,0 +1,92 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OptimumReplacementCalculationTest {
+
+    @Test
+    public void nextOccurrences() throws Exception {
+        int[] trace = {1, 2, 1, 3, 2, 1};
+        assertArrayEquals(new int[]{2, 4, 5, 6 + 3, 6 + 4, 6 + 5}, OptimumReplacementCalculation.nextOccurrences(trace));
+    }
+
+    @Test
+    public void positionBeyondEndDoesNotOverflow() {
+        assertEquals(6 + 3, OptimumReplacementCalculation.beyondEnd(6, 3));
+        int length = (1 << 30) + 10;
+        assertEquals(Integer.MAX_VALUE, OptimumReplacementCalculation.beyondEnd(length, length - 1));
+        assertEquals(Integer.MAX_VALUE, OptimumReplacementCalculation.beyondEnd(Integer.MAX_VALUE - 8, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeZeroRejected() {
+        new OptimumReplacementCalculation(0, new int[]{1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeZeroRejectedWithNextOccurrences() {
+        OptimumReplacementCalculation.ofNextOccurrences(0, OptimumReplacementCalculation.nextOccurrences(new int[]{1, 2, 3}));
+    }
+
+    @Test
+    public void matchesExhaustiveSearch() throws Exception {
+        Random random = new Random(4711);
+        for (int run = 0; run < 100; run++) {
+            int[] trace = new int[random.nextInt(200)];
+            int range = 1 + random.nextInt(30);
+            for (int i = 0; i < trace.length; i++) {
+                trace[i] = random.nextInt(range);
+            }
+
+            for (int size = 1; size <= range + 1; size++) {
+                assertEquals(bruteForceOpt(size, trace), new OptimumReplacementCalculation(size, trace).getHitCount());
+            }
+        }
+    }
+
+    /**
+     * Straightforward Belady implementation that scans ahead on every eviction.
+     */
+    private static int bruteForceOpt(int size, int[] trace) {
+        Set<Integer> cache = new HashSet<>();
+        int hits = 0;
+        for (int i = 0; i < trace.length; i++) {
+            if (cache.contains(trace[i])) {
+                hits++;
+                continue;
+            }
+
+            if (cache.size() == size) {
+                int victim = 0;
+                int victimDistance = -1;
+                for (int candidate : cache) {
+                    int distance = Integer.MAX_VALUE;
+                    for (int j = i + 1; j < trace.length; j++) {
+                        if (trace[j] == candidate) {
+                            distance = j;
+                            break;
+                        }
+                    }
+
+                    if (distance > victimDistance) {
+                        victim = candidate;
+                        victimDistance = distance;
+                    }
+                }
+
+                cache.remove(victim);
+            }
+
+            cache.add(trace[i]);
+        }
+
+        return hits;
+    }
+}
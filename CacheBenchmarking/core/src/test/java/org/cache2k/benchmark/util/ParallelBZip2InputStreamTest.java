@@ -0,0 +1,104 @@
+package org.cache2k.benchmark.util;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelBZip2InputStreamTest {
+
+    @Test
+    public void sameAsSequentialDecompression() throws Exception {
+        Random random = new Random(1802);
+        byte[] first = new byte[350_000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = (byte) random.nextInt(1 + i % 64);
+        }
+        byte[] second = new byte[10_000];
+        random.nextBytes(second);
+
+        // Two concatenated streams with different block sizes, the first one has several blocks
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        BZip2CompressorOutputStream out = new BZip2CompressorOutputStream(compressed, 1);
+        out.write(first);
+        out.close();
+        out = new BZip2CompressorOutputStream(compressed, 9);
+        out.write(second);
+        out.close();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first);
+        expected.write(second);
+
+        for (int threads : new int[]{1, 3}) {
+            ParallelBZip2InputStream in = new ParallelBZip2InputStream(new ByteArrayInputStream(compressed.toByteArray()), threads);
+            assertArrayEquals(expected.toByteArray(), readFully(in));
+            assertEquals(5, in.getBlockCount());
+        }
+    }
+
+    /**
+     * A magic number within the compressed data splits a block, the block is decompressed
+     * again up to the next magic number.
+     */
+    @Test
+    public void magicWithinBlock() throws Exception {
+        Random random = new Random(4711);
+        byte[] data = new byte[250_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) random.nextInt(1 + i % 32);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        BZip2CompressorOutputStream out = new BZip2CompressorOutputStream(compressed, 1);
+        out.write(data);
+        out.close();
+
+        for (final boolean blockMagic : new boolean[]{true, false}) {
+            ParallelBZip2InputStream in = new ParallelBZip2InputStream(new ByteArrayInputStream(compressed.toByteArray()), 2) {
+                long lastStart = -1;
+
+                @Override
+                void foundMagic(long start, boolean block) {
+                    if (lastStart >= 0) {
+                        // pretend there is a magic number in the middle of every block
+                        super.foundMagic(lastStart + (start - lastStart) / 2 + 3, blockMagic);
+                    }
+                    lastStart = block ? start : -1;
+                    super.foundMagic(start, block);
+                }
+            };
+            assertArrayEquals(data, readFully(in));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptBlock() throws Exception {
+        byte[] data = new byte[250_000];
+        new Random(1802).nextBytes(data);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        BZip2CompressorOutputStream out = new BZip2CompressorOutputStream(compressed, 1);
+        out.write(data);
+        out.close();
+        byte[] bytes = compressed.toByteArray();
+        bytes[bytes.length / 2] ^= 0x10;
+        readFully(new ParallelBZip2InputStream(new ByteArrayInputStream(bytes), 2));
+    }
+
+    private static byte[] readFully(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int length;
+        while ((length = in.read(buffer)) > 0) {
+            out.write(buffer, 0, length);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardsEstimatorTest {
+
+    @Test
+    public void fullRateIsExact() throws Exception {
+        int[] trace = hotColdTrace(50_000, 4711);
+        MissRatioCurve exact = MissRatioCurve.lru(trace);
+        MissRatioCurve estimate = ShardsEstimator.estimate(Patterns.of(trace), ShardsEstimator.fixedRate(1.0));
+        assertEquals(exact.getAccessCount(), estimate.getAccessCount(), 0);
+        for (int size = 1; size <= exact.getMaxSize() + 1; size++) {
+            assertEquals("size " + size, exact.getHitCount(size), estimate.getHitCount(size), 1e-6);
+        }
+        assertEquals(0, estimate.getMaxAbsoluteError(exact), 1e-9);
+    }
+
+    @Test
+    public void fixedSizeKeepsBudget() {
+        int[] trace = hotColdTrace(200_000, 1802);
+        int budget = 1000;
+        ShardsEstimator estimator = ShardsEstimator.fixedSize(budget);
+        double rate = 1;
+        for (int v : trace) {
+            estimator.access(v);
+            assertTrue(estimator.getSampledValueCount() <= budget);
+            assertTrue("rate is only lowered", estimator.getSamplingRate() <= rate);
+            rate = estimator.getSamplingRate();
+        }
+        assertTrue(rate < 1);
+        assertEquals(trace.length, estimator.getAccessCount());
+    }
+
+    /**
+     * The estimate stays within 0.03 mean and 0.04 maximum absolute miss ratio error.
+     * For this trace the errors are about 0.015 to 0.02 for other seeds as well.
+     */
+    @Test
+    public void sampledEstimateIsClose() throws Exception {
+        int[] trace = hotColdTrace(500_000, 1802);
+        MissRatioCurve exact = MissRatioCurve.lru(trace);
+
+        MissRatioCurve rate = ShardsEstimator.estimate(Patterns.of(trace), ShardsEstimator.fixedRate(0.1));
+        assertEquals(0, rate.getMeanAbsoluteError(exact), 0.03);
+        assertEquals(0, rate.getMaxAbsoluteError(exact), 0.04);
+
+        ShardsEstimator estimator = ShardsEstimator.fixedSize(4096);
+        MissRatioCurve size = ShardsEstimator.estimate(Patterns.of(trace), estimator);
+        assertTrue(estimator.getSamplingRate() < 0.1);
+        assertEquals(0, size.getMeanAbsoluteError(exact), 0.03);
+        assertEquals(0, size.getMaxAbsoluteError(exact), 0.04);
+    }
+
+    /**
+     * 80% of the accesses go to 10,000 hot values, the others to 200,000 cold values.
+     * No single value is popular enough to dominate a sample.
+     */
+    private static int[] hotColdTrace(int length, long seed) {
+        Random random = new Random(seed);
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int v = random.nextInt(5) == 0 ? 10_000 + random.nextInt(200_000) : random.nextInt(10_000);
+            trace[i] = v * 7919;
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,96 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TraceConverterTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void textToBinary() throws Exception {
+        byte[] text = "# comment\n-5\n17\n\n42\r\n17\n".getBytes(UTF_8);
+        File file = File.createTempFile("trace", ".trc.bin");
+        try {
+            AccessPattern p = TraceConverter.openPattern("integer", new ByteArrayInputStream(text), UTF_8, false);
+            assertEquals(4, TraceConverter.convert(p, file, false, null));
+            assertArrayEquals(new int[]{-5, 17, 42, 17}, new AccessTrace(file).getTrace());
+
+            p = TraceConverter.openPattern("integer", new ByteArrayInputStream(text), UTF_8, false);
+            TraceConverter.convert(p, file, true, null);
+            assertArrayEquals(new int[]{-5, 0, 1, 0}, new AccessTrace(file).getTrace());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void normalizedToCompressedAndCompact() throws Exception {
+        byte[] text = "/a\n/b\n/a\n/c\n/b\n".getBytes(UTF_8);
+        int[] expected = {0, 1, 0, 2, 1};
+        File gz = File.createTempFile("trace", ".trc.bin.gz");
+        File compact = File.createTempFile("trace", CompactTraceWriter.EXTENSION);
+        try {
+            AccessPattern p = TraceConverter.openPattern("normalize", new ByteArrayInputStream(text), UTF_8, true);
+            TraceConverter.convert(p, gz, false, null);
+            assertArrayEquals(expected, new AccessTrace(new GZIPInputStream(new FileInputStream(gz))).getTrace());
+
+            TraceConverter.convert(CompactTraceWriter.openBinaryTrace(gz), compact, true, null);
+            assertArrayEquals(expected, CompactTraceReader.read(compact).getTrace());
+        } finally {
+            gz.delete();
+            compact.delete();
+        }
+    }
+
+    /**
+     * The compact trace gets its header and index, also if closing the input fails.
+     */
+    @Test
+    public void writerClosedIfPatternCloseFails() throws Exception {
+        File compact = File.createTempFile("trace", CompactTraceWriter.EXTENSION);
+        try {
+            AccessPattern p = new Patterns.PatternProxy(Patterns.of(7, 3, 7)) {
+                @Override
+                public void close() throws Exception {
+                    throw new IOException("close failed");
+                }
+            };
+            try {
+                TraceConverter.convert(p, compact, false, null);
+                fail("exception expected");
+            } catch (IOException expected) {
+            }
+            assertArrayEquals(new int[]{7, 3, 7}, CompactTraceReader.read(compact).getTrace());
+        } finally {
+            compact.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void denseWriterRejectsOtherValues() throws Exception {
+        File compact = File.createTempFile("trace", CompactTraceWriter.EXTENSION);
+        try {
+            CompactTraceWriter writer = new CompactTraceWriter(compact, true);
+            try {
+                writer.add(0);
+                writer.add(1);
+                writer.add(3);
+            } finally {
+                writer.close();
+            }
+        } finally {
+            compact.delete();
+        }
+    }
+}
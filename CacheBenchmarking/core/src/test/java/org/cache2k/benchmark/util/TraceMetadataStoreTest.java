@@ -0,0 +1,86 @@
+package org.cache2k.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceMetadataStoreTest {
+
+    @Test
+    public void contentHashIsSha1OfTraceFile() throws Exception {
+        AccessTrace trace = randomTrace(100_000);
+        File file = File.createTempFile("trace", ".trc.bin");
+        try {
+            trace.write(file);
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            InputStream in = new FileInputStream(file);
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, length);
+            }
+            in.close();
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            assertEquals(hex.toString(), trace.getContentHash());
+            assertEquals(hex.toString(), MappedAccessTrace.map(file).getContentHash());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void statisticsAreReusedAcrossRuns() throws Exception {
+        File file = File.createTempFile("trace-metadata", ".properties");
+        file.delete();
+        try {
+            AccessTrace trace = randomTrace(10_000);
+            TraceMetadataStore store = new TraceMetadataStore(file);
+            store.attach(trace);
+            int valueCount = trace.getValueCount();
+            int opt = trace.getOptHitCount(100);
+            int random = trace.getRandomHitRate(100).getCount();
+            // the values are written together, later
+            assertFalse(file.exists());
+            store.flush();
+            assertTrue(file.exists());
+
+            // new run, the same trace is loaded again
+            AccessTrace loaded = randomTrace(10_000);
+            new TraceMetadataStore(file).attach(loaded);
+            assertEquals(valueCount, loaded.valueCount);
+            assertEquals(0, trace.getLowValue());
+            assertEquals(trace.getLowValue(), loaded.lowValue);
+            assertEquals(trace.getHighValue(), loaded.highValue);
+            assertEquals(Integer.valueOf(opt), loaded.size2opt.get(100));
+            assertEquals(Integer.valueOf(random), loaded.size2random.get(100));
+
+            // a different trace gets nothing
+            AccessTrace other = randomTrace(9_999);
+            new TraceMetadataStore(file).attach(other);
+            assertEquals(-1, other.valueCount);
+            assertTrue(other.size2opt.isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static AccessTrace randomTrace(int length) {
+        Random random = new Random(1802);
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(1000);
+        }
+        return new AccessTrace(values, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+    }
+}
@@ -0,0 +1,135 @@
+package desmedt.frederik.cachebenchmarking.jmh;
+
+import desmedt.frederik.cachebenchmarking.benchmark.Cache2KBenchmark;
+import desmedt.frederik.cachebenchmarking.benchmark.GuavaBenchmarks;
+import desmedt.frederik.cachebenchmarking.benchmark.JackRabbitLIRSBenchmark;
+import desmedt.frederik.cachebenchmarking.cache.Cache;
+import desmedt.frederik.cachebenchmarking.cache.FIFOCache;
+import desmedt.frederik.cachebenchmarking.cache.LRUCache;
+import desmedt.frederik.cachebenchmarking.cache.RandomCache;
+
+/**
+ * Common view on every benchmarked cache implementation, so a single JMH benchmark method covers
+ * all of them. Every call is a single delegation, which is the same for every implementation.
+ * The {@link desmedt.frederik.cachebenchmarking.cache.IntCache} implementations are not covered,
+ * as boxing their keys and values would be part of the measurement, see
+ * {@link IntCacheOperationBenchmark}.
+ */
+public abstract class BenchmarkCache {
+
+    public static final String CACHE2K_CLOCK = "Cache2kClock";
+    public static final String CACHE2K_ARC = "Cache2kArc";
+    public static final String CACHE2K_RANDOM = "Cache2kRandom";
+
+    /**
+     * @return The value of the entry associated with the key or <code>null</code> on a miss
+     */
+    public abstract Integer get(Integer key);
+
+    public abstract void put(Integer key, Integer value);
+
+    public abstract void remove(Integer key);
+
+    public abstract void close();
+
+    /**
+     * Create an empty cache.
+     *
+     * @param implementation The cache tag of the implementation, e.g. {@link FIFOCache#CACHE_TAG}
+     * @param cacheSize      The maximum amount of entries in the cache
+     */
+    public static BenchmarkCache create(String implementation, int cacheSize) {
+        switch (implementation) {
+            case FIFOCache.CACHE_TAG:
+                return of(new FIFOCache<Integer, Integer>(cacheSize));
+            case RandomCache.CACHE_TAG:
+                return of(new RandomCache<Integer, Integer>(cacheSize));
+            case LRUCache.CACHE_TAG:
+                return of(new LRUCache<Integer, Integer>(cacheSize));
+            case JackRabbitLIRSBenchmark.CACHE_TAG:
+                return of(JackRabbitLIRSBenchmark.createCache(cacheSize));
+            case GuavaBenchmarks.CACHE_TAG:
+                return of(GuavaBenchmarks.createCache(cacheSize));
+            case CACHE2K_CLOCK:
+                return of(Cache2KBenchmark.createCache(Cache2KBenchmark.CLOCK_CACHE, cacheSize));
+            case CACHE2K_ARC:
+                return of(Cache2KBenchmark.createCache(Cache2KBenchmark.ARC_CACHE, cacheSize));
+            case CACHE2K_RANDOM:
+                return of(Cache2KBenchmark.createCache(Cache2KBenchmark.RANDOM_CACHE, cacheSize));
+            default:
+                throw new IllegalArgumentException("Unknown cache implementation " + implementation);
+        }
+    }
+
+    private static BenchmarkCache of(final Cache<Integer, Integer> cache) {
+        return new BenchmarkCache() {
+            @Override
+            public Integer get(Integer key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                cache.put(key, value);
+            }
+
+            @Override
+            public void remove(Integer key) {
+                cache.remove(key);
+            }
+
+            @Override
+            public void close() {
+                cache.removeAll();
+            }
+        };
+    }
+
+    private static BenchmarkCache of(final com.google.common.cache.Cache<Integer, Integer> cache) {
+        return new BenchmarkCache() {
+            @Override
+            public Integer get(Integer key) {
+                return cache.getIfPresent(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                cache.put(key, value);
+            }
+
+            @Override
+            public void remove(Integer key) {
+                cache.invalidate(key);
+            }
+
+            @Override
+            public void close() {
+                cache.invalidateAll();
+            }
+        };
+    }
+
+    private static BenchmarkCache of(final org.cache2k.Cache<Integer, Integer> cache) {
+        return new BenchmarkCache() {
+            @Override
+            public Integer get(Integer key) {
+                return cache.peek(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                cache.put(key, value);
+            }
+
+            @Override
+            public void remove(Integer key) {
+                cache.remove(key);
+            }
+
+            @Override
+            public void close() {
+                cache.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package desmedt.frederik.cachebenchmarking.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import desmedt.frederik.cachebenchmarking.benchmark.GuavaBenchmarks;
+import desmedt.frederik.cachebenchmarking.benchmark.JackRabbitLIRSBenchmark;
+import desmedt.frederik.cachebenchmarking.cache.FIFOCache;
+import desmedt.frederik.cachebenchmarking.cache.LRUCache;
+import desmedt.frederik.cachebenchmarking.cache.RandomCache;
+import desmedt.frederik.cachebenchmarking.generator.NfsGenerator;
+import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
+import desmedt.frederik.cachebenchmarking.generator.SearchEngineGenerator;
+import desmedt.frederik.cachebenchmarking.generator.Web12Generator;
+import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
+
+/**
+ * JMH counterpart of the read, insert, update and delete benchmarks of the
+ * {@link desmedt.frederik.cachebenchmarking.BenchmarkRunner}, for every cache implementation,
+ * trace and cache ratio. Unlike {@link desmedt.frederik.cachebenchmarking.CacheBenchmarkConfiguration}
+ * JMH does not time single operations, so the cost of reading the clock is not part of the results.
+ * <p/>
+ * Every operation works on a cache that is filled up by the trace before the measurement starts:
+ * <ul>
+ * <li>{@link #read(Blackhole)} looks up the next key of the trace and adds it to the cache on a miss</li>
+ * <li>{@link #insert()} adds a key that is not in the cache, causing an eviction</li>
+ * <li>{@link #update()} puts the next key of the trace, whether it is in the cache or not</li>
+ * <li>{@link #delete()} removes the next key of the trace and adds it again, so the cache stays
+ * filled; subtract {@link #update()} to get the cost of the removal</li>
+ * </ul>
+ * The {@link desmedt.frederik.cachebenchmarking.cache.IntCache} implementations are benchmarked
+ * by {@link IntCacheOperationBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class CacheOperationBenchmark {
+
+    /**
+     * Amount of pre-generated keys, the benchmark loops over them.
+     */
+    static final int KEY_COUNT = 1 << 20;
+    static final int KEY_MASK = KEY_COUNT - 1;
+
+    @Param({FIFOCache.CACHE_TAG, RandomCache.CACHE_TAG, LRUCache.CACHE_TAG, JackRabbitLIRSBenchmark.CACHE_TAG,
+            GuavaBenchmarks.CACHE_TAG, BenchmarkCache.CACHE2K_CLOCK, BenchmarkCache.CACHE2K_ARC,
+            BenchmarkCache.CACHE2K_RANDOM})
+    public String cache;
+
+    @Param({NfsGenerator.TRACE_TAG, SearchEngineGenerator.TRACE_TAG, Web12Generator.TRACE_TAG,
+            ZipfGenerator.TRACE_TAG, RandomGenerator.TRACE_TAG})
+    public String trace;
+
+    @Param({"0.01", "0.05", "0.1", "0.2"})
+    public double cacheRatio;
+
+    private BenchmarkCache instance;
+    private Integer[] keys;
+    private Integer[] absentKeys;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final int keySpace = TraceKeys.keySpace(trace);
+        keys = TraceKeys.generate(trace, KEY_COUNT);
+        absentKeys = new Integer[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            absentKeys[i] = keySpace + i;
+        }
+
+        instance = BenchmarkCache.create(cache, Math.max(1, (int) Math.round(keySpace * cacheRatio)));
+        for (Integer key : keys) {
+            if (instance.get(key) == null) {
+                instance.put(key, key);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.close();
+        instance = null;
+    }
+
+    private int nextIndex() {
+        return index = (index + 1) & KEY_MASK;
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        final Integer key = keys[nextIndex()];
+        final Integer value = instance.get(key);
+        if (value == null) {
+            instance.put(key, key);
+        }
+
+        blackhole.consume(value);
+    }
+
+    @Benchmark
+    public void insert() {
+        final Integer key = absentKeys[nextIndex()];
+        instance.put(key, key);
+    }
+
+    @Benchmark
+    public void update() {
+        final Integer key = keys[nextIndex()];
+        instance.put(key, key);
+    }
+
+    @Benchmark
+    public void delete() {
+        final Integer key = keys[nextIndex()];
+        instance.remove(key);
+        instance.put(key, key);
+    }
+}
@@ -0,0 +1,131 @@
+package desmedt.frederik.cachebenchmarking.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import desmedt.frederik.cachebenchmarking.cache.IntCache;
+import desmedt.frederik.cachebenchmarking.cache.IntClockCache;
+import desmedt.frederik.cachebenchmarking.cache.IntFifoCache;
+import desmedt.frederik.cachebenchmarking.cache.IntLruCache;
+import desmedt.frederik.cachebenchmarking.generator.NfsGenerator;
+import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
+import desmedt.frederik.cachebenchmarking.generator.SearchEngineGenerator;
+import desmedt.frederik.cachebenchmarking.generator.Web12Generator;
+import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
+
+/**
+ * The operations of {@link CacheOperationBenchmark} for the {@link IntCache} implementations. The
+ * keys are read from an {@code int[]} and passed to the cache as they are, so no key or value is
+ * boxed and the results are comparable to the ones of the other caches minus the boxing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class IntCacheOperationBenchmark {
+
+    @Param({IntFifoCache.CACHE_TAG, IntLruCache.CACHE_TAG, IntClockCache.CACHE_TAG})
+    public String cache;
+
+    @Param({NfsGenerator.TRACE_TAG, SearchEngineGenerator.TRACE_TAG, Web12Generator.TRACE_TAG,
+            ZipfGenerator.TRACE_TAG, RandomGenerator.TRACE_TAG})
+    public String trace;
+
+    @Param({"0.01", "0.05", "0.1", "0.2"})
+    public double cacheRatio;
+
+    private IntCache instance;
+    private int[] keys;
+    private int keySpace;
+    private int index;
+
+    /**
+     * Create an empty cache.
+     *
+     * @param implementation The cache tag of the implementation, e.g. {@link IntLruCache#CACHE_TAG}
+     * @param cacheSize      The maximum amount of entries in the cache
+     */
+    static IntCache create(String implementation, int cacheSize) {
+        switch (implementation) {
+            case IntFifoCache.CACHE_TAG:
+                return new IntFifoCache(cacheSize);
+            case IntLruCache.CACHE_TAG:
+                return new IntLruCache(cacheSize);
+            case IntClockCache.CACHE_TAG:
+                return new IntClockCache(cacheSize);
+            default:
+                throw new IllegalArgumentException("Unknown cache implementation " + implementation);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keySpace = TraceKeys.keySpace(trace);
+        keys = TraceKeys.generateInts(trace, CacheOperationBenchmark.KEY_COUNT);
+        instance = create(cache, Math.max(1, (int) Math.round(keySpace * cacheRatio)));
+        for (int key : keys) {
+            if (instance.get(key) == IntCache.NO_VALUE) {
+                instance.put(key, key);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.removeAll();
+        instance = null;
+    }
+
+    private int nextIndex() {
+        return index = (index + 1) & CacheOperationBenchmark.KEY_MASK;
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        final int key = keys[nextIndex()];
+        final int value = instance.get(key);
+        if (value == IntCache.NO_VALUE) {
+            instance.put(key, key);
+        }
+
+        blackhole.consume(value);
+    }
+
+    /**
+     * The keys above the key space of the trace are never in the cache.
+     */
+    @Benchmark
+    public void insert() {
+        final int key = keySpace + nextIndex();
+        instance.put(key, key);
+    }
+
+    @Benchmark
+    public void update() {
+        final int key = keys[nextIndex()];
+        instance.put(key, key);
+    }
+
+    @Benchmark
+    public void delete() {
+        final int key = keys[nextIndex()];
+        instance.remove(key);
+        instance.put(key, key);
+    }
+}
@@ -0,0 +1,82 @@
+package desmedt.frederik.cachebenchmarking.jmh;
+
+import desmedt.frederik.cachebenchmarking.generator.IntGenerator;
+import desmedt.frederik.cachebenchmarking.generator.NfsGenerator;
+import desmedt.frederik.cachebenchmarking.generator.RandomGenerator;
+import desmedt.frederik.cachebenchmarking.generator.SearchEngineGenerator;
+import desmedt.frederik.cachebenchmarking.generator.Web12Generator;
+import desmedt.frederik.cachebenchmarking.generator.ZipfGenerator;
+
+/**
+ * Pre-generates the keys of a trace, so generating keys is not part of the measurement.
+ */
+final class TraceKeys {
+
+    /**
+     * Key space of the synthetic traces, the same as used by the {@link desmedt.frederik.cachebenchmarking.BenchmarkRunner}.
+     */
+    static final int SYNTHETIC_KEY_SPACE = 50000;
+
+    private TraceKeys() {
+    }
+
+    /**
+     * @return The amount of different keys the trace might generate
+     */
+    static int keySpace(String trace) {
+        switch (trace) {
+            case NfsGenerator.TRACE_TAG:
+                return NfsGenerator.getUpperBound() - NfsGenerator.getLowerBound();
+            case SearchEngineGenerator.TRACE_TAG:
+                return SearchEngineGenerator.getUpperBound() - SearchEngineGenerator.getLowerBound();
+            case Web12Generator.TRACE_TAG:
+                return Web12Generator.getUpperBound();
+            case ZipfGenerator.TRACE_TAG:
+            case RandomGenerator.TRACE_TAG:
+                return SYNTHETIC_KEY_SPACE;
+            default:
+                throw new IllegalArgumentException("Unknown trace " + trace);
+        }
+    }
+
+    /**
+     * @param count The amount of keys to generate, the trace is looped if it is shorter
+     * @return The first keys of the trace
+     */
+    static int[] generateInts(String trace, int count) {
+        final int[] values = new int[count];
+        generator(trace).fill(values);
+        return values;
+    }
+
+    /**
+     * @param count The amount of keys to generate, the trace is looped if it is shorter
+     * @return The first keys of the trace, boxed in advance
+     */
+    static Integer[] generate(String trace, int count) {
+        final int[] values = generateInts(trace, count);
+        final Integer[] keys = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = values[i];
+        }
+
+        return keys;
+    }
+
+    private static IntGenerator generator(String trace) {
+        switch (trace) {
+            case NfsGenerator.TRACE_TAG:
+                return new NfsGenerator();
+            case SearchEngineGenerator.TRACE_TAG:
+                return new SearchEngineGenerator();
+            case Web12Generator.TRACE_TAG:
+                return new Web12Generator();
+            case ZipfGenerator.TRACE_TAG:
+                return new ZipfGenerator(0, SYNTHETIC_KEY_SPACE);
+            case RandomGenerator.TRACE_TAG:
+                return new RandomGenerator(0, SYNTHETIC_KEY_SPACE);
+            default:
+                throw new IllegalArgumentException("Unknown trace " + trace);
+        }
+    }
+}
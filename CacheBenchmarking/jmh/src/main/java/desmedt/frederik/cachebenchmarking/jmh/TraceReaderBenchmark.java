@@ -0,0 +1,100 @@
+package desmedt.frederik.cachebenchmarking.jmh;
+
+import org.cache2k.benchmark.traces.TraceResourceDirectory;
+import org.cache2k.benchmark.util.ParallelBZip2InputStream;
+import org.cache2k.benchmark.util.UmassTraceReaderLbaOnly;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing throughput of the UMass text traces. The trace is decompressed once before the
+ * measurement, so only the parsing is timed: {@link #lineReader()} is the former parser,
+ * creating a string per line and splitting it, {@link #lineScanner()} the byte based
+ * {@link UmassTraceReaderLbaOnly}. Divide {@link #size} by the time per operation for the
+ * throughput in bytes per second.
+ * <p/>
+ * The trace files are read from the directory set by the {@code trace.directory} system property.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TraceReaderBenchmark {
+
+    @Param({"umass.edu/Financial1.spc.bz2", "umass.edu/WebSearch1.spc.bz2"})
+    public String file;
+
+    public int size;
+
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputStream in = ParallelBZip2InputStream.open(TraceResourceDirectory.open(file));
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+        } finally {
+            in.close();
+        }
+        data = out.toByteArray();
+        size = data.length;
+    }
+
+    @Benchmark
+    public long lineScanner() throws Exception {
+        UmassTraceReaderLbaOnly reader = new UmassTraceReaderLbaOnly(new ByteArrayInputStream(data));
+        long sum = 0;
+        while (reader.hasNext()) {
+            sum += reader.next();
+        }
+        reader.close();
+        return sum;
+    }
+
+    /**
+     * Same parsing as {@link UmassTraceReaderLbaOnly} did with a {@link LineNumberReader}.
+     */
+    @Benchmark
+    public long lineReader() throws Exception {
+        LineNumberReader reader = new LineNumberReader(new InputStreamReader(new ByteArrayInputStream(data)));
+        long sum = 0;
+        String s;
+        while ((s = reader.readLine()) != null) {
+            String[] sa = s.split(",", 5);
+            if (sa.length < 4) {
+                continue;
+            }
+            int lba = Integer.parseInt(sa[1]);
+            if (Character.toLowerCase(sa[3].charAt(0)) != 'w') {
+                sum += lba;
+            }
+        }
+        reader.close();
+        return sum;
+    }
+}